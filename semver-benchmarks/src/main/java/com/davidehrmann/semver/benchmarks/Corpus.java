@@ -0,0 +1,127 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates the inputs the benchmarks run over. Everything is generated from a fixed seed, so runs are comparable, and
+ * shaped like what shows up in package manifests: mostly caret and tilde ranges over small version numbers, with
+ * pre-releases and build metadata mixed in.
+ */
+final class Corpus {
+
+    private static final String[] PRERELEASE_TAGS = {"alpha", "beta", "rc", "next", "canary", "dev"};
+
+    private Corpus() {
+    }
+
+    /**
+     * Returns version strings, about half of which are pre-releases, and some of which have build metadata.
+     */
+    static String[] versions(int count, long seed) {
+        Random random = new Random(seed);
+        String[] versions = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder(triple(random));
+            if (random.nextBoolean()) {
+                sb.append('-').append(prerelease(random));
+            }
+            if (random.nextInt(10) == 0) {
+                sb.append("+build.").append(random.nextInt(1000));
+            }
+            versions[i] = sb.toString();
+        }
+        return versions;
+    }
+
+    /**
+     * Returns range strings in roughly the proportions they appear in npm package manifests.
+     */
+    static String[] ranges(int count, long seed) {
+        Random random = new Random(seed);
+        String[] ranges = new String[count];
+        for (int i = 0; i < count; i++) {
+            ranges[i] = range(random);
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns ranges made of {@code terms} ranges joined with {@code ||}.
+     */
+    static String[] orChains(int count, int terms, long seed) {
+        Random random = new Random(seed);
+        String[] chains = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < terms; j++) {
+                if (j > 0) {
+                    sb.append(" || ");
+                }
+                sb.append(random.nextBoolean() ? "^" : "~").append(triple(random));
+            }
+            chains[i] = sb.toString();
+        }
+        return chains;
+    }
+
+    private static String range(Random random) {
+        int kind = random.nextInt(100);
+        if (kind < 55) {
+            return "^" + triple(random);
+        } else if (kind < 70) {
+            return "~" + triple(random);
+        } else if (kind < 78) {
+            return triple(random);
+        } else if (kind < 83) {
+            return ">=" + triple(random);
+        } else if (kind < 88) {
+            int major = small(random);
+            return ">=" + major + "." + small(random) + ".0 <" + (major + 1) + ".0.0";
+        } else if (kind < 91) {
+            return small(random) + ".x";
+        } else if (kind < 93) {
+            return "*";
+        } else if (kind < 95) {
+            int major = small(random);
+            return major + ".0.0 - " + (major + 1) + "." + small(random) + ".0";
+        } else if (kind < 98) {
+            int major = small(random);
+            return "^" + major + ".0.0 || ^" + (major + 1) + ".0.0";
+        } else {
+            return "^" + triple(random) + "-" + prerelease(random);
+        }
+    }
+
+    private static String triple(Random random) {
+        return small(random) + "." + small(random) + "." + small(random);
+    }
+
+    private static String prerelease(Random random) {
+        String tag = PRERELEASE_TAGS[random.nextInt(PRERELEASE_TAGS.length)];
+        return random.nextInt(4) == 0 ? tag : tag + "." + random.nextInt(20);
+    }
+
+    // Small numbers dominate real version numbers
+    private static int small(Random random) {
+        return random.nextInt(4) == 0 ? random.nextInt(30) : random.nextInt(5);
+    }
+}
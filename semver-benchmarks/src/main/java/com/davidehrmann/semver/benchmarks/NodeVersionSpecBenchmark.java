@@ -0,0 +1,102 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.benchmarks;
+
+import com.davidehrmann.semver.NodeVersionSpec;
+import com.davidehrmann.semver.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link NodeVersionSpec#of(String)} and {@link NodeVersionSpec#isSatisfiedBy(Version)}. {@code ranges} are
+ * shaped like the ranges in package manifests, and {@code chains} are long {@code ||} chains, which stress the parser
+ * and the evaluation of deep trees. Each invocation handles the whole corpus.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class NodeVersionSpecBenchmark {
+
+    @Param({"ranges", "chains"})
+    public String corpus;
+
+    private String[] strings;
+    private NodeVersionSpec[] specs;
+    private NodeVersionSpec[] compiled;
+    private Version[] versions;
+
+    @Setup
+    public void setUp() {
+        strings = corpus.equals("ranges") ? Corpus.ranges(1024, 2) : Corpus.orChains(64, 64, 3);
+        specs = new NodeVersionSpec[strings.length];
+        compiled = new NodeVersionSpec[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            specs[i] = NodeVersionSpec.of(strings[i]);
+            compiled[i] = specs[i].compile();
+        }
+        versions = new Version[64];
+        String[] versionStrings = Corpus.versions(versions.length, 4);
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = Version.of(versionStrings[i]);
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String string : strings) {
+            blackhole.consume(NodeVersionSpec.of(string));
+        }
+    }
+
+    @Benchmark
+    public int isSatisfiedBy() {
+        return countMatches(specs);
+    }
+
+    @Benchmark
+    public int compiledIsSatisfiedBy() {
+        return countMatches(compiled);
+    }
+
+    private int countMatches(NodeVersionSpec[] specs) {
+        int count = 0;
+        for (int i = 0; i < specs.length; i++) {
+            if (specs[i].isSatisfiedBy(versions[i % versions.length])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.benchmarks;
+
+import com.davidehrmann.semver.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Version#of(String)} and {@link Version#compareTo(Version)} over a pre-release heavy corpus. Each
+ * invocation handles the whole corpus, so scores are per {@value #SIZE} versions.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class VersionBenchmark {
+
+    static final int SIZE = 1024;
+
+    private String[] strings;
+    private Version[] versions;
+
+    @Setup
+    public void setUp() {
+        strings = Corpus.versions(SIZE, 1);
+        versions = new Version[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            versions[i] = Version.of(strings[i]);
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String string : strings) {
+            blackhole.consume(Version.of(string));
+        }
+    }
+
+    @Benchmark
+    public int compareTo() {
+        // Compare neighbours, so most comparisons get past the version triple some of the time
+        int sum = 0;
+        for (int i = 1; i < versions.length; i++) {
+            sum += versions[i - 1].compareTo(versions[i]);
+        }
+        return sum;
+    }
+}
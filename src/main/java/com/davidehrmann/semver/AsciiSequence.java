@@ -0,0 +1,183 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link CharSequence} view of ASCII bytes. Parsers scan these directly, and versions parsed from bytes keep their
+ * pre-release and build metadata in one so the {@link String} is only built if someone asks for it.
+ */
+final class AsciiSequence implements CharSequence {
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    private String string;
+
+    AsciiSequence(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Copies {@code text} between {@code start} and {@code end} into something that doesn't share state with the
+     * caller's buffer. Byte-backed input stays as bytes; everything else becomes a {@link String}.
+     */
+    static CharSequence copyOf(CharSequence text, int start, int end) {
+        if (text instanceof String) {
+            return ((String) text).substring(start, end);
+        } else if (text instanceof AsciiSequence) {
+            AsciiSequence ascii = (AsciiSequence) text;
+            return new AsciiSequence(
+                    Arrays.copyOfRange(ascii.bytes, ascii.offset + start, ascii.offset + end), 0, end - start);
+        } else if (text instanceof ByteBufferSequence) {
+            return new AsciiSequence(((ByteBufferSequence) text).copyBytes(start, end), 0, end - start);
+        } else {
+            return text.subSequence(start, end).toString();
+        }
+    }
+
+    /**
+     * Compares the characters of two sequences, like {@link String#contentEquals(CharSequence)}.
+     */
+    static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a == b) {
+            return true;
+        } else if (a == null || b == null || a.length() != b.length()) {
+            return false;
+        } else if (a instanceof String && b instanceof String) {
+            return a.equals(b);
+        }
+
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the same hash {@link String#hashCode()} would for these characters, or 0 for {@code null}.
+     */
+    static int contentHashCode(CharSequence text) {
+        if (text == null) {
+            return 0;
+        } else if (text instanceof String) {
+            return text.hashCode();
+        }
+
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) (bytes[offset + index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new AsciiSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        // Racy, but String is immutable, so the worst case is building it twice
+        String result = string;
+        if (result == null) {
+            result = new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+            string = result;
+        }
+        return result;
+    }
+
+    /**
+     * A {@link CharSequence} view of the bytes between a {@link ByteBuffer}'s position and limit. Reads are absolute,
+     * so the buffer's position is never changed.
+     */
+    static final class ByteBufferSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        ByteBufferSequence(ByteBuffer buffer) {
+            this(buffer, buffer.position(), buffer.remaining());
+        }
+
+        private ByteBufferSequence(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        byte[] copyBytes(int start, int end) {
+            byte[] result = new byte[end - start];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = buffer.get(offset + start + i);
+            }
+            return result;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+            }
+            return (char) (buffer.get(offset + index) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new ByteBufferSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(copyBytes(0, length), StandardCharsets.ISO_8859_1);
+        }
+    }
+}
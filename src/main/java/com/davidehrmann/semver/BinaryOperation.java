@@ -19,60 +19,120 @@ under the License.
 
 package com.davidehrmann.semver;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Objects;
 
 class BinaryOperation extends BaseVersionSpec {
     private final BinaryComparatorOperator operator;
     private final NodeVersionSpec leftOperand;
     private final NodeVersionSpec rightOperand;
+    // Computed once, so hashing a tree doesn't walk it
+    private final int hashCode;
 
     BinaryOperation(NodeVersionSpec leftOperand, NodeVersionSpec rightOperand,
                     BinaryComparatorOperator operator) {
         this.leftOperand = Objects.requireNonNull(leftOperand);
         this.rightOperand = Objects.requireNonNull(rightOperand);
         this.operator = Objects.requireNonNull(operator);
+        this.hashCode = Objects.hash(leftOperand, rightOperand, operator);
     }
 
     @Override
     public boolean isSatisfiedBy(Version ver) {
         switch (this.operator) {
             case UNION:
-                return this.leftOperand.isSatisfiedBy(ver) || this.rightOperand.isSatisfiedBy(ver);
+                return Instrumentation.matched(SemverListener.SpecKind.UNION,
+                        this.leftOperand.isSatisfiedBy(ver) || this.rightOperand.isSatisfiedBy(ver));
             case INTERSECTION:
-                return this.leftOperand.isSatisfiedBy(ver) && this.rightOperand.isSatisfiedBy(ver);
+                return Instrumentation.matched(SemverListener.SpecKind.INTERSECTION,
+                        this.leftOperand.isSatisfiedBy(ver) && this.rightOperand.isSatisfiedBy(ver));
             default:
                 throw new RuntimeException();
         }
     }
 
     @Override
-    public String toString() {
+    public <R> R accept(NodeVersionSpecVisitor<R> visitor) {
+        switch (this.operator) {
+            case UNION:
+                return visitor.visitUnion(this.leftOperand, this.rightOperand);
+            case INTERSECTION:
+                return visitor.visitIntersection(this.leftOperand, this.rightOperand);
+            default:
+                throw new RuntimeException();
+        }
+    }
 
+    @Override
+    VersionIntervalSet intervals(boolean prerelease) {
         switch (this.operator) {
             case UNION:
-                return this.leftOperand + " || " + this.rightOperand;
+                return this.leftOperand.intervals(prerelease).union(this.rightOperand.intervals(prerelease));
             case INTERSECTION:
+                return this.leftOperand.intervals(prerelease).intersect(this.rightOperand.intervals(prerelease));
+            default:
+                throw new RuntimeException();
+        }
+    }
+
+    @Override
+    void format(StringBuilder builder) {
+        // Walk the tree with a stack of nodes and separators, so long chains of || don't recurse deeply, and each
+        // node's text is appended once instead of being copied into every ancestor's
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            Object item = stack.pop();
+            if (item instanceof String) {
+                builder.append((String) item);
+            } else if (item instanceof BinaryOperation && !((BinaryOperation) item).isHyphenRange()) {
+                BinaryOperation operation = (BinaryOperation) item;
+                stack.push(operation.rightOperand);
+                stack.push(operation.separator());
+                stack.push(operation.leftOperand);
+            } else if (item instanceof BinaryOperation) {
                 // Intrinsic to handle 1.2.3 - 1.6.0
-                if (leftOperand instanceof Comparator
-                        && rightOperand instanceof Comparator
-                        && ((Comparator) leftOperand).getComparatorOperator() == Comparator.ComparatorOperator.GTE
-                        && ((Comparator) rightOperand).getComparatorOperator() == Comparator.ComparatorOperator.LTE) {
-                    return ((Comparator) leftOperand).getVersion() + " - " + ((Comparator) rightOperand).getVersion();
-                }
+                BinaryOperation operation = (BinaryOperation) item;
+                ((Comparator) operation.leftOperand).getVersion().appendTo(builder).append(" - ");
+                ((Comparator) operation.rightOperand).getVersion().appendTo(builder);
+            } else {
+                ((NodeVersionSpec) item).appendTo(builder);
+            }
+        }
+    }
 
+    private String separator() {
+        switch (this.operator) {
+            case UNION:
+                return " || ";
+            case INTERSECTION:
                 // TODO: intrinsic to handle 1.2.3 - 2.x (GTE, LT)
 
                 // There isn't a way to enforce logical operator precedence in node-semver, so
                 // grouping is never needed.
-                return this.leftOperand + " " + this.rightOperand;
+                return " ";
             default:
                 throw new RuntimeException();
         }
     }
 
+    private boolean isHyphenRange() {
+        return operator == BinaryComparatorOperator.INTERSECTION
+                && leftOperand instanceof Comparator
+                && rightOperand instanceof Comparator
+                && ((Comparator) leftOperand).getComparatorOperator() == Comparator.ComparatorOperator.GTE
+                && ((Comparator) rightOperand).getComparatorOperator() == Comparator.ComparatorOperator.LTE;
+    }
+
+    @Override
+    boolean containsUnion() {
+        return operator == BinaryComparatorOperator.UNION || leftOperand.containsUnion() || rightOperand.containsUnion();
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(leftOperand, rightOperand, operator);
+        return hashCode;
     }
 
     @Override
@@ -83,12 +143,25 @@ class BinaryOperation extends BaseVersionSpec {
             return true;
         } else {
             BinaryOperation binaryOperation = (BinaryOperation) obj;
-            return leftOperand.equals(binaryOperation.leftOperand) &&
+            return hashCode == binaryOperation.hashCode &&
+                    leftOperand.equals(binaryOperation.leftOperand) &&
                     rightOperand.equals(binaryOperation.rightOperand) &&
                     operator.equals(binaryOperation.operator);
         }
     }
 
+    BinaryComparatorOperator getOperator() {
+        return operator;
+    }
+
+    NodeVersionSpec getLeftOperand() {
+        return leftOperand;
+    }
+
+    NodeVersionSpec getRightOperand() {
+        return rightOperand;
+    }
+
     protected enum BinaryComparatorOperator {
         // These are in order of precedence
         INTERSECTION,
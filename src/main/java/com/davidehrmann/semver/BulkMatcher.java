@@ -0,0 +1,149 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matches a compiled spec against arrays of versions. The results are written to a {@code long[]} of bits, in chunks
+ * of whole words, so the chunks can be matched concurrently without locking, then copied into the caller's
+ * {@link BitSet} at the end.
+ */
+final class BulkMatcher {
+
+    /**
+     * The number of versions matched by each parallel task. Arrays shorter than two chunks are matched on the
+     * calling thread. Must be a multiple of 64.
+     */
+    static final int CHUNK_SIZE = 1 << 13;
+
+    private BulkMatcher() {
+    }
+
+    static void matchAll(CompiledVersionSpec spec, Version[] versions, BitSet out) {
+        long[] words = new long[wordCount(versions.length)];
+        if (versions.length < 2 * CHUNK_SIZE) {
+            match(spec, versions, 0, versions.length, words);
+        } else {
+            SharedPool.POOL.invoke(new MatchTask(spec, versions, 0, versions.length, words));
+        }
+        copy(words, versions.length, out);
+    }
+
+    static void matchAll(final CompiledVersionSpec spec, final Version[] versions, BitSet out, ExecutorService executor) {
+        final long[] words = new long[wordCount(versions.length)];
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < versions.length; start += CHUNK_SIZE) {
+            final int from = start;
+            final int to = Math.min(versions.length, start + CHUNK_SIZE);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    match(spec, versions, from, to, words);
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while matching versions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        copy(words, versions.length, out);
+    }
+
+    /**
+     * Sets the bits for {@code versions[from]} to {@code versions[to - 1]}. {@code from} must be a multiple of 64 so
+     * that concurrent calls never write the same word.
+     */
+    private static void match(CompiledVersionSpec spec, Version[] versions, int from, int to, long[] words) {
+        VersionIntervalSet releases = spec.intervals(false);
+        VersionIntervalSet prereleases = spec.intervals(true);
+        for (int i = from; i < to; ) {
+            int index = i >>> 6;
+            long word = 0;
+            int end = Math.min(to, i + 64);
+            for (int bit = 0; i < end; i++, bit++) {
+                Version version = versions[i];
+                if ((version.isPrerelease() ? prereleases : releases).contains(version)) {
+                    word |= 1L << bit;
+                }
+            }
+            words[index] = word;
+        }
+    }
+
+    private static void copy(long[] words, int length, BitSet out) {
+        out.clear(0, length);
+        out.or(BitSet.valueOf(words));
+    }
+
+    private static int wordCount(int length) {
+        return (length + 63) >>> 6;
+    }
+
+    private static final class MatchTask extends RecursiveAction {
+        private final CompiledVersionSpec spec;
+        private final Version[] versions;
+        private final int from;
+        private final int to;
+        private final long[] words;
+
+        MatchTask(CompiledVersionSpec spec, Version[] versions, int from, int to, long[] words) {
+            this.spec = spec;
+            this.versions = versions;
+            this.from = from;
+            this.to = to;
+            this.words = words;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 * CHUNK_SIZE) {
+                match(spec, versions, from, to, words);
+            } else {
+                // Split on a chunk boundary, which is also a word boundary
+                int mid = from + ((to - from) / CHUNK_SIZE / 2) * CHUNK_SIZE;
+                invokeAll(new MatchTask(spec, versions, from, mid, words),
+                        new MatchTask(spec, versions, mid, to, words));
+            }
+        }
+    }
+}
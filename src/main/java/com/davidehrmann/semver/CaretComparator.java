@@ -23,13 +23,19 @@ import java.util.Objects;
 
 class CaretComparator extends BaseVersionSpec {
     private final Version version;
+    private final int hashCode;
 
     CaretComparator(Version version) {
         this.version = Objects.requireNonNull(version);
+        this.hashCode = Objects.hash(this.getClass(), this.version);
     }
 
     @Override
     public boolean isSatisfiedBy(Version ver) {
+        return Instrumentation.matched(SemverListener.SpecKind.CARET, matches(ver));
+    }
+
+    private boolean matches(Version ver) {
         if (this.version instanceof XRangeVersion && ((XRangeVersion) this.version).prefixLength < 3) {
             XRangeVersion xRangeVersion = (XRangeVersion) this.version;
             if (ver.getPrerelease() != null) {
@@ -67,9 +73,50 @@ class CaretComparator extends BaseVersionSpec {
         }
     }
 
+    @Override
+    public <R> R accept(NodeVersionSpecVisitor<R> visitor) {
+        if (this.version instanceof XRangeVersion) {
+            return visitor.visitCaret(new Version(this.version.getMajor(), this.version.getMinor(), this.version.getPatch()),
+                    ((XRangeVersion) this.version).prefixLength);
+        }
+        return visitor.visitCaret(this.version, 3);
+    }
+
+    @Override
+    VersionIntervalSet intervals(boolean prerelease) {
+        int major = this.version.getMajor();
+        int minor = this.version.getMinor();
+        int patch = this.version.getPatch();
+
+        if (this.version instanceof XRangeVersion && ((XRangeVersion) this.version).prefixLength < 3) {
+            XRangeVersion xRangeVersion = (XRangeVersion) this.version;
+            if (prerelease) {
+                return VersionIntervalSet.EMPTY;
+            } else if (xRangeVersion.prefixLength == 0) {
+                return VersionIntervalSet.ALL;
+            } else if (major == 0 && xRangeVersion.prefixLength == 2) {
+                return VersionIntervalSet.of(new Version(major, minor, 0), true,
+                        VersionIntervalSet.nextRelease(major, minor, 0, 2), false);
+            } else {
+                return VersionIntervalSet.of(new Version(major, minor, 0), true,
+                        VersionIntervalSet.nextRelease(major, minor, 0, 1), false);
+            }
+        } else if (prerelease) {
+            if (this.version.getPrerelease() == null) {
+                return VersionIntervalSet.EMPTY;
+            }
+            return VersionIntervalSet.of(VersionIntervalSet.firstPrerelease(this.version), true,
+                    new Version(major, minor, patch), false);
+        } else {
+            int prefixLength = major != 0 ? 1 : minor != 0 ? 2 : 3;
+            return VersionIntervalSet.of(this.version, true,
+                    VersionIntervalSet.nextRelease(major, minor, patch, prefixLength), false);
+        }
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(this.getClass(), this.version);
+        return hashCode;
     }
 
     @Override
@@ -84,7 +131,11 @@ class CaretComparator extends BaseVersionSpec {
     }
 
     @Override
-    public String toString() {
-        return "^" + version;
+    void format(StringBuilder builder) {
+        version.appendTo(builder.append('^'));
+    }
+
+    Version getVersion() {
+        return version;
     }
 }
@@ -24,14 +24,20 @@ import java.util.Objects;
 class Comparator extends BaseVersionSpec {
     private final ComparatorOperator comparatorOperator;
     private final Version version;
+    private final int hashCode;
 
     Comparator(ComparatorOperator comparatorOperator, Version version) {
         this.comparatorOperator = Objects.requireNonNull(comparatorOperator);
         this.version = Objects.requireNonNull(version);
+        this.hashCode = Objects.hash(comparatorOperator, version);
     }
 
     @Override
     public boolean isSatisfiedBy(Version version) {
+        return Instrumentation.matched(SemverListener.SpecKind.COMPARATOR, matches(version));
+    }
+
+    private boolean matches(Version version) {
         if (version.getPrerelease() != null && this.version.getPrerelease() == null) {
             return false;
         }
@@ -54,21 +60,77 @@ class Comparator extends BaseVersionSpec {
     }
 
     @Override
-    public String toString() {
+    public <R> R accept(NodeVersionSpecVisitor<R> visitor) {
+        switch (this.comparatorOperator) {
+            case LT:
+                return visitor.visitComparator(NodeVersionSpecVisitor.Operator.LT, release(this.version));
+            case LTE:
+                return visitor.visitComparator(NodeVersionSpecVisitor.Operator.LTE, release(this.version));
+            case GT:
+                return visitor.visitComparator(NodeVersionSpecVisitor.Operator.GT, release(this.version));
+            case GTE:
+                return visitor.visitComparator(NodeVersionSpecVisitor.Operator.GTE, release(this.version));
+            case EQ:
+                return visitor.visitComparator(NodeVersionSpecVisitor.Operator.EQ, release(this.version));
+            default:
+                throw new RuntimeException("Unrecognized Operator " + this.comparatorOperator);
+        }
+    }
+
+    /**
+     * Returns {@code version} as a plain version. Comparators built from partial versions compare them numerically,
+     * so their precision doesn't matter.
+     */
+    private static Version release(Version version) {
+        return version instanceof XRangeVersion
+                ? new Version(version.getMajor(), version.getMinor(), version.getPatch())
+                : version;
+    }
+
+    @Override
+    VersionIntervalSet intervals(boolean prerelease) {
+        if (prerelease && this.version.getPrerelease() == null) {
+            return VersionIntervalSet.EMPTY;
+        }
+
+        switch (this.comparatorOperator) {
+            case LT:
+                return VersionIntervalSet.of(null, false, this.version, false);
+            case LTE:
+                return VersionIntervalSet.of(null, false, this.version, true);
+            case GT:
+                return VersionIntervalSet.of(this.version, false, null, false);
+            case GTE:
+                return VersionIntervalSet.of(this.version, true, null, false);
+            case EQ:
+                return VersionIntervalSet.of(this.version, true, this.version, true);
+            default:
+                throw new RuntimeException("Unrecognized Operator " + this.comparatorOperator);
+        }
+    }
+
+    @Override
+    void format(StringBuilder builder) {
         switch (this.comparatorOperator) {
             case LT:
-                return "<" + this.version;
+                builder.append('<');
+                break;
             case LTE:
-                return "<=" + this.version;
+                builder.append("<=");
+                break;
             case GT:
-                return ">" + this.version;
+                builder.append('>');
+                break;
             case GTE:
-                return ">=" + this.version;
+                builder.append(">=");
+                break;
             case EQ:
-                return "=" + this.version;
+                builder.append('=');
+                break;
             default:
                 throw new RuntimeException("Unrecognized Operator " + this.comparatorOperator);
         }
+        this.version.appendTo(builder);
     }
 
     @Override
@@ -85,7 +147,7 @@ class Comparator extends BaseVersionSpec {
 
     @Override
     public int hashCode() {
-        return Objects.hash(comparatorOperator, version);
+        return hashCode;
     }
 
     ComparatorOperator getComparatorOperator() {
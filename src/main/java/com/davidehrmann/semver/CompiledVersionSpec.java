@@ -0,0 +1,198 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link NodeVersionSpec} reduced to the sets of versions it's satisfied by: one set of release versions and one set
+ * of pre-releases, each a sorted list of disjoint {@link VersionInterval}s. This keeps the pre-release rules of the
+ * original spec (for example, {@code >=1.2.3} isn't satisfied by any pre-release), and
+ * {@link #isSatisfiedBy(Version)} is a binary search over the intervals instead of a walk over the spec.
+ *
+ * @see NodeVersionSpec#compile()
+ */
+@SuppressWarnings("WeakerAccess")
+public final class CompiledVersionSpec extends NodeVersionSpec {
+    private final NodeVersionSpec source;
+    private final VersionIntervalSet releases;
+    private final VersionIntervalSet prereleases;
+
+    /**
+     * @param source the spec this was compiled from, or {@code null} if there isn't one, like for a complement
+     */
+    CompiledVersionSpec(NodeVersionSpec source, VersionIntervalSet releases, VersionIntervalSet prereleases) {
+        this.source = source;
+        this.releases = Objects.requireNonNull(releases);
+        this.prereleases = Objects.requireNonNull(prereleases);
+    }
+
+    @Override
+    public boolean isSatisfiedBy(Version ver) {
+        return Instrumentation.matched(SemverListener.SpecKind.COMPILED,
+                (ver.isPrerelease() ? prereleases : releases).contains(ver));
+    }
+
+    @Override
+    public boolean isLatest() {
+        return source != null && source.isLatest();
+    }
+
+    @Override
+    public <R> R accept(NodeVersionSpecVisitor<R> visitor) {
+        return visitor.visitCompiled(this);
+    }
+
+    @Override
+    public CompiledVersionSpec compile() {
+        return this;
+    }
+
+    @Override
+    boolean hasSource() {
+        return source != null;
+    }
+
+    @Override
+    boolean containsUnion() {
+        return source != null && source.containsUnion();
+    }
+
+    @Override
+    boolean isWildcard() {
+        return source != null && source.isWildcard();
+    }
+
+    @Override
+    boolean isLoneXRange() {
+        return source != null && source.isLoneXRange();
+    }
+
+    @Override
+    VersionIntervalSet intervals(boolean prerelease) {
+        return prerelease ? prereleases : releases;
+    }
+
+    /**
+     * Returns a spec satisfied by the same versions that doesn't hold on to the spec this was compiled from, like the
+     * result of a set operation. It prints as its intervals.
+     */
+    public CompiledVersionSpec withoutSource() {
+        return source == null ? this : new CompiledVersionSpec(null, releases, prereleases);
+    }
+
+    /**
+     * Returns the intervals containing the release versions that satisfy this spec.
+     */
+    public List<VersionInterval> getReleaseIntervals() {
+        return releases.intervals();
+    }
+
+    /**
+     * Returns the intervals containing the pre-release versions that satisfy this spec.
+     */
+    public List<VersionInterval> getPrereleaseIntervals() {
+        return prereleases.intervals();
+    }
+
+    /**
+     * Returns the smallest interval containing every version that satisfies this spec, or {@code null} if no version
+     * can.
+     */
+    public VersionInterval span() {
+        if (releases.isEmpty() && prereleases.isEmpty()) {
+            return null;
+        }
+
+        VersionInterval lower;
+        VersionInterval upper;
+        if (releases.isEmpty()) {
+            lower = prereleases.first();
+            upper = prereleases.last();
+        } else if (prereleases.isEmpty()) {
+            lower = releases.first();
+            upper = releases.last();
+        } else {
+            lower = isLowerBelow(prereleases.first(), releases.first()) ? prereleases.first() : releases.first();
+            upper = isUpperAbove(prereleases.last(), releases.last()) ? prereleases.last() : releases.last();
+        }
+
+        return new VersionInterval(lower.getLower(), lower.isLowerInclusive(), upper.getUpper(), upper.isUpperInclusive());
+    }
+
+    /**
+     * Returns the lower bound of {@link #span()}, or {@code null} if it's unbounded or no version satisfies this spec.
+     */
+    public Version lowerBound() {
+        VersionInterval span = span();
+        return span != null ? span.getLower() : null;
+    }
+
+    /**
+     * Returns the upper bound of {@link #span()}, or {@code null} if it's unbounded or no version satisfies this spec.
+     */
+    public Version upperBound() {
+        VersionInterval span = span();
+        return span != null ? span.getUpper() : null;
+    }
+
+    private static boolean isLowerBelow(VersionInterval a, VersionInterval b) {
+        if (a.getLower() == null || b.getLower() == null) {
+            return a.getLower() == null;
+        }
+        int diff = a.getLower().compareTo(b.getLower());
+        return diff < 0 || (diff == 0 && a.isLowerInclusive());
+    }
+
+    private static boolean isUpperAbove(VersionInterval a, VersionInterval b) {
+        if (a.getUpper() == null || b.getUpper() == null) {
+            return a.getUpper() == null;
+        }
+        int diff = a.getUpper().compareTo(b.getUpper());
+        return diff > 0 || (diff == 0 && a.isUpperInclusive());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        CompiledVersionSpec spec = (CompiledVersionSpec) o;
+        return isLatest() == spec.isLatest() && releases.equals(spec.releases) && prereleases.equals(spec.prereleases);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(releases, prereleases, isLatest());
+    }
+
+    @Override
+    void format(StringBuilder builder) {
+        if (source == null) {
+            builder.append("releases ").append(releases).append(", pre-releases ").append(prereleases);
+        } else {
+            source.appendTo(builder);
+        }
+    }
+}
@@ -0,0 +1,440 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A thread-safe, mutable catalog of the versions of many packages, for many readers and a steady stream of updates.
+ *
+ * <p>Each package's versions are held in an immutable {@link Snapshot}, and reads only fetch the package's current
+ * snapshot from a {@link ConcurrentHashMap}, so they never block, and queries on a snapshot see the package as it was
+ * when it was taken, however it changes later. Snapshots store releases and pre-releases in two persistent treaps,
+ * ordered like a {@link VersionIndex}, so an update copies the {@code O(log n)} nodes on the path to the changed
+ * version and shares the rest with the previous snapshot, and {@link Snapshot#maxSatisfying(NodeVersionSpec)} takes
+ * {@code O(k log n)} time for a spec that compiles to {@code k} intervals.</p>
+ *
+ * <p>Updates to a package are serialized by one of a fixed set of locks, picked by the hash of the package name, so
+ * updates to different packages mostly proceed in parallel.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ConcurrentVersionCatalog {
+
+    private final ConcurrentMap<String, Snapshot> packages = new ConcurrentHashMap<>();
+    private final Object[] locks;
+
+    /**
+     * Creates a catalog with four locks per available processor.
+     */
+    public ConcurrentVersionCatalog() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a catalog whose updates are serialized by {@code stripes} locks, rounded up to a power of two.
+     *
+     * @throws IllegalArgumentException if {@code stripes} isn't between 1 and 65536
+     */
+    public ConcurrentVersionCatalog(int stripes) {
+        if (stripes <= 0 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("Invalid number of stripes " + stripes);
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        locks = new Object[size];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Adds {@code version} to {@code packageName}'s versions.
+     *
+     * @return whether the version was added, which it isn't if the package already has an equal version
+     */
+    public boolean add(String packageName, Version version) {
+        Objects.requireNonNull(version, "version");
+        synchronized (lock(packageName)) {
+            Snapshot snapshot = snapshot(packageName);
+            Snapshot updated = snapshot.add(version);
+            if (updated == snapshot) {
+                return false;
+            }
+            packages.put(packageName, updated);
+            return true;
+        }
+    }
+
+    /**
+     * Adds {@code versions} to {@code packageName}'s versions, all at once: a snapshot taken while they're being added
+     * has either none or all of them.
+     *
+     * @return whether any version was added
+     */
+    public boolean addAll(String packageName, Iterable<? extends Version> versions) {
+        synchronized (lock(packageName)) {
+            Snapshot snapshot = snapshot(packageName);
+            Snapshot updated = snapshot;
+            for (Version version : versions) {
+                updated = updated.add(Objects.requireNonNull(version, "versions contains null"));
+            }
+            if (updated == snapshot) {
+                return false;
+            }
+            packages.put(packageName, updated);
+            return true;
+        }
+    }
+
+    /**
+     * Removes {@code version} from {@code packageName}'s versions. A package without versions is removed.
+     *
+     * @return whether the version was removed, which it isn't if the package doesn't have an equal version
+     */
+    public boolean remove(String packageName, Version version) {
+        Objects.requireNonNull(version, "version");
+        synchronized (lock(packageName)) {
+            Snapshot snapshot = snapshot(packageName);
+            Snapshot updated = snapshot.remove(version);
+            if (updated == snapshot) {
+                return false;
+            }
+            if (updated.size() == 0) {
+                packages.remove(packageName);
+            } else {
+                packages.put(packageName, updated);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Removes {@code packageName} and all its versions.
+     *
+     * @return whether the package had any versions
+     */
+    public boolean removePackage(String packageName) {
+        synchronized (lock(packageName)) {
+            return packages.remove(packageName) != null;
+        }
+    }
+
+    /**
+     * Returns {@code packageName}'s versions as they are now, which is empty if there's no such package.
+     */
+    public Snapshot snapshot(String packageName) {
+        Snapshot snapshot = packages.get(packageName);
+        return snapshot != null ? snapshot : Snapshot.EMPTY;
+    }
+
+    /**
+     * Returns the highest of {@code packageName}'s current versions that satisfies {@code spec}, or {@code null} if
+     * none do.
+     */
+    public Version maxSatisfying(String packageName, NodeVersionSpec spec) {
+        return snapshot(packageName).maxSatisfying(spec);
+    }
+
+    public boolean contains(String packageName) {
+        return packages.containsKey(packageName);
+    }
+
+    /**
+     * Returns a live, unmodifiable view of the names of the packages with versions.
+     */
+    public Set<String> packageNames() {
+        return Collections.unmodifiableSet(packages.keySet());
+    }
+
+    private Object lock(String packageName) {
+        int hash = packageName.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (locks.length - 1)];
+    }
+
+    /**
+     * The versions of a package at some point in time. Snapshots are immutable, and safe to share between threads.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(null, null);
+
+        private final Node releases;
+        private final Node prereleases;
+
+        private Snapshot(Node releases, Node prereleases) {
+            this.releases = releases;
+            this.prereleases = prereleases;
+        }
+
+        public int size() {
+            return Node.size(releases) + Node.size(prereleases);
+        }
+
+        public boolean contains(Version version) {
+            return Node.contains(version.isPrerelease() ? prereleases : releases, version);
+        }
+
+        /**
+         * Returns the highest version that satisfies {@code spec}, or {@code null} if none do.
+         */
+        public Version maxSatisfying(NodeVersionSpec spec) {
+            CompiledVersionSpec compiled = spec.compile();
+            Version release = max(compiled.intervals(false), releases);
+            Version prerelease = max(compiled.intervals(true), prereleases);
+            if (release == null || prerelease == null) {
+                return release != null ? release : prerelease;
+            }
+            return release.compareTo(prerelease) >= 0 ? release : prerelease;
+        }
+
+        /**
+         * Returns the lowest version that satisfies {@code spec}, or {@code null} if none do.
+         */
+        public Version minSatisfying(NodeVersionSpec spec) {
+            CompiledVersionSpec compiled = spec.compile();
+            Version release = min(compiled.intervals(false), releases);
+            Version prerelease = min(compiled.intervals(true), prereleases);
+            if (release == null || prerelease == null) {
+                return release != null ? release : prerelease;
+            }
+            return release.compareTo(prerelease) <= 0 ? release : prerelease;
+        }
+
+        /**
+         * Returns the versions, in ascending order.
+         */
+        public List<Version> versions() {
+            List<Version> releaseList = Node.toList(releases);
+            List<Version> prereleaseList = Node.toList(prereleases);
+            List<Version> versions = new ArrayList<>(releaseList.size() + prereleaseList.size());
+            int r = 0;
+            int p = 0;
+            while (r < releaseList.size() || p < prereleaseList.size()) {
+                if (p == prereleaseList.size() || (r < releaseList.size()
+                        && VersionIndex.ORDER.compare(releaseList.get(r), prereleaseList.get(p)) < 0)) {
+                    versions.add(releaseList.get(r++));
+                } else {
+                    versions.add(prereleaseList.get(p++));
+                }
+            }
+            return Collections.unmodifiableList(versions);
+        }
+
+        Snapshot add(Version version) {
+            if (version.isPrerelease()) {
+                Node updated = Node.insert(prereleases, version);
+                return updated == prereleases ? this : new Snapshot(releases, updated);
+            } else {
+                Node updated = Node.insert(releases, version);
+                return updated == releases ? this : new Snapshot(updated, prereleases);
+            }
+        }
+
+        Snapshot remove(Version version) {
+            if (version.isPrerelease()) {
+                Node updated = Node.delete(prereleases, version);
+                return updated == prereleases ? this : new Snapshot(releases, updated);
+            } else {
+                Node updated = Node.delete(releases, version);
+                return updated == releases ? this : new Snapshot(updated, prereleases);
+            }
+        }
+
+        private static Version max(VersionIntervalSet set, Node root) {
+            // The intervals are disjoint and sorted, so the highest one with a version in it has the answer
+            List<VersionInterval> intervals = set.intervals();
+            for (int i = intervals.size() - 1; i >= 0; i--) {
+                VersionInterval interval = intervals.get(i);
+                Version floor = Node.floor(root, interval);
+                if (floor != null && interval.isAboveLower(floor)) {
+                    return floor;
+                }
+            }
+            return null;
+        }
+
+        private static Version min(VersionIntervalSet set, Node root) {
+            for (VersionInterval interval : set.intervals()) {
+                Version ceiling = Node.ceiling(root, interval);
+                if (ceiling != null && interval.isBelowUpper(ceiling)) {
+                    return ceiling;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return versions().toString();
+        }
+    }
+
+    /**
+     * An immutable treap node. Updates copy the nodes on the path to the change, and return the original root if
+     * nothing changed.
+     */
+    private static final class Node {
+        final Version version;
+        final int priority;
+        final Node left;
+        final Node right;
+        final int size;
+
+        Node(Version version, int priority, Node left, Node right) {
+            this.version = version;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        static int size(Node node) {
+            return node != null ? node.size : 0;
+        }
+
+        static boolean contains(Node node, Version version) {
+            while (node != null) {
+                int diff = VersionIndex.ORDER.compare(version, node.version);
+                if (diff == 0) {
+                    return true;
+                }
+                node = diff < 0 ? node.left : node.right;
+            }
+            return false;
+        }
+
+        static Node insert(Node root, Version version) {
+            return contains(root, version) ? root : insert(root, version, ThreadLocalRandom.current().nextInt());
+        }
+
+        private static Node insert(Node node, Version version, int priority) {
+            if (node == null) {
+                return new Node(version, priority, null, null);
+            } else if (priority > node.priority) {
+                Node[] parts = split(node, version);
+                return new Node(version, priority, parts[0], parts[1]);
+            } else if (VersionIndex.ORDER.compare(version, node.version) < 0) {
+                return new Node(node.version, node.priority, insert(node.left, version, priority), node.right);
+            } else {
+                return new Node(node.version, node.priority, node.left, insert(node.right, version, priority));
+            }
+        }
+
+        /**
+         * Splits {@code node} into the nodes ordered before {@code version} and the ones after it.
+         */
+        private static Node[] split(Node node, Version version) {
+            if (node == null) {
+                return new Node[2];
+            } else if (VersionIndex.ORDER.compare(node.version, version) < 0) {
+                Node[] parts = split(node.right, version);
+                parts[0] = new Node(node.version, node.priority, node.left, parts[0]);
+                return parts;
+            } else {
+                Node[] parts = split(node.left, version);
+                parts[1] = new Node(node.version, node.priority, parts[1], node.right);
+                return parts;
+            }
+        }
+
+        static Node delete(Node root, Version version) {
+            return contains(root, version) ? deletePresent(root, version) : root;
+        }
+
+        private static Node deletePresent(Node node, Version version) {
+            int diff = VersionIndex.ORDER.compare(version, node.version);
+            if (diff == 0) {
+                return merge(node.left, node.right);
+            } else if (diff < 0) {
+                return new Node(node.version, node.priority, deletePresent(node.left, version), node.right);
+            } else {
+                return new Node(node.version, node.priority, node.left, deletePresent(node.right, version));
+            }
+        }
+
+        private static Node merge(Node left, Node right) {
+            if (left == null) {
+                return right;
+            } else if (right == null) {
+                return left;
+            } else if (left.priority > right.priority) {
+                return new Node(left.version, left.priority, left.left, merge(left.right, right));
+            } else {
+                return new Node(right.version, right.priority, merge(left, right.left), right.right);
+            }
+        }
+
+        /**
+         * Returns the highest version that isn't above {@code interval}, or {@code null} if there's none.
+         */
+        static Version floor(Node node, VersionInterval interval) {
+            Version floor = null;
+            while (node != null) {
+                if (interval.isBelowUpper(node.version)) {
+                    floor = node.version;
+                    node = node.right;
+                } else {
+                    node = node.left;
+                }
+            }
+            return floor;
+        }
+
+        /**
+         * Returns the lowest version that isn't below {@code interval}, or {@code null} if there's none.
+         */
+        static Version ceiling(Node node, VersionInterval interval) {
+            Version ceiling = null;
+            while (node != null) {
+                if (interval.isAboveLower(node.version)) {
+                    ceiling = node.version;
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+            return ceiling;
+        }
+
+        static List<Version> toList(Node root) {
+            List<Version> versions = new ArrayList<>(size(root));
+            Deque<Node> stack = new ArrayDeque<>();
+            for (Node node = root; node != null || !stack.isEmpty(); node = node.right) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.left;
+                }
+                node = stack.pop();
+                versions.add(node.version);
+            }
+            return versions;
+        }
+    }
+}
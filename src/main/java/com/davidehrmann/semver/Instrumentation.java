@@ -0,0 +1,84 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the installed {@link SemverListener}, if any. There's one listener per class loader; to send events to more
+ * than one place, install a listener that forwards them.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Instrumentation {
+
+    // Read on every parse and match, so it's a plain volatile field rather than anything with more indirection
+    static volatile SemverListener listener;
+
+    private static volatile long slowParseThresholdNanos = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Installs {@code listener}, replacing the current one, or removes the current one if {@code listener} is
+     * {@code null}.
+     */
+    public static void setListener(SemverListener listener) {
+        Instrumentation.listener = listener;
+    }
+
+    /**
+     * Returns the installed listener, or {@code null} if there isn't one.
+     */
+    public static SemverListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets how long a parse has to take to be reported to {@link SemverListener#onSlowParse(String, long)}. The
+     * default is one millisecond.
+     */
+    public static void setSlowParseThreshold(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("duration must be non-negative");
+        }
+        slowParseThresholdNanos = unit.toNanos(duration);
+    }
+
+    static void parsed(SemverListener listener, CharSequence versionSpec, long nanos) {
+        String spec = versionSpec.toString();
+        listener.onParse(spec, nanos);
+        if (nanos >= slowParseThresholdNanos) {
+            listener.onSlowParse(spec, nanos);
+        }
+    }
+
+    /**
+     * Reports a match to the listener, if there is one, and returns {@code satisfied}, so spec nodes can report and
+     * return in one statement.
+     */
+    static boolean matched(SemverListener.SpecKind kind, boolean satisfied) {
+        SemverListener listener = Instrumentation.listener;
+        if (listener != null) {
+            listener.onMatch(kind, satisfied);
+        }
+        return satisfied;
+    }
+}
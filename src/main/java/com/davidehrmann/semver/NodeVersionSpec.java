@@ -19,30 +19,18 @@ under the License.
 
 package com.davidehrmann.semver;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 
 public abstract class NodeVersionSpec {
 
-    private static final Pattern PATCH_X_RANGE_PATTERN = Pattern.compile(
-            "([1-9]\\d*|0)" +
-                    "[.]" + "([1-9]\\d*|0)" +
-                    "(?:[.][xX*])?"
-    );
-
-    private static final Pattern MINOR_X_RANGE_PATTERN = Pattern.compile(
-            "([1-9]\\d*|0)" +
-                    "(?:[.][xX*])?" +
-                    "(?:[.][xX*])?"
-    );
-    private static final Pattern MAJOR_X_RANGE_PATTERN = Pattern.compile("[xX*]" + "(?:[.][xX*])?" + "(?:[.][xX*])?");
-    private static final Pattern BINARY_OPERATOR_PATTERN = Pattern.compile("\\s*([|]{2}|\\s+)\\s*");
-    private static final Pattern HYPHEN_RANGE_PATTERN = Pattern.compile("\\s*-\\s*");
-    private static final Pattern OPERATOR_PATTERN = Pattern.compile("([<>]=?|=|[~^])\\s*");
-
     @SuppressWarnings("WeakerAccess")
     public static NodeVersionSpec LATEST = new NodeVersionSpec() {
         @Override
@@ -55,245 +43,398 @@ public abstract class NodeVersionSpec {
             return true;
         }
 
+        @Override
+        public <R> R accept(NodeVersionSpecVisitor<R> visitor) {
+            return visitor.visitLatest();
+        }
+
+        @Override
+        VersionIntervalSet intervals(boolean prerelease) {
+            return VersionIntervalSet.EMPTY;
+        }
+
+        @Override
+        void format(StringBuilder builder) {
+            builder.append("latest");
+        }
     };
 
+    // The canonical string, if cacheString() was called. Strings are immutable, so racing threads at worst build it
+    // twice.
+    private String string;
+
     @SuppressWarnings("WeakerAccess")
     public static NodeVersionSpec of(String versionSpec) {
-        if (versionSpec.isEmpty() || versionSpec.trim().isEmpty()) {
-            return new Comparator(Comparator.ComparatorOperator.GTE, new Version(0, 0, 0));
-        } else if ("latest".equalsIgnoreCase(versionSpec.trim())) {
-            return LATEST;
-        }
+        return parse(versionSpec, null);
+    }
 
-        List<Object> tokens = new ArrayList<>();
-
-        Matcher matcher = OPERATOR_PATTERN.matcher(versionSpec).useAnchoringBounds(true);
-
-        int end = versionSpec.length();
-        int start = 0;
-        while (start < end) {
-            if (matcher.usePattern(OPERATOR_PATTERN).find(start) && matcher.start() == start) {
-                switch (matcher.group(1)) {
-                    case ">":
-                        tokens.add(Comparator.ComparatorOperator.GT);
-                        break;
-                    case ">=":
-                        tokens.add(Comparator.ComparatorOperator.GTE);
-                        break;
-                    case "<":
-                        tokens.add(Comparator.ComparatorOperator.LT);
-                        break;
-                    case "<=":
-                        tokens.add(Comparator.ComparatorOperator.LTE);
-                        break;
-                    case "=":
-                        tokens.add(Comparator.ComparatorOperator.EQ);
-                        break;
-                    case "~":
-                        tokens.add(UnaryRange.TILDE);
-                        break;
-                    case "^":
-                        tokens.add(UnaryRange.CARET);
-                        break;
-                    default:
-                        throw new RuntimeException("Internal bug");
-                }
-            } else if (matcher.usePattern(Version.VERSION_PATTERN).find(start) && matcher.start() == start) {
-                tokens.add(Version.of(matcher.group()));
-            } else if (matcher.usePattern(PATCH_X_RANGE_PATTERN).find(start) && matcher.start() == start) {
-                int majorVersion = Integer.parseInt(matcher.group(1));
-                int minorVersion = Integer.parseInt(matcher.group(2));
-                tokens.add(new XRangeVersion(majorVersion, minorVersion));
-            } else if (matcher.usePattern(MINOR_X_RANGE_PATTERN).find(start) && matcher.start() == start) {
-                int majorVersion = Integer.parseInt(matcher.group(1));
-                tokens.add(new XRangeVersion(majorVersion));
-            } else if (matcher.usePattern(MAJOR_X_RANGE_PATTERN).find(start) && matcher.start() == start) {
-                tokens.add(new XRangeVersion());
-            } else if (matcher.usePattern(HYPHEN_RANGE_PATTERN).find(start) && matcher.start() == start) {
-                // TODO: make this more elegant?
-                tokens.add("-");
-            } else if (matcher.usePattern(BINARY_OPERATOR_PATTERN).find(start) && matcher.start() == start) {
-                if (matcher.group(1).equals("||")) {
-                    tokens.add(BinaryOperation.BinaryComparatorOperator.UNION);
-                } else {
-                    tokens.add(BinaryOperation.BinaryComparatorOperator.INTERSECTION);
-                }
-            } else {
-                throw new IllegalArgumentException("Failed parse version spec '" + versionSpec + "' at char " + start + " : unexpected token");
-            }
-
-            start = matcher.end();
-        }
+    /**
+     * Parses {@code versionSpec}, replacing the versions in it with the pool's canonical instances.
+     *
+     * @see VersionPool#intern(Version)
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static NodeVersionSpec of(String versionSpec, VersionPool pool) {
+        return parse(versionSpec, Objects.requireNonNull(pool));
+    }
+
+    /**
+     * Returns the spec {@code =<version>}, which is only satisfied by {@code version}, without formatting and parsing
+     * it.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static NodeVersionSpec exactly(Version version) {
+        return new Comparator(Comparator.ComparatorOperator.EQ, version);
+    }
 
-        // Bind unary operators
-        for (int i = 0; i < tokens.size() - 1; i++) {
-            Object o = tokens.get(i);
-            if (o instanceof UnaryRange || o instanceof Comparator.ComparatorOperator) {
-                Object next = tokens.get(i + 1);
-                if (!(next instanceof Version)) {
-                    throw new IllegalArgumentException("Version expected after " + o);
-                }
-
-                if (o instanceof UnaryRange) {
-                    switch ((UnaryRange) o) {
-                        case TILDE:
-                            tokens.set(i, new TildeComparator((Version) next));
-                            break;
-                        case CARET:
-                            tokens.set(i, new CaretComparator((Version) next));
-                            break;
-                        default:
-                            throw new RuntimeException("Unsupported UnaryRange: " + o);
-                    }
-                } else {
-                    if (Comparator.ComparatorOperator.EQ.equals(o)) {
-                        tokens.set(i, next);
-                    } else {
-                        tokens.set(i, new Comparator((Comparator.ComparatorOperator) o, (Version) next));
-                    }
-                }
-
-                tokens.set(i + 1, null);
-                i += 1;
-            }
+    /**
+     * Parses {@code versionSpec}, rejecting specs longer than {@code maxLength} chars or that would take more than
+     * {@code maxNodes} nodes to represent. Parsing takes time linear in the length of the spec, so these limits bound
+     * the cost of parsing untrusted specs, and the size of the result.
+     *
+     * @throws IllegalArgumentException if the spec is invalid or exceeds either limit
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static NodeVersionSpec of(String versionSpec, int maxLength, int maxNodes) {
+        return new NodeVersionSpecParser(null, maxLength, maxNodes).parse(versionSpec);
+    }
+
+    /**
+     * Parses the ASCII version spec in {@code bytes} between {@code start} (inclusive) and {@code end} (exclusive)
+     * without decoding it to a {@link String} first.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static NodeVersionSpec of(byte[] bytes, int start, int end) {
+        if (start < 0 || end > bytes.length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + bytes.length);
         }
+        return parse(new AsciiSequence(bytes, start, end - start), null);
+    }
+
+    /**
+     * Parses the ASCII version spec between the buffer's position and limit. The buffer is read in place, and its
+     * position isn't changed.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static NodeVersionSpec of(ByteBuffer buffer) {
+        return parse(new AsciiSequence.ByteBufferSequence(buffer), null);
+    }
+
+    /**
+     * Reads a spec written by {@link #writeTo(DataOutput)}. This is much cheaper than parsing the spec's string form,
+     * and the result is {@linkplain #equals(Object) equal} to the spec that was written.
+     *
+     * @throws IllegalArgumentException if the input isn't an encoded spec, or uses an unsupported format version
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static NodeVersionSpec readFrom(DataInput in) throws IOException {
+        return NodeVersionSpecCodec.read(in);
+    }
+
+    /**
+     * Reads a spec written by {@link #writeTo(ByteBuffer)}, starting at the buffer's position and advancing it past
+     * the spec.
+     *
+     * @throws IllegalArgumentException if the buffer doesn't hold an encoded spec, or uses an unsupported format version
+     * @see #readFrom(DataInput)
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static NodeVersionSpec readFrom(ByteBuffer buffer) {
+        return NodeVersionSpecCodec.read(buffer);
+    }
+
+    private static NodeVersionSpec parse(CharSequence versionSpec, VersionPool pool) {
+        return new NodeVersionSpecParser(pool, Integer.MAX_VALUE, Integer.MAX_VALUE).parse(versionSpec);
+    }
+
+    NodeVersionSpec() {
+
+    }
+
+    public abstract boolean isSatisfiedBy(Version ver);
+
+    public abstract boolean isLatest();
+
+    /**
+     * Calls the method of {@code visitor} for this node and returns its result.
+     */
+    public abstract <R> R accept(NodeVersionSpecVisitor<R> visitor);
+
+    /**
+     * Writes this spec in a compact, versioned binary form that {@link #readFrom(DataInput)} reads back. Specs from
+     * {@link #of(String)} and {@link #LATEST} can be written; compiled specs and the results of set operations can't.
+     *
+     * @throws IllegalArgumentException if this spec can't be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        NodeVersionSpecCodec.write(this, out);
+    }
+
+    /**
+     * Writes this spec at the buffer's position, advancing it past the spec.
+     *
+     * @throws IllegalArgumentException if this spec can't be written
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have room for the spec
+     * @see #writeTo(DataOutput)
+     */
+    public void writeTo(ByteBuffer buffer) {
+        NodeVersionSpecCodec.write(this, buffer);
+    }
 
-        Object last = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1);
-        if (last instanceof UnaryRange || last instanceof Comparator.ComparatorOperator) {
-            throw new IllegalArgumentException("Version expected after " + last);
+    /**
+     * Appends this spec, as {@link #toString()} formats it, to {@code builder}, and returns {@code builder}. This takes
+     * time linear in the length of the text, and reuses the {@linkplain #cacheString() cached} text, if any.
+     */
+    public final StringBuilder appendTo(StringBuilder builder) {
+        String string = this.string;
+        if (string != null) {
+            builder.append(string);
+        } else {
+            format(builder);
         }
+        return builder;
+    }
 
-        tokens.removeAll(Collections.singleton(null));
-
-        // Bind range operators
-        for (int i = 1; i < tokens.size() - 1; i++) {
-            if ("-".equals(tokens.get(i))) {
-                Object left = tokens.get(i - 1);
-                Object right = tokens.get(i + 1);
-                if (!(left instanceof Version)) {
-                    throw new IllegalArgumentException("Expected xRangeVersion, got '" + left + "'");
-                } else if (!(right instanceof Version)) {
-                    throw new IllegalArgumentException("Expected xRangeVersion, got '" + right + "'");
-                } else {
-                    NodeVersionSpec rightVersionSpec;
-
-                    // Since ranges are inclusive, an upper bound of 1.2 is more like <1.3.0.  Handle this.
-                    if (right instanceof XRangeVersion) {
-                        XRangeVersion rightVersion = (XRangeVersion) right;
-                        if (rightVersion.prefixLength == 1) {
-                            rightVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(rightVersion.getMajor() + 1, 0, 0));
-                        } else if (rightVersion.prefixLength == 2) {
-                            rightVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(rightVersion.getMajor(), rightVersion.getMinor() + 1, 0));
-                        } else if (rightVersion.prefixLength == 3) {
-                            rightVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(rightVersion.getMajor(), rightVersion.getMinor(), rightVersion.getPatch() + 1));
-                        } else {
-                            rightVersionSpec = new Comparator(Comparator.ComparatorOperator.GTE, new Version(0, 0, 0));
-                        }
-                    } else {
-                        rightVersionSpec = new Comparator(Comparator.ComparatorOperator.LTE, (Version) right);
-                    }
-
-                    tokens.set(i - 1, null);
-                    tokens.set(i + 1, null);
-                    tokens.set(i,
-                            new BinaryOperation(
-                                    new Comparator(Comparator.ComparatorOperator.GTE, (Version) left),
-                                    rightVersionSpec,
-                                    BinaryOperation.BinaryComparatorOperator.INTERSECTION));
-                    i += 2;
-                }
-            }
+    /**
+     * Appends this spec, as {@link #toString()} formats it, to {@code out}. Unless {@code out} is a
+     * {@link StringBuilder} or the text is {@linkplain #cacheString() cached}, this builds the text first.
+     */
+    public final void appendTo(Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            appendTo((StringBuilder) out);
+        } else {
+            out.append(toString());
         }
+    }
 
-        tokens.removeAll(Collections.singleton(null));
+    /**
+     * Writes this spec, as {@link #toString()} formats it, in ASCII at the buffer's position, advancing it past the
+     * text. Unlike {@link #writeTo(ByteBuffer)}, this writes the text form.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have room for the text
+     */
+    public final void appendTo(ByteBuffer buffer) {
+        String string = toString();
+        for (int i = 0; i < string.length(); i++) {
+            buffer.put((byte) string.charAt(i));
+        }
+    }
 
-        if (tokens.contains("-")) {
-            throw new IllegalArgumentException("Unmatched range");
+    /**
+     * Returns this spec in node-semver syntax.
+     */
+    @Override
+    public final String toString() {
+        String string = this.string;
+        if (string == null) {
+            StringBuilder builder = new StringBuilder();
+            format(builder);
+            string = builder.toString();
         }
+        return string;
+    }
 
-        // Bind intersections
-        for (BinaryOperation.BinaryComparatorOperator operator :
-                BinaryOperation.BinaryComparatorOperator.values()) {
-            boolean operatorFound;
-            do {
-                operatorFound = false;
-                for (int i = 1; i < tokens.size() - 1; i++) {
-                    if (operator.equals(tokens.get(i))) {
-                        Object left = tokens.get(i - 1);
-                        if (left instanceof XRangeVersion) {
-                            XRangeVersion xRangeVersion = (XRangeVersion) left;
-                            NodeVersionSpec upperVersionSpec;
-                            if (xRangeVersion.prefixLength == 1) {
-                                upperVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor() + 1, 0, 0));
-                            } else if (xRangeVersion.prefixLength == 2) {
-                                upperVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor(), xRangeVersion.getMinor() + 1, 0));
-                            } else if (xRangeVersion.prefixLength == 3) {
-                                upperVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor(), xRangeVersion.getMinor(), xRangeVersion.getPatch() + 1));
-                            } else {
-                                upperVersionSpec = new Comparator(Comparator.ComparatorOperator.GTE, new Version(0, 0, 0));
-                            }
-
-                            left = new BinaryOperation(new Comparator(Comparator.ComparatorOperator.GTE, xRangeVersion), upperVersionSpec, BinaryOperation.BinaryComparatorOperator.INTERSECTION);
-                        } else if (left instanceof Version) {
-                            left = new Comparator(Comparator.ComparatorOperator.EQ, (Version) left);
-                        } else if (!(left instanceof NodeVersionSpec)) {
-                            throw new IllegalArgumentException("Unexpected token before " + operator + ": '" + left + "'");
-                        }
-
-                        Object right = tokens.get(i + 1);
-                        if (right instanceof XRangeVersion) {
-                            XRangeVersion xRangeVersion = (XRangeVersion) right;
-                            NodeVersionSpec upperVersionSpec;
-                            if (xRangeVersion.prefixLength == 1) {
-                                upperVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor() + 1, 0, 0));
-                            } else if (xRangeVersion.prefixLength == 2) {
-                                upperVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor(), xRangeVersion.getMinor() + 1, 0));
-                            } else if (xRangeVersion.prefixLength == 3) {
-                                upperVersionSpec = new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor(), xRangeVersion.getMinor(), xRangeVersion.getPatch() + 1));
-                            } else {
-                                upperVersionSpec = new Comparator(Comparator.ComparatorOperator.GTE, new Version(0, 0, 0));
-                            }
-
-                            right = new BinaryOperation(new Comparator(Comparator.ComparatorOperator.GTE, xRangeVersion), upperVersionSpec, BinaryOperation.BinaryComparatorOperator.INTERSECTION);
-                        } else if (right instanceof Version) {
-                            right = new Comparator(Comparator.ComparatorOperator.EQ, (Version) right);
-                        } else if (!(right instanceof NodeVersionSpec)) {
-                            throw new IllegalArgumentException("Unexpected token after " + operator + ": '" + right + "'");
-                        }
-
-                        tokens.set(i - 1, null);
-                        tokens.set(i + 1, null);
-                        tokens.set(i, new BinaryOperation((NodeVersionSpec) left, (NodeVersionSpec) right, operator));
-
-                        operatorFound = true;
-                        i += 2;
-                    }
-                }
-
-                tokens.removeAll(Collections.singleton(null));
-            } while (operatorFound);
+    /**
+     * Builds this spec's string and keeps it, so {@link #toString()} returns the same instance, and the
+     * {@code appendTo} methods copy it instead of formatting the spec again. This trades the string's memory for
+     * allocation-free formatting, so it's worth it for long-lived specs that are formatted often.
+     * {@link NodeVersionSpecInterner} does this for the specs it returns.
+     *
+     * @return this spec
+     */
+    public final NodeVersionSpec cacheString() {
+        if (string == null) {
+            string = toString();
         }
+        return this;
+    }
 
-        if (tokens.size() != 1) {
-            throw new IllegalArgumentException("Oops");
-        } else if (tokens.get(0) instanceof XRangeVersion) {
-            return new XRangeComparator((XRangeVersion) tokens.get(0));
-        } else if (tokens.get(0) instanceof Version) {
-            return new Comparator(Comparator.ComparatorOperator.EQ, (Version) tokens.get(0));
-        } else if (!(tokens.get(0) instanceof NodeVersionSpec)) {
-            throw new IllegalArgumentException("Oops");
-        } else {
-            return (NodeVersionSpec) tokens.get(0);
+    /**
+     * Appends this spec in node-semver syntax to {@code builder}.
+     */
+    abstract void format(StringBuilder builder);
+
+    /**
+     * Reduces this spec to the intervals of versions that satisfy it. The result is satisfied by exactly the same
+     * versions, but checks them with a binary search, and exposes the bounds of the matching versions.
+     */
+    public CompiledVersionSpec compile() {
+        return new CompiledVersionSpec(this, intervals(false), intervals(true));
+    }
+
+    /**
+     * Returns whether some version satisfies both this spec and {@code other}.
+     */
+    public boolean intersects(NodeVersionSpec other) {
+        return intervals(false).intersect(other.intervals(false)).containsAny(false)
+                || intervals(true).intersect(other.intervals(true)).containsAny(true);
+    }
+
+    /**
+     * Returns whether every version that satisfies this spec also satisfies {@code other}.
+     */
+    public boolean isSubsetOf(NodeVersionSpec other) {
+        return !intervals(false).intersect(other.intervals(false).complement()).containsAny(false)
+                && !intervals(true).intersect(other.intervals(true).complement()).containsAny(true);
+    }
+
+    /**
+     * Returns a spec satisfied by the versions that satisfy both this spec and {@code other}. It prints as the two specs
+     * side by side when that's a spec for the same versions. Otherwise, including when either side has no source, like
+     * a {@linkplain #complement() complement}, it prints as its intervals, so chains of set operations don't hold on to
+     * every intermediate spec.
+     */
+    public CompiledVersionSpec intersect(NodeVersionSpec other) {
+        return new CompiledVersionSpec(
+                combinedSource(other, BinaryOperation.BinaryComparatorOperator.INTERSECTION),
+                intervals(false).intersect(other.intervals(false)),
+                intervals(true).intersect(other.intervals(true)));
+    }
+
+    /**
+     * Returns a spec satisfied by the versions that satisfy either this spec or {@code other}. Like
+     * {@link #intersect(NodeVersionSpec)}, it prints as the two specs joined by {@code ||} when both have a source,
+     * and otherwise as its intervals.
+     */
+    public CompiledVersionSpec union(NodeVersionSpec other) {
+        return new CompiledVersionSpec(
+                combinedSource(other, BinaryOperation.BinaryComparatorOperator.UNION),
+                intervals(false).union(other.intervals(false)),
+                intervals(true).union(other.intervals(true)));
+    }
+
+    /**
+     * Returns the spec {@code this <operator> other}, or {@code null} if either side has no source to describe it,
+     * so that chains of set operations don't hold on to every intermediate result. Node-semver syntax can't group, so
+     * there's also no source for an intersection with a union, which would print as a union with an intersection.
+     */
+    private NodeVersionSpec combinedSource(NodeVersionSpec other, BinaryOperation.BinaryComparatorOperator operator) {
+        if (!this.hasSource() || !other.hasSource() || this.isLatest() || other.isLatest()) {
+            return null;
+        } else if (this.isWildcard() || other.isWildcard()) {
+            // A lone * is every version, so it's the identity of intersection and absorbs unions
+            NodeVersionSpec wildcard = this.isWildcard() ? this : other;
+            NodeVersionSpec rest = wildcard == this ? other : this;
+            return operator == BinaryOperation.BinaryComparatorOperator.INTERSECTION ? rest : wildcard;
+        } else if (this.isLoneXRange() || other.isLoneXRange()) {
+            return null;
+        } else if (operator == BinaryOperation.BinaryComparatorOperator.INTERSECTION
+                && (this.containsUnion() || other.containsUnion())) {
+            return null;
         }
+        return new BinaryOperation(this, other, operator);
     }
 
-    NodeVersionSpec() {
+    /**
+     * Returns whether this spec's text has a {@code ||} in it.
+     */
+    boolean containsUnion() {
+        return false;
+    }
 
+    /**
+     * Returns whether this spec is {@code *}, which is satisfied by every version.
+     */
+    boolean isWildcard() {
+        return false;
     }
 
-    public abstract boolean isSatisfiedBy(Version ver);
+    /**
+     * Returns whether this spec is an x-range on its own, like {@code 1.x}. Those match the pre-releases of their
+     * versions, which the same text next to other ranges doesn't, so they can't be combined as text.
+     */
+    boolean isLoneXRange() {
+        return false;
+    }
 
-    public abstract boolean isLatest();
+    boolean hasSource() {
+        return true;
+    }
+
+    /**
+     * Returns a spec satisfied by exactly the versions that don't satisfy this one. There's no node-style range for
+     * most complements, so the result's {@link #toString()} describes its intervals instead.
+     */
+    public CompiledVersionSpec complement() {
+        return new CompiledVersionSpec(null, intervals(false).complement(), intervals(true).complement());
+    }
+
+    /**
+     * Returns the highest of {@code versions} that satisfies this spec, or {@code null} if none do.
+     * {@code versions} must be sorted in ascending order. Only the versions within the bounds of this spec are
+     * examined, so this takes time logarithmic in the number of versions, plus the number of versions in range.
+     * Call this on a {@linkplain #compile() compiled} spec to avoid compiling it on every call.
+     */
+    public Version maxSatisfying(List<Version> versions) {
+        return SortedVersions.max(compile(), versions);
+    }
+
+    /**
+     * @see #maxSatisfying(List)
+     */
+    public Version maxSatisfying(Version[] versions) {
+        return maxSatisfying(Arrays.asList(versions));
+    }
+
+    /**
+     * Returns the lowest of {@code versions} that satisfies this spec, or {@code null} if none do.
+     * {@code versions} must be sorted in ascending order.
+     *
+     * @see #maxSatisfying(List)
+     */
+    public Version minSatisfying(List<Version> versions) {
+        return SortedVersions.min(compile(), versions);
+    }
+
+    /**
+     * @see #minSatisfying(List)
+     */
+    public Version minSatisfying(Version[] versions) {
+        return minSatisfying(Arrays.asList(versions));
+    }
+
+    /**
+     * Returns the versions in {@code versions} that satisfy this spec, in order. {@code versions} must be sorted in
+     * ascending order.
+     *
+     * @see #maxSatisfying(List)
+     */
+    public List<Version> allSatisfying(List<Version> versions) {
+        return SortedVersions.all(compile(), versions);
+    }
+
+    /**
+     * @see #allSatisfying(List)
+     */
+    public List<Version> allSatisfying(Version[] versions) {
+        return allSatisfying(Arrays.asList(versions));
+    }
+
+    /**
+     * Sets bit {@code i} of {@code out} if {@code versions[i]} satisfies this spec, and clears it otherwise. Bits at
+     * and above {@code versions.length} aren't changed. Large arrays are split into chunks that are matched in
+     * parallel on a shared {@link java.util.concurrent.ForkJoinPool}; the result is the same as checking each version
+     * with {@link #isSatisfiedBy(Version)}.
+     */
+    public void matchAll(Version[] versions, BitSet out) {
+        BulkMatcher.matchAll(compile(), versions, Objects.requireNonNull(out));
+    }
+
+    /**
+     * Like {@link #matchAll(Version[], BitSet)}, but matches the chunks on {@code executor}, blocking until they're
+     * done.
+     *
+     * @throws IllegalStateException if the thread is interrupted while waiting
+     */
+    public void matchAll(Version[] versions, BitSet out, ExecutorService executor) {
+        BulkMatcher.matchAll(compile(), versions, Objects.requireNonNull(out), Objects.requireNonNull(executor));
+    }
+
+    /**
+     * Returns the release versions ({@code prerelease == false}) or pre-release versions ({@code prerelease == true})
+     * that satisfy this spec.
+     */
+    abstract VersionIntervalSet intervals(boolean prerelease);
 
     protected enum UnaryRange {
         TILDE,
@@ -0,0 +1,190 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe, bounded cache of parsed {@link NodeVersionSpec}s, for inputs that repeat the same few spec strings
+ * many times. Specs are immutable, so every caller asking for the same string gets the same instance.
+ * <p>
+ * The cache is split into independently locked segments, each of which evicts its least recently used spec once it's
+ * full. Specs that fail to parse aren't cached.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class NodeVersionSpecCache {
+    private static final int SEGMENT_COUNT = 16;
+
+    private final boolean normalizeWhitespace;
+    private final Segment[] segments;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public NodeVersionSpecCache(int maximumSize) {
+        this(maximumSize, false);
+    }
+
+    /**
+     * @param maximumSize         the most specs to keep
+     * @param normalizeWhitespace whether to treat spec strings that only differ in runs of whitespace (for example,
+     *                            {@code ">=1.2.3  <2"} and {@code ">=1.2.3 <2"}) as the same key
+     */
+    public NodeVersionSpecCache(int maximumSize, boolean normalizeWhitespace) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+
+        this.normalizeWhitespace = normalizeWhitespace;
+
+        int segmentCount = Math.min(SEGMENT_COUNT, maximumSize);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // Spread the remainder so the segment sizes add up to maximumSize
+            int segmentSize = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            this.segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Returns the parsed spec for {@code versionSpec}, parsing it with {@link NodeVersionSpec#of(String)} if it isn't
+     * cached yet.
+     */
+    public NodeVersionSpec get(String versionSpec) {
+        String key = normalizeWhitespace ? normalizeWhitespace(versionSpec) : versionSpec;
+        Segment segment = segmentFor(key);
+
+        NodeVersionSpec result;
+        synchronized (segment) {
+            result = segment.get(key);
+        }
+        if (result != null) {
+            hitCount.incrementAndGet();
+            return result;
+        }
+
+        // Parse outside the lock; two threads missing at once just both parse. Parse what the caller passed, rather
+        // than the key, so errors point at the caller's string.
+        missCount.incrementAndGet();
+        result = NodeVersionSpec.of(versionSpec);
+        synchronized (segment) {
+            NodeVersionSpec existing = segment.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            segment.put(key, result);
+        }
+        return result;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private Segment segmentFor(String key) {
+        // Mix the hash so keys that only differ in their high bits still spread out
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * Collapses each run of whitespace to a single space. Whitespace only appears as {@code \s*} or {@code \s+} in
+     * the spec grammar, so this never changes what a spec means.
+     */
+    static String normalizeWhitespace(String versionSpec) {
+        if (isNormalized(versionSpec)) {
+            return versionSpec;
+        }
+
+        StringBuilder builder = new StringBuilder(versionSpec.length());
+        for (int i = 0; i < versionSpec.length(); i++) {
+            char c = versionSpec.charAt(i);
+            if (!isWhitespace(c)) {
+                builder.append(c);
+            } else if (i == 0 || !isWhitespace(versionSpec.charAt(i - 1))) {
+                builder.append(' ');
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isNormalized(String versionSpec) {
+        for (int i = 0; i < versionSpec.length(); i++) {
+            char c = versionSpec.charAt(i);
+            if (isWhitespace(c) && (c != ' ' || (i > 0 && isWhitespace(versionSpec.charAt(i - 1))))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same as \s in java.util.regex
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private final class Segment extends LinkedHashMap<String, NodeVersionSpec> {
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, NodeVersionSpec> eldest) {
+            if (size() > maximumSize) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Writes and reads the binary form of {@link NodeVersionSpec} trees. The layout is:
+ * <ul>
+ *     <li>the format version, as one byte;</li>
+ *     <li>the number of nodes in the tree, as a varint;</li>
+ *     <li>the nodes in post-order, so both operands of an intersection or union come before it. Each node starts with
+ *     a tag byte. Comparators are followed by their operator, and leaves by their version.</li>
+ * </ul>
+ * A version is a flags byte saying whether it has a pre-release or build metadata, and whether it's an x-range and
+ * how many of its numbers are given, then its major, minor and patch numbers as varints, and its pre-release and
+ * build metadata, each as a varint length and ASCII bytes. Varints are unsigned LEB128.
+ *
+ * <p>Decoding is a single pass with an explicit stack, so it doesn't tokenize anything, and deep trees can't
+ * overflow the call stack. The decoded tree is equal to the encoded one, node for node.</p>
+ */
+final class NodeVersionSpecCodec {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int TAG_LATEST = 0;
+    private static final int TAG_COMPARATOR = 1;
+    private static final int TAG_CARET = 2;
+    private static final int TAG_TILDE = 3;
+    private static final int TAG_X_RANGE = 4;
+    private static final int TAG_INTERSECTION = 5;
+    private static final int TAG_UNION = 6;
+
+    private static final int OPERATOR_LT = 0;
+    private static final int OPERATOR_LTE = 1;
+    private static final int OPERATOR_GT = 2;
+    private static final int OPERATOR_GTE = 3;
+    private static final int OPERATOR_EQ = 4;
+
+    private static final int FLAG_PRERELEASE = 1;
+    private static final int FLAG_BUILD_METADATA = 2;
+    // One more than the x-range's prefix length, or 0 for a plain version
+    private static final int X_RANGE_SHIFT = 2;
+    private static final int X_RANGE_MASK = 7 << X_RANGE_SHIFT;
+
+    private NodeVersionSpecCodec() {
+    }
+
+    static void write(NodeVersionSpec spec, DataOutput out) throws IOException {
+        write(spec, new DataOutputSink(out));
+    }
+
+    static void write(NodeVersionSpec spec, ByteBuffer buffer) {
+        try {
+            write(spec, new ByteBufferSink(buffer));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static NodeVersionSpec read(DataInput in) throws IOException {
+        return read(new DataInputSource(in));
+    }
+
+    static NodeVersionSpec read(ByteBuffer buffer) {
+        try {
+            return read(new ByteBufferSource(buffer));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated version spec", e);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void write(NodeVersionSpec spec, Sink out) throws IOException {
+        // Checks every node before writing any, so unsupported specs don't leave partial output behind
+        Deque<NodeVersionSpec> postOrder = postOrder(spec);
+
+        out.writeByte(FORMAT_VERSION);
+        writeVarint(out, postOrder.size());
+        for (NodeVersionSpec node : postOrder) {
+            if (node == NodeVersionSpec.LATEST) {
+                out.writeByte(TAG_LATEST);
+            } else if (node instanceof Comparator) {
+                Comparator comparator = (Comparator) node;
+                out.writeByte(TAG_COMPARATOR);
+                out.writeByte(operatorCode(comparator.getComparatorOperator()));
+                writeVersion(out, comparator.getVersion());
+            } else if (node instanceof CaretComparator) {
+                out.writeByte(TAG_CARET);
+                writeVersion(out, ((CaretComparator) node).getVersion());
+            } else if (node instanceof TildeComparator) {
+                out.writeByte(TAG_TILDE);
+                writeVersion(out, ((TildeComparator) node).getVersion());
+            } else if (node instanceof XRangeComparator) {
+                out.writeByte(TAG_X_RANGE);
+                writeVersion(out, ((XRangeComparator) node).getXRangeVersion());
+            } else {
+                BinaryOperation operation = (BinaryOperation) node;
+                switch (operation.getOperator()) {
+                    case INTERSECTION:
+                        out.writeByte(TAG_INTERSECTION);
+                        break;
+                    case UNION:
+                        out.writeByte(TAG_UNION);
+                        break;
+                    default:
+                        throw new RuntimeException("Unrecognized Operator " + operation.getOperator());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the nodes of {@code spec} in post-order.
+     *
+     * @throws IllegalArgumentException if a node isn't one of the kinds that can be encoded
+     */
+    private static Deque<NodeVersionSpec> postOrder(NodeVersionSpec spec) {
+        // Visiting node, right, left and pushing each to the front leaves them in left, right, node order
+        Deque<NodeVersionSpec> result = new ArrayDeque<>();
+        Deque<NodeVersionSpec> pending = new ArrayDeque<>();
+        pending.push(spec);
+        while (!pending.isEmpty()) {
+            NodeVersionSpec node = pending.pop();
+            if (node instanceof BinaryOperation) {
+                pending.push(((BinaryOperation) node).getLeftOperand());
+                pending.push(((BinaryOperation) node).getRightOperand());
+            } else if (node != NodeVersionSpec.LATEST
+                    && !(node instanceof Comparator)
+                    && !(node instanceof CaretComparator)
+                    && !(node instanceof TildeComparator)
+                    && !(node instanceof XRangeComparator)) {
+                throw new IllegalArgumentException("Can't encode " + node.getClass().getName());
+            }
+            result.push(node);
+        }
+        return result;
+    }
+
+    private static NodeVersionSpec read(Source in) throws IOException {
+        int formatVersion = in.readByte() & 0xff;
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported version spec format " + formatVersion);
+        }
+
+        int nodeCount = readVarint(in);
+        if (nodeCount < 1) {
+            throw new IllegalArgumentException("Corrupt version spec: " + nodeCount + " nodes");
+        }
+
+        // Grows as operands are read rather than trusting the node count with a large allocation up front
+        NodeVersionSpec[] stack = new NodeVersionSpec[Math.min(nodeCount, 16)];
+        int size = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            int tag = in.readByte() & 0xff;
+            NodeVersionSpec node;
+            switch (tag) {
+                case TAG_LATEST:
+                    node = NodeVersionSpec.LATEST;
+                    break;
+                case TAG_COMPARATOR:
+                    Comparator.ComparatorOperator operator = operator(in.readByte() & 0xff);
+                    node = new Comparator(operator, readVersion(in));
+                    break;
+                case TAG_CARET:
+                    node = new CaretComparator(readVersion(in));
+                    break;
+                case TAG_TILDE:
+                    node = new TildeComparator(readVersion(in));
+                    break;
+                case TAG_X_RANGE:
+                    Version version = readVersion(in);
+                    if (!(version instanceof XRangeVersion)) {
+                        throw new IllegalArgumentException("Corrupt version spec: x-range without an x-range version");
+                    }
+                    node = new XRangeComparator((XRangeVersion) version);
+                    break;
+                case TAG_INTERSECTION:
+                case TAG_UNION:
+                    if (size < 2) {
+                        throw new IllegalArgumentException("Corrupt version spec: missing operand");
+                    }
+                    size -= 2;
+                    node = new BinaryOperation(stack[size], stack[size + 1], tag == TAG_INTERSECTION
+                            ? BinaryOperation.BinaryComparatorOperator.INTERSECTION
+                            : BinaryOperation.BinaryComparatorOperator.UNION);
+                    stack[size + 1] = null;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Corrupt version spec: unrecognized tag " + tag);
+            }
+
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, Math.min(2 * stack.length, nodeCount));
+            }
+            stack[size++] = node;
+        }
+
+        if (size != 1) {
+            throw new IllegalArgumentException("Corrupt version spec: " + size + " unconnected nodes");
+        }
+        return stack[0];
+    }
+
+    private static void writeVersion(Sink out, Version version) throws IOException {
+        String prerelease = version.getPrerelease();
+        String buildMetadata = version.getBuildMetadata();
+        int flags = (prerelease != null ? FLAG_PRERELEASE : 0) | (buildMetadata != null ? FLAG_BUILD_METADATA : 0);
+        if (version instanceof XRangeVersion) {
+            flags |= (((XRangeVersion) version).prefixLength + 1) << X_RANGE_SHIFT;
+        }
+
+        out.writeByte(flags);
+        writeVarint(out, version.getMajor());
+        writeVarint(out, version.getMinor());
+        writeVarint(out, version.getPatch());
+        if (prerelease != null) {
+            writeAscii(out, prerelease);
+        }
+        if (buildMetadata != null) {
+            writeAscii(out, buildMetadata);
+        }
+    }
+
+    private static Version readVersion(Source in) throws IOException {
+        int flags = in.readByte() & 0xff;
+        if ((flags & ~(FLAG_PRERELEASE | FLAG_BUILD_METADATA | X_RANGE_MASK)) != 0) {
+            throw new IllegalArgumentException("Corrupt version spec: unrecognized version flags " + flags);
+        }
+
+        int major = readVarint(in);
+        int minor = readVarint(in);
+        int patch = readVarint(in);
+        String prerelease = (flags & FLAG_PRERELEASE) != 0 ? readAscii(in) : null;
+        String buildMetadata = (flags & FLAG_BUILD_METADATA) != 0 ? readAscii(in) : null;
+
+        int xRange = (flags & X_RANGE_MASK) >>> X_RANGE_SHIFT;
+        if (xRange == 0) {
+            // The constructor checks the pre-release and build metadata, so corrupt strings are still rejected
+            return new Version(major, minor, patch, prerelease, buildMetadata);
+        } else if (prerelease != null || buildMetadata != null) {
+            throw new IllegalArgumentException("Corrupt version spec: x-range with a pre-release or build metadata");
+        }
+
+        switch (xRange - 1) {
+            case 0:
+                return new XRangeVersion();
+            case 1:
+                return new XRangeVersion(major);
+            case 2:
+                return new XRangeVersion(major, minor);
+            case 3:
+                return new XRangeVersion(major, minor, patch);
+            default:
+                throw new IllegalArgumentException("Corrupt version spec: x-range prefix length " + (xRange - 1));
+        }
+    }
+
+    private static int operatorCode(Comparator.ComparatorOperator operator) {
+        switch (operator) {
+            case LT:
+                return OPERATOR_LT;
+            case LTE:
+                return OPERATOR_LTE;
+            case GT:
+                return OPERATOR_GT;
+            case GTE:
+                return OPERATOR_GTE;
+            case EQ:
+                return OPERATOR_EQ;
+            default:
+                throw new RuntimeException("Unrecognized Operator " + operator);
+        }
+    }
+
+    private static Comparator.ComparatorOperator operator(int code) {
+        switch (code) {
+            case OPERATOR_LT:
+                return Comparator.ComparatorOperator.LT;
+            case OPERATOR_LTE:
+                return Comparator.ComparatorOperator.LTE;
+            case OPERATOR_GT:
+                return Comparator.ComparatorOperator.GT;
+            case OPERATOR_GTE:
+                return Comparator.ComparatorOperator.GTE;
+            case OPERATOR_EQ:
+                return Comparator.ComparatorOperator.EQ;
+            default:
+                throw new IllegalArgumentException("Corrupt version spec: unrecognized operator " + code);
+        }
+    }
+
+    private static void writeVarint(Sink out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(Source in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readByte() & 0xff;
+            result |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (shift == 28 && b > 0x07) {
+                    throw new IllegalArgumentException("Corrupt version spec: number out of range");
+                }
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt version spec: number out of range");
+    }
+
+    private static void writeAscii(Sink out, String string) throws IOException {
+        writeVarint(out, string.length());
+        for (int i = 0; i < string.length(); i++) {
+            out.writeByte(string.charAt(i));
+        }
+    }
+
+    private static String readAscii(Source in) throws IOException {
+        int length = readVarint(in);
+        // Pre-releases and build metadata are plain ASCII, so each byte is a char
+        char[] chars = new char[Math.min(length, 256)];
+        for (int i = 0; i < length; i++) {
+            if (i == chars.length) {
+                chars = Arrays.copyOf(chars, (int) Math.min(2L * chars.length, length));
+            }
+            chars[i] = (char) (in.readByte() & 0xff);
+        }
+        return new String(chars, 0, length);
+    }
+
+    private interface Sink {
+        void writeByte(int b) throws IOException;
+    }
+
+    private interface Source {
+        byte readByte() throws IOException;
+    }
+
+    private static final class DataOutputSink implements Sink {
+        private final DataOutput out;
+
+        DataOutputSink(DataOutput out) {
+            this.out = out;
+        }
+
+        @Override
+        public void writeByte(int b) throws IOException {
+            out.writeByte(b);
+        }
+    }
+
+    private static final class ByteBufferSink implements Sink {
+        private final ByteBuffer buffer;
+
+        ByteBufferSink(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void writeByte(int b) {
+            buffer.put((byte) b);
+        }
+    }
+
+    private static final class DataInputSource implements Source {
+        private final DataInput in;
+
+        DataInputSource(DataInput in) {
+            this.in = in;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            return in.readByte();
+        }
+    }
+
+    private static final class ByteBufferSource implements Source {
+        private final ByteBuffer buffer;
+
+        ByteBufferSource(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public byte readByte() {
+            return buffer.get();
+        }
+    }
+}
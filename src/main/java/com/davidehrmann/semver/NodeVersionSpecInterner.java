@@ -0,0 +1,121 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe table of canonical {@link NodeVersionSpec} trees. {@link #intern(NodeVersionSpec)} returns the same
+ * instance for every equal spec, and builds new specs out of the canonical instances of their subtrees, so specs that
+ * share sub-expressions, like {@code >=1.2.3 <2.0.0} or {@code ^1.2.3}, share one copy of them. Spec hash codes are
+ * computed once, when a spec is built, so interned specs are cheap keys for large hash maps, and {@code equals()} on
+ * them usually ends at the identity check. The specs it returns {@linkplain NodeVersionSpec#cacheString() cache}
+ * their strings, so formatting them doesn't allocate.
+ * <p>
+ * Interned specs are strongly held until {@link #clear()} is called.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class NodeVersionSpecInterner {
+
+    private final ConcurrentMap<NodeVersionSpec, NodeVersionSpec> specs = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public NodeVersionSpecInterner() {
+    }
+
+    /**
+     * Parses {@code versionSpec} with {@link NodeVersionSpec#of(String)} and returns its canonical instance.
+     */
+    public NodeVersionSpec of(String versionSpec) {
+        return intern(NodeVersionSpec.of(versionSpec));
+    }
+
+    /**
+     * Returns the canonical instance equal to {@code spec}. If there isn't one, {@code spec}'s subtrees are interned
+     * first, and {@code spec} is rebuilt from them if any weren't canonical already.
+     */
+    public NodeVersionSpec intern(NodeVersionSpec spec) {
+        // Only cache the strings of the specs that are returned, not of every subtree
+        return internTree(Objects.requireNonNull(spec)).cacheString();
+    }
+
+    private NodeVersionSpec internTree(NodeVersionSpec spec) {
+        NodeVersionSpec result = specs.get(spec);
+        if (result != null) {
+            hitCount.incrementAndGet();
+            return result;
+        }
+
+        NodeVersionSpec candidate = spec;
+        if (spec instanceof BinaryOperation) {
+            BinaryOperation operation = (BinaryOperation) spec;
+            NodeVersionSpec left = internTree(operation.getLeftOperand());
+            NodeVersionSpec right = internTree(operation.getRightOperand());
+            if (left != operation.getLeftOperand() || right != operation.getRightOperand()) {
+                candidate = new BinaryOperation(left, right, operation.getOperator());
+            }
+        }
+
+        result = specs.putIfAbsent(candidate, candidate);
+        if (result != null) {
+            // Another thread interned an equal spec since the lookup above
+            hitCount.incrementAndGet();
+            return result;
+        }
+        missCount.incrementAndGet();
+        return candidate;
+    }
+
+    /**
+     * Returns the number of {@link #intern(NodeVersionSpec)} calls, including ones for subtrees, that found an existing
+     * canonical instance.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of {@link #intern(NodeVersionSpec)} calls, including ones for subtrees, that added a new
+     * canonical instance.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of distinct specs and subtrees in the table.
+     */
+    public int size() {
+        return specs.size();
+    }
+
+    /**
+     * Removes every spec from the table. Specs interned before this keep their shared subtrees, but aren't canonical
+     * for later calls.
+     */
+    public void clear() {
+        specs.clear();
+    }
+}
@@ -0,0 +1,470 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses node-style version specs in time linear in their length.
+ *
+ * <p>The tokenizer makes one pass over the input, recognizing the same tokens, in the same order of preference, as
+ * the regular expressions the parser used to try at each position. Operands are then bound in one pass per
+ * precedence level: unary operators, hyphen ranges, intersections, then unions. Intersections and unions are paired
+ * off left to right, then the pairs are paired, and so on, so {@code a b c d} becomes {@code ((a b) (c d))}, the
+ * same trees the old repeated binding passes produced.</p>
+ */
+final class NodeVersionSpecParser {
+
+    private static final Object HYPHEN = "-";
+
+    private final VersionPool pool;
+    private final int maxLength;
+    private final int maxNodes;
+
+    private int nodeCount;
+    // Why parsing failed, for the listener
+    private SemverListener.ParseFailure failure = SemverListener.ParseFailure.MALFORMED;
+
+    NodeVersionSpecParser(VersionPool pool, int maxLength, int maxNodes) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("maxLength must be non-negative");
+        }
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("maxNodes must be positive");
+        }
+        this.pool = pool;
+        this.maxLength = maxLength;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Parses {@code versionSpec}. Parsers count the nodes they create, so each one should only be used once.
+     */
+    NodeVersionSpec parse(CharSequence versionSpec) {
+        SemverListener listener = Instrumentation.listener;
+        if (listener == null) {
+            return parseSpec(versionSpec);
+        }
+
+        long start = System.nanoTime();
+        NodeVersionSpec spec;
+        try {
+            spec = parseSpec(versionSpec);
+        } catch (IllegalArgumentException e) {
+            listener.onParseFailure(versionSpec.toString(), failure, e, System.nanoTime() - start);
+            throw e;
+        }
+        Instrumentation.parsed(listener, versionSpec, System.nanoTime() - start);
+        return spec;
+    }
+
+    private NodeVersionSpec parseSpec(CharSequence versionSpec) {
+        if (versionSpec.length() > maxLength) {
+            failure = SemverListener.ParseFailure.TOO_LONG;
+            throw new IllegalArgumentException("Version spec is longer than " + maxLength + " chars");
+        }
+
+        int trimmedStart = 0;
+        int trimmedEnd = versionSpec.length();
+        while (trimmedStart < trimmedEnd && versionSpec.charAt(trimmedStart) <= ' ') {
+            trimmedStart++;
+        }
+        while (trimmedEnd > trimmedStart && versionSpec.charAt(trimmedEnd - 1) <= ' ') {
+            trimmedEnd--;
+        }
+
+        if (trimmedStart == trimmedEnd) {
+            return new Comparator(Comparator.ComparatorOperator.GTE, new Version(0, 0, 0));
+        } else if (regionMatchesIgnoreCase(versionSpec, trimmedStart, trimmedEnd, "latest")) {
+            return NodeVersionSpec.LATEST;
+        }
+
+        return bind(tokenize(versionSpec));
+    }
+
+    private List<Object> tokenize(CharSequence versionSpec) {
+        List<Object> tokens = new ArrayList<>();
+
+        int end = versionSpec.length();
+        int start = 0;
+        while (start < end) {
+            int tokenEnd;
+            char c = versionSpec.charAt(start);
+
+            if (c == '<' || c == '>' || c == '=' || c == '~' || c == '^') {
+                tokenEnd = start + 1;
+                boolean orEqual = (c == '<' || c == '>') && tokenEnd < end && versionSpec.charAt(tokenEnd) == '=';
+                if (orEqual) {
+                    tokenEnd++;
+                }
+                switch (c) {
+                    case '>':
+                        tokens.add(orEqual ? Comparator.ComparatorOperator.GTE : Comparator.ComparatorOperator.GT);
+                        break;
+                    case '<':
+                        tokens.add(orEqual ? Comparator.ComparatorOperator.LTE : Comparator.ComparatorOperator.LT);
+                        break;
+                    case '=':
+                        tokens.add(Comparator.ComparatorOperator.EQ);
+                        break;
+                    case '~':
+                        tokens.add(NodeVersionSpec.UnaryRange.TILDE);
+                        break;
+                    default:
+                        tokens.add(NodeVersionSpec.UnaryRange.CARET);
+                        break;
+                }
+                tokenEnd = skipWhitespace(versionSpec, tokenEnd, end);
+            } else if ((tokenEnd = scanVersion(versionSpec, start, end)) >= 0) {
+                Version version = Version.parse(versionSpec, start, tokenEnd);
+                tokens.add(pool != null ? pool.intern(version) : version);
+            } else if ((tokenEnd = scanNumber(versionSpec, start, end)) >= 0) {
+                int majorVersion = Version.parseNumber(versionSpec, start, tokenEnd);
+                int minorEnd = tokenEnd < end && versionSpec.charAt(tokenEnd) == '.'
+                        ? scanNumber(versionSpec, tokenEnd + 1, end)
+                        : -1;
+                if (minorEnd >= 0) {
+                    int minorVersion = Version.parseNumber(versionSpec, tokenEnd + 1, minorEnd);
+                    tokenEnd = scanWildcards(versionSpec, minorEnd, end, 1);
+                    tokens.add(new XRangeVersion(majorVersion, minorVersion));
+                } else {
+                    tokenEnd = scanWildcards(versionSpec, tokenEnd, end, 2);
+                    tokens.add(new XRangeVersion(majorVersion));
+                }
+            } else if (isWildcard(c)) {
+                tokenEnd = scanWildcards(versionSpec, start + 1, end, 2);
+                tokens.add(new XRangeVersion());
+            } else {
+                int operatorStart = skipWhitespace(versionSpec, start, end);
+                if (operatorStart < end && versionSpec.charAt(operatorStart) == '-') {
+                    tokenEnd = skipWhitespace(versionSpec, operatorStart + 1, end);
+                    tokens.add(HYPHEN);
+                } else if (operatorStart + 1 < end && versionSpec.charAt(operatorStart) == '|'
+                        && versionSpec.charAt(operatorStart + 1) == '|') {
+                    tokenEnd = skipWhitespace(versionSpec, operatorStart + 2, end);
+                    tokens.add(BinaryOperation.BinaryComparatorOperator.UNION);
+                } else if (operatorStart > start) {
+                    tokenEnd = operatorStart;
+                    tokens.add(BinaryOperation.BinaryComparatorOperator.INTERSECTION);
+                } else {
+                    throw new IllegalArgumentException("Failed parse version spec '" + versionSpec + "' at char " + start + " : unexpected token");
+                }
+            }
+
+            start = tokenEnd;
+        }
+
+        return tokens;
+    }
+
+    private NodeVersionSpec bind(List<Object> tokens) {
+        // Bind unary operators
+        List<Object> operands = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Object o = tokens.get(i);
+            if (o instanceof NodeVersionSpec.UnaryRange || o instanceof Comparator.ComparatorOperator) {
+                Object next = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+                if (!(next instanceof Version)) {
+                    throw new IllegalArgumentException("Version expected after " + o);
+                }
+
+                if (o == NodeVersionSpec.UnaryRange.TILDE) {
+                    operands.add(count(new TildeComparator((Version) next)));
+                } else if (o == NodeVersionSpec.UnaryRange.CARET) {
+                    operands.add(count(new CaretComparator((Version) next)));
+                } else if (o == Comparator.ComparatorOperator.EQ) {
+                    operands.add(next);
+                } else {
+                    operands.add(count(new Comparator((Comparator.ComparatorOperator) o, (Version) next)));
+                }
+                i++;
+            } else {
+                operands.add(o);
+            }
+        }
+
+        // Bind range operators
+        tokens = new ArrayList<>(operands.size());
+        for (int i = 0; i < operands.size(); i++) {
+            Object o = operands.get(i);
+            if (o == HYPHEN && i > 0 && i < operands.size() - 1) {
+                Object left = tokens.remove(tokens.size() - 1);
+                Object right = operands.get(i + 1);
+                if (!(left instanceof Version)) {
+                    throw new IllegalArgumentException("Expected xRangeVersion, got '" + left + "'");
+                } else if (!(right instanceof Version)) {
+                    throw new IllegalArgumentException("Expected xRangeVersion, got '" + right + "'");
+                }
+
+                NodeVersionSpec rightVersionSpec;
+
+                // Since ranges are inclusive, an upper bound of 1.2 is more like <1.3.0.  Handle this.
+                if (right instanceof XRangeVersion) {
+                    rightVersionSpec = upperBound((XRangeVersion) right);
+                } else {
+                    rightVersionSpec = count(new Comparator(Comparator.ComparatorOperator.LTE, (Version) right));
+                }
+
+                tokens.add(count(new BinaryOperation(
+                        count(new Comparator(Comparator.ComparatorOperator.GTE, (Version) left)),
+                        rightVersionSpec,
+                        BinaryOperation.BinaryComparatorOperator.INTERSECTION)));
+
+                // The old binding pass skipped the token after the right operand, so a hyphen there is unmatched
+                if (i + 2 < operands.size()) {
+                    tokens.add(operands.get(i + 2));
+                }
+                i += 2;
+            } else {
+                tokens.add(o);
+            }
+        }
+
+        if (tokens.contains(HYPHEN)) {
+            throw new IllegalArgumentException("Unmatched range");
+        }
+
+        // Operands must alternate with binary operators
+        for (int i = 1; i < tokens.size() - 1; i++) {
+            if (tokens.get(i) instanceof BinaryOperation.BinaryComparatorOperator) {
+                Object left = tokens.get(i - 1);
+                Object right = tokens.get(i + 1);
+                if (left instanceof BinaryOperation.BinaryComparatorOperator) {
+                    throw new IllegalArgumentException("Unexpected token before " + tokens.get(i) + ": '" + left + "'");
+                } else if (right instanceof BinaryOperation.BinaryComparatorOperator) {
+                    throw new IllegalArgumentException("Unexpected token after " + tokens.get(i) + ": '" + right + "'");
+                }
+            }
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            if ((i % 2 == 0) == tokens.get(i) instanceof BinaryOperation.BinaryComparatorOperator) {
+                throw new IllegalArgumentException("Oops");
+            }
+        }
+        if (tokens.size() % 2 == 0) {
+            throw new IllegalArgumentException("Oops");
+        }
+
+        if (tokens.size() == 1) {
+            Object token = tokens.get(0);
+            if (token instanceof XRangeVersion) {
+                return count(new XRangeComparator((XRangeVersion) token));
+            } else if (token instanceof Version) {
+                return count(new Comparator(Comparator.ComparatorOperator.EQ, (Version) token));
+            } else {
+                return (NodeVersionSpec) token;
+            }
+        }
+
+        // Bind intersections, then unions
+        List<NodeVersionSpec> unionOperands = new ArrayList<>();
+        List<NodeVersionSpec> intersectionOperands = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i += 2) {
+            intersectionOperands.add(promote(tokens.get(i)));
+            if (i + 1 == tokens.size() || tokens.get(i + 1) == BinaryOperation.BinaryComparatorOperator.UNION) {
+                unionOperands.add(pairUp(intersectionOperands, BinaryOperation.BinaryComparatorOperator.INTERSECTION));
+                intersectionOperands.clear();
+            }
+        }
+
+        return pairUp(unionOperands, BinaryOperation.BinaryComparatorOperator.UNION);
+    }
+
+    /**
+     * Combines {@code operands} by repeatedly pairing off neighbors, left to right, until one remains.
+     */
+    private NodeVersionSpec pairUp(List<NodeVersionSpec> operands, BinaryOperation.BinaryComparatorOperator operator) {
+        int size = operands.size();
+        while (size > 1) {
+            int paired = 0;
+            for (int i = 0; i < size; i += 2) {
+                operands.set(paired++, i + 1 < size
+                        ? count(new BinaryOperation(operands.get(i), operands.get(i + 1), operator))
+                        : operands.get(i));
+            }
+            size = paired;
+        }
+        return operands.get(0);
+    }
+
+    /**
+     * Converts an operand of a binary operator to a spec. X-ranges become a pair of comparators, and versions must
+     * match exactly.
+     */
+    private NodeVersionSpec promote(Object operand) {
+        if (operand instanceof XRangeVersion) {
+            XRangeVersion xRangeVersion = (XRangeVersion) operand;
+            return count(new BinaryOperation(
+                    count(new Comparator(Comparator.ComparatorOperator.GTE, xRangeVersion)),
+                    upperBound(xRangeVersion),
+                    BinaryOperation.BinaryComparatorOperator.INTERSECTION));
+        } else if (operand instanceof Version) {
+            return count(new Comparator(Comparator.ComparatorOperator.EQ, (Version) operand));
+        } else {
+            return (NodeVersionSpec) operand;
+        }
+    }
+
+    private NodeVersionSpec upperBound(XRangeVersion xRangeVersion) {
+        if (xRangeVersion.prefixLength == 1) {
+            return count(new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor() + 1, 0, 0)));
+        } else if (xRangeVersion.prefixLength == 2) {
+            return count(new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor(), xRangeVersion.getMinor() + 1, 0)));
+        } else if (xRangeVersion.prefixLength == 3) {
+            return count(new Comparator(Comparator.ComparatorOperator.LT, new Version(xRangeVersion.getMajor(), xRangeVersion.getMinor(), xRangeVersion.getPatch() + 1)));
+        } else {
+            return count(new Comparator(Comparator.ComparatorOperator.GTE, new Version(0, 0, 0)));
+        }
+    }
+
+    private NodeVersionSpec count(NodeVersionSpec node) {
+        if (++nodeCount > maxNodes) {
+            failure = SemverListener.ParseFailure.TOO_MANY_NODES;
+            throw new IllegalArgumentException("Version spec has more than " + maxNodes + " nodes");
+        }
+        return node;
+    }
+
+    /**
+     * Returns the end of the version that starts at {@code start}, or -1 if there isn't one. Like
+     * {@link Version#VERSION_PATTERN}, the pre-release and build metadata identifiers are matched greedily, but an
+     * identifier that starts with a digit ends with its number, so {@code 1.2.3-0abc} is the version {@code 1.2.3-0}
+     * followed by {@code abc}.
+     */
+    private static int scanVersion(CharSequence text, int start, int end) {
+        int i = start;
+        if (i < end && text.charAt(i) == 'v') {
+            i++;
+        }
+        for (int component = 0; component < 3; component++) {
+            if (component > 0) {
+                if (i >= end || text.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+            i = scanNumber(text, i, end);
+            if (i < 0) {
+                return -1;
+            }
+        }
+        i = scanIdentifiers(text, i, end, '-');
+        return scanIdentifiers(text, i, end, '+');
+    }
+
+    private static int scanIdentifiers(CharSequence text, int start, int end, char prefix) {
+        if (start >= end || text.charAt(start) != prefix) {
+            return start;
+        }
+        int i = scanIdentifier(text, start + 1, end);
+        if (i < 0) {
+            return start;
+        }
+        while (i < end && text.charAt(i) == '.') {
+            int next = scanIdentifier(text, i + 1, end);
+            if (next < 0) {
+                break;
+            }
+            i = next;
+        }
+        return i;
+    }
+
+    private static int scanIdentifier(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return -1;
+        }
+        char c = text.charAt(start);
+        if (Version.isDigit(c)) {
+            return scanNumber(text, start, end);
+        } else if (Version.isIdentifierLetter(c)) {
+            int i = start + 1;
+            while (i < end && (Version.isDigit(text.charAt(i)) || Version.isIdentifierLetter(text.charAt(i)))) {
+                i++;
+            }
+            return i;
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the end of the number ({@code 0} or digits without a leading zero) at {@code start}, or -1.
+     */
+    private static int scanNumber(CharSequence text, int start, int end) {
+        if (start >= end || !Version.isDigit(text.charAt(start))) {
+            return -1;
+        } else if (text.charAt(start) == '0') {
+            return start + 1;
+        }
+        int i = start + 1;
+        while (i < end && Version.isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skips up to {@code max} {@code .x} wildcard components.
+     */
+    private static int scanWildcards(CharSequence text, int start, int end, int max) {
+        int i = start;
+        for (int n = 0; n < max && i + 1 < end && text.charAt(i) == '.' && isWildcard(text.charAt(i + 1)); n++) {
+            i += 2;
+        }
+        return i;
+    }
+
+    private static boolean isWildcard(char c) {
+        return c == 'x' || c == 'X' || c == '*';
+    }
+
+    private static int skipWhitespace(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Matches the regex class {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean regionMatchesIgnoreCase(CharSequence text, int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        // Same rules as String.equalsIgnoreCase()
+        for (int i = 0; i < expected.length(); i++) {
+            char c = text.charAt(start + i);
+            char e = expected.charAt(i);
+            if (c != e && Character.toUpperCase(c) != Character.toUpperCase(e)
+                    && Character.toLowerCase(c) != Character.toLowerCase(e)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+/**
+ * Visits the nodes of a {@link NodeVersionSpec} tree, for exporting specs to other representations. Intersections and
+ * unions pass their operands, so visitors choose the order they're visited in by calling
+ * {@link NodeVersionSpec#accept(NodeVersionSpecVisitor)} on them.
+ * <p>
+ * Partial versions, like the {@code 1.2} in {@code ~1.2}, are passed as the version with the missing numbers set to
+ * 0, along with how many numbers were given.
+ *
+ * @param <R> the type of result the visitor returns
+ */
+@SuppressWarnings("WeakerAccess")
+public interface NodeVersionSpecVisitor<R> {
+
+    enum Operator {
+        LT,
+        LTE,
+        GT,
+        GTE,
+        EQ,
+    }
+
+    /**
+     * Visits a primitive comparison, like {@code >=1.2.3}.
+     */
+    R visitComparator(Operator operator, Version version);
+
+    /**
+     * Visits a caret range, like {@code ^1.2.3} or {@code ^1.x}.
+     *
+     * @param precision the number of version numbers given, from 0 for {@code ^*} to 3
+     */
+    R visitCaret(Version version, int precision);
+
+    /**
+     * Visits a tilde range, like {@code ~1.2.3} or {@code ~1.2}.
+     *
+     * @param precision the number of version numbers given, from 0 for {@code ~*} to 3
+     */
+    R visitTilde(Version version, int precision);
+
+    /**
+     * Visits an x-range, like {@code 1.2.x} or {@code *}.
+     *
+     * @param precision the number of version numbers given, from 0 for {@code *} to 3
+     */
+    R visitXRange(Version version, int precision);
+
+    /**
+     * Visits a spec satisfied by the versions that satisfy both operands.
+     */
+    R visitIntersection(NodeVersionSpec left, NodeVersionSpec right);
+
+    /**
+     * Visits a spec satisfied by the versions that satisfy either operand.
+     */
+    R visitUnion(NodeVersionSpec left, NodeVersionSpec right);
+
+    /**
+     * Visits {@link NodeVersionSpec#LATEST}.
+     */
+    R visitLatest();
+
+    /**
+     * Visits a compiled spec, which is described by its intervals rather than a tree.
+     */
+    R visitCompiled(CompiledVersionSpec spec);
+}
@@ -0,0 +1,175 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+/**
+ * Pre-release identifiers, parsed once into a {@code long[]} so versions can be compared without allocating.
+ * <p>
+ * Each identifier is one long. The top two bits hold its kind; numeric kinds sort before alphanumeric ones, as
+ * required by <a href="https://semver.org/#spec-item-11">semver</a>. Numbers below 2<sup>62</sup> are stored as their
+ * value, and a few common tags are stored as an index into {@link #TAGS}. Anything else is stored as the offset and
+ * length of the identifier in the pre-release string, and compared character by character.
+ */
+final class PrereleaseIdentifiers {
+    private static final int KIND_SHIFT = 62;
+    private static final long NUMERIC = 0L;
+    private static final long LARGE_NUMERIC = 1L << KIND_SHIFT;
+    private static final long TAG = 2L << KIND_SHIFT;
+    private static final long TEXT = 3L << KIND_SHIFT;
+    private static final long KIND_MASK = 3L << KIND_SHIFT;
+    private static final long VALUE_MASK = ~KIND_MASK;
+
+    private static final int LENGTH_SHIFT = 31;
+    private static final long OFFSET_MASK = (1L << LENGTH_SHIFT) - 1;
+
+    // Must stay sorted, so tags can be compared by index
+    private static final String[] TAGS = {
+            "alpha", "beta", "canary", "dev", "next", "nightly", "pre", "preview", "rc",
+    };
+
+    private PrereleaseIdentifiers() {
+    }
+
+    /**
+     * Encodes the identifiers of an already-validated pre-release string.
+     */
+    static long[] of(CharSequence prerelease) {
+        if (prerelease == null) {
+            return null;
+        }
+
+        int count = 1;
+        for (int i = 0; i < prerelease.length(); i++) {
+            if (prerelease.charAt(i) == '.') {
+                count++;
+            }
+        }
+
+        long[] result = new long[count];
+        int start = 0;
+        for (int n = 0; n < count; n++) {
+            int end = start;
+            boolean numeric = true;
+            while (end < prerelease.length() && prerelease.charAt(end) != '.') {
+                numeric &= Version.isDigit(prerelease.charAt(end));
+                end++;
+            }
+
+            result[n] = numeric ? encodeNumeric(prerelease, start, end) : encodeAlphanumeric(prerelease, start, end);
+            start = end + 1;
+        }
+
+        return result;
+    }
+
+    private static long encodeNumeric(CharSequence prerelease, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = prerelease.charAt(i) - '0';
+            if (value > (VALUE_MASK - digit) / 10) {
+                return LARGE_NUMERIC | region(start, end);
+            }
+            value = value * 10 + digit;
+        }
+        return NUMERIC | value;
+    }
+
+    private static long encodeAlphanumeric(CharSequence prerelease, int start, int end) {
+        for (int i = 0; i < TAGS.length; i++) {
+            if (compare(TAGS[i], 0, TAGS[i].length(), prerelease, start, end) == 0) {
+                return TAG | i;
+            }
+        }
+        return TEXT | region(start, end);
+    }
+
+    private static long region(int start, int end) {
+        return ((long) (end - start) << LENGTH_SHIFT) | start;
+    }
+
+    /**
+     * Compares two pre-releases by semver precedence.
+     */
+    static int compare(long[] a, CharSequence aText, long[] b, CharSequence bText) {
+        for (int i = 0; i < a.length && i < b.length; i++) {
+            int diff = compare(a[i], aText, b[i], bText);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static int compare(long a, CharSequence aText, long b, CharSequence bText) {
+        long aKind = a & KIND_MASK;
+        long bKind = b & KIND_MASK;
+
+        if (aKind == NUMERIC && bKind == NUMERIC) {
+            return Long.compare(a, b);
+        } else if (aKind == TAG && bKind == TAG) {
+            return Long.compare(a, b);
+        } else if (isNumeric(aKind) != isNumeric(bKind)) {
+            return isNumeric(aKind) ? -1 : 1;
+        } else if (isNumeric(aKind)) {
+            // At least one of them doesn't fit in a long, so it's the larger one unless both are that large
+            if (aKind != bKind) {
+                return aKind == LARGE_NUMERIC ? 1 : -1;
+            }
+            int diff = Integer.compare(length(a), length(b));
+            return diff != 0 ? diff : compare(aText, offset(a), offset(a) + length(a), bText, offset(b), offset(b) + length(b));
+        } else {
+            CharSequence aChars = aKind == TAG ? TAGS[(int) (a & VALUE_MASK)] : aText;
+            CharSequence bChars = bKind == TAG ? TAGS[(int) (b & VALUE_MASK)] : bText;
+            int aStart = aKind == TAG ? 0 : offset(a);
+            int bStart = bKind == TAG ? 0 : offset(b);
+            int aEnd = aKind == TAG ? aChars.length() : aStart + length(a);
+            int bEnd = bKind == TAG ? bChars.length() : bStart + length(b);
+            return compare(aChars, aStart, aEnd, bChars, bStart, bEnd);
+        }
+    }
+
+    private static boolean isNumeric(long kind) {
+        return kind == NUMERIC || kind == LARGE_NUMERIC;
+    }
+
+    private static int offset(long identifier) {
+        return (int) (identifier & OFFSET_MASK);
+    }
+
+    private static int length(long identifier) {
+        return (int) ((identifier & VALUE_MASK) >>> LENGTH_SHIFT);
+    }
+
+    /**
+     * Compares two character ranges the way {@link String#compareTo(String)} does.
+     */
+    private static int compare(CharSequence a, int aStart, int aEnd, CharSequence b, int bStart, int bEnd) {
+        int aLength = aEnd - aStart;
+        int bLength = bEnd - bStart;
+        for (int i = 0; i < aLength && i < bLength; i++) {
+            char aChar = a.charAt(aStart + i);
+            char bChar = b.charAt(bStart + i);
+            if (aChar != bChar) {
+                return aChar - bChar;
+            }
+        }
+        return aLength - bLength;
+    }
+}
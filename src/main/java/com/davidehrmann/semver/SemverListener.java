@@ -0,0 +1,89 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+/**
+ * Receives events from parsing and matching, for metrics. Install one with
+ * {@link Instrumentation#setListener(SemverListener)}; until then, parsing and matching only pay for a check that
+ * there isn't one. Every method does nothing by default, so subclasses only override the events they need.
+ *
+ * <p>Listeners are called on the thread doing the work, from every thread that parses or matches, so they must be
+ * thread-safe and fast, and shouldn't throw.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class SemverListener {
+
+    public enum ParseFailure {
+        /**
+         * The spec was longer than the parser's limit.
+         */
+        TOO_LONG,
+        /**
+         * The spec needed more nodes than the parser's limit.
+         */
+        TOO_MANY_NODES,
+        /**
+         * The spec wasn't a valid spec.
+         */
+        MALFORMED,
+    }
+
+    /**
+     * The kinds of spec nodes. Specs are trees, so matching a version against a union, for example, also matches it
+     * against the union's operands.
+     */
+    public enum SpecKind {
+        CARET,
+        TILDE,
+        X_RANGE,
+        COMPARATOR,
+        UNION,
+        INTERSECTION,
+        COMPILED,
+    }
+
+    /**
+     * Called after a version spec was parsed.
+     *
+     * @param versionSpec the spec
+     * @param nanos       how long parsing took
+     */
+    public void onParse(String versionSpec, long nanos) {
+    }
+
+    /**
+     * Called after a version spec took at least the {@linkplain Instrumentation#setSlowParseThreshold slow parse
+     * threshold} to parse, in addition to {@link #onParse(String, long)}.
+     */
+    public void onSlowParse(String versionSpec, long nanos) {
+    }
+
+    /**
+     * Called when a version spec failed to parse, before {@code exception} is thrown.
+     */
+    public void onParseFailure(String versionSpec, ParseFailure cause, IllegalArgumentException exception, long nanos) {
+    }
+
+    /**
+     * Called after a spec node was matched against a version.
+     */
+    public void onMatch(SpecKind kind, boolean satisfied) {
+    }
+}
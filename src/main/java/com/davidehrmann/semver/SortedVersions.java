@@ -0,0 +1,150 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Searches lists of versions sorted in ascending order for the ones that satisfy a compiled spec. Each interval of the
+ * spec is located with a binary search, and only the versions inside it are looked at.
+ */
+final class SortedVersions {
+
+    private SortedVersions() {
+    }
+
+    static Version max(CompiledVersionSpec spec, List<Version> versions) {
+        versions = randomAccess(versions);
+        Version release = max(spec.intervals(false), false, versions);
+        Version prerelease = max(spec.intervals(true), true, versions);
+        if (release == null || prerelease == null) {
+            return release != null ? release : prerelease;
+        }
+        return release.compareTo(prerelease) >= 0 ? release : prerelease;
+    }
+
+    static Version min(CompiledVersionSpec spec, List<Version> versions) {
+        versions = randomAccess(versions);
+        Version release = min(spec.intervals(false), false, versions);
+        Version prerelease = min(spec.intervals(true), true, versions);
+        if (release == null || prerelease == null) {
+            return release != null ? release : prerelease;
+        }
+        return release.compareTo(prerelease) <= 0 ? release : prerelease;
+    }
+
+    static List<Version> all(CompiledVersionSpec spec, List<Version> versions) {
+        versions = randomAccess(versions);
+        List<VersionInterval> releases = spec.intervals(false).intervals();
+        List<VersionInterval> prereleases = spec.intervals(true).intervals();
+
+        // Walk the intervals of both sets in order of their lower bounds, so the results come out sorted
+        List<Version> result = new ArrayList<>();
+        int scanned = 0;
+        int r = 0;
+        int p = 0;
+        while (r < releases.size() || p < prereleases.size()) {
+            VersionInterval interval;
+            if (p == prereleases.size()
+                    || (r < releases.size() && lowerIndex(releases.get(r), versions) <= lowerIndex(prereleases.get(p), versions))) {
+                interval = releases.get(r++);
+            } else {
+                interval = prereleases.get(p++);
+            }
+
+            int end = upperIndex(interval, versions);
+            for (int i = Math.max(scanned, lowerIndex(interval, versions)); i < end; i++) {
+                Version version = versions.get(i);
+                if (spec.isSatisfiedBy(version)) {
+                    result.add(version);
+                }
+            }
+            scanned = Math.max(scanned, end);
+        }
+
+        return result;
+    }
+
+    private static Version max(VersionIntervalSet set, boolean prerelease, List<Version> versions) {
+        List<VersionInterval> intervals = set.intervals();
+        for (int i = intervals.size() - 1; i >= 0; i--) {
+            VersionInterval interval = intervals.get(i);
+            int start = lowerIndex(interval, versions);
+            for (int j = upperIndex(interval, versions) - 1; j >= start; j--) {
+                if (versions.get(j).isPrerelease() == prerelease) {
+                    return versions.get(j);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Version min(VersionIntervalSet set, boolean prerelease, List<Version> versions) {
+        for (VersionInterval interval : set.intervals()) {
+            int end = upperIndex(interval, versions);
+            for (int j = lowerIndex(interval, versions); j < end; j++) {
+                if (versions.get(j).isPrerelease() == prerelease) {
+                    return versions.get(j);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the first version that isn't below the interval.
+     */
+    private static int lowerIndex(VersionInterval interval, List<Version> versions) {
+        int low = 0;
+        int high = versions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (interval.isAboveLower(versions.get(mid))) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first version that's above the interval.
+     */
+    private static int upperIndex(VersionInterval interval, List<Version> versions) {
+        int low = 0;
+        int high = versions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (interval.isBelowUpper(versions.get(mid))) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static List<Version> randomAccess(List<Version> versions) {
+        return versions instanceof RandomAccess ? versions : new ArrayList<>(versions);
+    }
+}
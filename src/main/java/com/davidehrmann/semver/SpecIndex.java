@@ -0,0 +1,294 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * A mutable collection of specs, each stored under an ID, that finds the specs a version satisfies without checking
+ * every one of them.
+ *
+ * <p>Specs are {@linkplain NodeVersionSpec#compile() compiled}, and their release and pre-release intervals are kept in
+ * two interval trees: treaps ordered by lower bound, where each node also holds the highest upper bound below it.
+ * {@link #matching(Version)} looks a release up in the release tree and a pre-release in the pre-release tree, so
+ * pre-releases only match specs that admit them, and only visits subtrees that can contain the version. A lookup finds
+ * each of its {@code m} matches at the end of a path from the root, and the trees are {@code O(log n)} deep in
+ * expectation for {@code n} intervals, so it takes {@code O(min(n, (m + 1) log n))} expected time. That's much less
+ * than {@code n} when few specs match, but not the {@code O(log n + m)} of an interval tree that sorts intervals by
+ * both bounds at each node. Adding and removing a spec takes {@code O(k log n)} expected time for a spec with {@code k}
+ * intervals.</p>
+ *
+ * <p>This class isn't thread-safe.</p>
+ *
+ * @param <K> the type of the IDs
+ */
+@SuppressWarnings("WeakerAccess")
+public final class SpecIndex<K> {
+
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final Random random = new Random();
+    private Node<K> releases;
+    private Node<K> prereleases;
+    private long sequence;
+
+    /**
+     * Stores {@code spec} under {@code id}, replacing the spec stored under it, if any.
+     *
+     * @return the spec previously stored under {@code id}, or {@code null} if there wasn't one
+     */
+    public NodeVersionSpec put(K id, NodeVersionSpec spec) {
+        Objects.requireNonNull(id, "id");
+        CompiledVersionSpec compiled = spec.compile();
+        NodeVersionSpec previous = remove(id);
+
+        List<VersionInterval> releaseIntervals = compiled.getReleaseIntervals();
+        List<VersionInterval> prereleaseIntervals = compiled.getPrereleaseIntervals();
+        List<Node<K>> nodes = new ArrayList<>(releaseIntervals.size() + prereleaseIntervals.size());
+        for (VersionInterval interval : releaseIntervals) {
+            Node<K> node = newNode(id, interval, false);
+            releases = insert(releases, node);
+            nodes.add(node);
+        }
+        for (VersionInterval interval : prereleaseIntervals) {
+            Node<K> node = newNode(id, interval, true);
+            prereleases = insert(prereleases, node);
+            nodes.add(node);
+        }
+
+        entries.put(id, new Entry<>(spec, nodes));
+        return previous;
+    }
+
+    /**
+     * Removes the spec stored under {@code id}.
+     *
+     * @return the removed spec, or {@code null} if there wasn't one
+     */
+    public NodeVersionSpec remove(K id) {
+        Entry<K> entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+
+        for (Node<K> node : entry.nodes) {
+            if (node.prerelease) {
+                prereleases = delete(prereleases, node);
+            } else {
+                releases = delete(releases, node);
+            }
+        }
+        return entry.spec;
+    }
+
+    /**
+     * Returns the spec stored under {@code id}, or {@code null} if there isn't one.
+     */
+    public NodeVersionSpec get(K id) {
+        Entry<K> entry = entries.get(id);
+        return entry != null ? entry.spec : null;
+    }
+
+    public boolean containsId(K id) {
+        return entries.containsKey(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        releases = null;
+        prereleases = null;
+    }
+
+    /**
+     * Returns the IDs of the specs that {@code version} satisfies, in no particular order.
+     */
+    public List<K> matching(Version version) {
+        Objects.requireNonNull(version, "version");
+        List<K> ids = new ArrayList<>();
+        stab(version.isPrerelease() ? prereleases : releases, version, ids);
+        return ids;
+    }
+
+    private Node<K> newNode(K id, VersionInterval interval, boolean prerelease) {
+        return new Node<>(id, interval, prerelease, sequence++, random.nextInt());
+    }
+
+    private static <K> void stab(Node<K> node, Version version, List<K> ids) {
+        // Intervals to the right of a node that's above the version are above it too, so only go left
+        while (node != null && node.maxUpper.isBelowUpper(version)) {
+            stab(node.left, version, ids);
+            if (!node.interval.isAboveLower(version)) {
+                return;
+            }
+            if (node.interval.isBelowUpper(version)) {
+                ids.add(node.id);
+            }
+            node = node.right;
+        }
+    }
+
+    private static <K> Node<K> insert(Node<K> root, Node<K> node) {
+        if (root == null) {
+            return node;
+        } else if (node.priority > root.priority) {
+            split(root, node);
+            return update(node);
+        } else if (compare(node, root) < 0) {
+            root.left = insert(root.left, node);
+        } else {
+            root.right = insert(root.right, node);
+        }
+        return update(root);
+    }
+
+    /**
+     * Splits {@code root} into the nodes ordered before {@code node}, which become its left subtree, and the ones
+     * after it, which become its right subtree.
+     */
+    private static <K> void split(Node<K> root, Node<K> node) {
+        if (root == null) {
+            node.left = null;
+            node.right = null;
+        } else if (compare(root, node) < 0) {
+            split(root.right, node);
+            root.right = node.left;
+            node.left = update(root);
+        } else {
+            split(root.left, node);
+            root.left = node.right;
+            node.right = update(root);
+        }
+    }
+
+    private static <K> Node<K> delete(Node<K> root, Node<K> node) {
+        if (root == node) {
+            return merge(root.left, root.right);
+        } else if (compare(node, root) < 0) {
+            root.left = delete(root.left, node);
+        } else {
+            root.right = delete(root.right, node);
+        }
+        return update(root);
+    }
+
+    private static <K> Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        } else if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        } else {
+            right.left = merge(left, right.left);
+            return update(right);
+        }
+    }
+
+    private static <K> Node<K> update(Node<K> node) {
+        VersionInterval maxUpper = node.interval;
+        if (node.left != null && compareUpper(node.left.maxUpper, maxUpper) > 0) {
+            maxUpper = node.left.maxUpper;
+        }
+        if (node.right != null && compareUpper(node.right.maxUpper, maxUpper) > 0) {
+            maxUpper = node.right.maxUpper;
+        }
+        node.maxUpper = maxUpper;
+        return node;
+    }
+
+    /**
+     * Orders nodes by the lower bounds of their intervals, then by when they were added.
+     */
+    private static int compare(Node<?> a, Node<?> b) {
+        int diff = compareLower(a.interval, b.interval);
+        return diff != 0 ? diff : Long.compare(a.sequence, b.sequence);
+    }
+
+    private static int compareLower(VersionInterval a, VersionInterval b) {
+        if (a.getLower() == null || b.getLower() == null) {
+            return a.getLower() == null ? (b.getLower() == null ? 0 : -1) : 1;
+        }
+        int diff = a.getLower().compareTo(b.getLower());
+        if (diff != 0 || a.isLowerInclusive() == b.isLowerInclusive()) {
+            return diff;
+        }
+        return a.isLowerInclusive() ? -1 : 1;
+    }
+
+    private static int compareUpper(VersionInterval a, VersionInterval b) {
+        if (a.getUpper() == null || b.getUpper() == null) {
+            return a.getUpper() == null ? (b.getUpper() == null ? 0 : 1) : -1;
+        }
+        int diff = a.getUpper().compareTo(b.getUpper());
+        if (diff != 0 || a.isUpperInclusive() == b.isUpperInclusive()) {
+            return diff;
+        }
+        return a.isUpperInclusive() ? 1 : -1;
+    }
+
+    @Override
+    public String toString() {
+        Map<K, NodeVersionSpec> specs = new HashMap<>();
+        for (Map.Entry<K, Entry<K>> entry : entries.entrySet()) {
+            specs.put(entry.getKey(), entry.getValue().spec);
+        }
+        return specs.toString();
+    }
+
+    private static final class Entry<K> {
+        final NodeVersionSpec spec;
+        final List<Node<K>> nodes;
+
+        Entry(NodeVersionSpec spec, List<Node<K>> nodes) {
+            this.spec = spec;
+            this.nodes = nodes;
+        }
+    }
+
+    private static final class Node<K> {
+        final K id;
+        final VersionInterval interval;
+        final boolean prerelease;
+        final long sequence;
+        final int priority;
+        Node<K> left;
+        Node<K> right;
+        // The interval with the highest upper bound in this subtree
+        VersionInterval maxUpper;
+
+        Node(K id, VersionInterval interval, boolean prerelease, long sequence, int priority) {
+            this.id = id;
+            this.interval = interval;
+            this.prerelease = prerelease;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.maxUpper = interval;
+        }
+    }
+}
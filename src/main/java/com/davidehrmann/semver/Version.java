@@ -19,9 +19,8 @@ under the License.
 
 package com.davidehrmann.semver;
 
-import java.math.BigInteger;
-import java.util.Objects;
-import java.util.regex.Matcher;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.regex.Pattern;
 
 @SuppressWarnings("WeakerAccess")
@@ -33,29 +32,41 @@ public class Version implements Comparable<Version> {
                     "(?:-((?:0|[1-9][0-9]*|[0-9A-Za-z-]*[a-zA-Z-][0-9A-Za-z-]*)(?:[.](?:0|[1-9][0-9]*|[0-9A-Za-z-]*[a-zA-Z-][0-9A-Za-z-]*))*))?" +
                     "(?:[+]((?:0|[1-9][0-9]*|[0-9A-Za-z-]*[a-zA-Z-][0-9A-Za-z-]*)(?:[.](?:0|[1-9][0-9]*|[0-9A-Za-z-]*[a-zA-Z-][0-9A-Za-z-]*))*))?"
     );
-    private static final Pattern PRERELEASE_BUILD_METADATA_PATTERN = Pattern.compile("\\A(?:0|[1-9][0-9]*|[0-9A-Za-z-]*[a-zA-Z-][0-9A-Za-z-]*)(?:[.](?:0|[1-9][0-9]*|[0-9A-Za-z-]*[a-zA-Z-][0-9A-Za-z-]*))*\\z");
+    private static final int MAJOR_BITS = 20;
+    private static final int MINOR_BITS = 21;
+    private static final int PATCH_BITS = 21;
+    private static final long MAJOR_LIMIT = (1L << MAJOR_BITS) - 1;
+    private static final long MINOR_LIMIT = (1L << MINOR_BITS) - 1;
+    private static final long PATCH_LIMIT = (1L << PATCH_BITS) - 1;
+    private static final int PATCH_SHIFT = 1;
+    private static final int MINOR_SHIFT = PATCH_SHIFT + PATCH_BITS;
+    private static final int MAJOR_SHIFT = MINOR_SHIFT + MINOR_BITS;
+    private static final long RELEASE_FLAG = 1;
+
     private final int major;
     private final int minor;
     private final int patch;
-    private final String prerelease;
-    private final String buildMetadata;
+    private final long sortKey;
+    // Either a String, or an AsciiSequence that's only turned into a String on demand
+    private final CharSequence prerelease;
+    private final CharSequence buildMetadata;
 
-    private Object[] prereleaseParts;
+    private final long[] prereleaseIdentifiers;
 
     public Version(int major, int minor, int patch) {
         this(major, minor, patch, null, null);
     }
 
     public Version(int major, int minor, int patch, String prerelease, String buildMetadata) {
+        this(major, minor, patch, checkIdentifiers(prerelease, "pre-release"),
+                checkIdentifiers(buildMetadata, "build metadata"));
+    }
+
+    // Doesn't check the pre-release and build metadata; see trusted()
+    private Version(int major, int minor, int patch, CharSequence prerelease, CharSequence buildMetadata) {
         if (major < 0 || minor < 0 || patch < 0) {
             throw new IllegalArgumentException("Negative version number not allowed");
         }
-        if (prerelease != null && !PRERELEASE_BUILD_METADATA_PATTERN.matcher(prerelease).matches()) {
-            throw new IllegalArgumentException("Failed to parse pre-release string '" + prerelease + "'");
-        }
-        if (buildMetadata != null && !PRERELEASE_BUILD_METADATA_PATTERN.matcher(buildMetadata).matches()) {
-            throw new IllegalArgumentException("Failed to parse build metadata string '" + buildMetadata + "'");
-        }
 
         this.major = major;
         this.minor = minor;
@@ -63,21 +74,120 @@ public class Version implements Comparable<Version> {
 
         this.buildMetadata = buildMetadata;
         this.prerelease = prerelease;
+        this.sortKey = sortKey(major, minor, patch, prerelease == null);
+        this.prereleaseIdentifiers = PrereleaseIdentifiers.of(prerelease);
+    }
+
+    /**
+     * Returns a version with a pre-release and build metadata that are already known to be valid, like the ones the
+     * parser scanned, without checking them again.
+     */
+    static Version trusted(int major, int minor, int patch, CharSequence prerelease, CharSequence buildMetadata) {
+        return new Version(major, minor, patch, prerelease, buildMetadata);
+    }
+
+    private static CharSequence checkIdentifiers(String identifiers, String kind) {
+        if (identifiers != null && !isValidIdentifiers(identifiers, 0, identifiers.length())) {
+            throw new IllegalArgumentException("Failed to parse " + kind + " string '" + identifiers + "'");
+        }
+        return identifiers;
     }
 
     public static Version of(String ver) {
-        Matcher matcher = VERSION_PATTERN.matcher(ver);
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException("Failed to parse version string: " + ver);
+        return parse(ver, 0, ver.length());
+    }
+
+    /**
+     * Parses {@code ver} and returns the pool's canonical instance of it.
+     *
+     * @see VersionPool#intern(Version)
+     */
+    public static Version of(String ver, VersionPool pool) {
+        return pool.intern(of(ver));
+    }
+
+    /**
+     * Parses the version in {@code text} between {@code start} (inclusive) and {@code end} (exclusive). This accepts
+     * exactly the strings matched by {@link #VERSION_PATTERN}, but scans the characters once instead of running a
+     * regular expression, and doesn't require the version to be copied out of a larger buffer first.
+     */
+    public static Version parse(CharSequence text, int start, int end) {
+        if (start < 0 || end > text.length() || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + text.length());
         }
 
-        int major = Integer.parseInt(matcher.group(1));
-        int minor = Integer.parseInt(matcher.group(2));
-        int patch = Integer.parseInt(matcher.group(3));
-        String prerelease = matcher.group(4);
-        String buildMetadata = matcher.group(5);
+        int majorStart = start;
+        if (majorStart < end && text.charAt(majorStart) == 'v') {
+            majorStart++;
+        }
 
-        return new Version(major, minor, patch, prerelease, buildMetadata);
+        int majorEnd = scanNumber(text, majorStart, end);
+        if (majorEnd < 0 || majorEnd == end || text.charAt(majorEnd) != '.') {
+            throw parseFailure(text, start, end);
+        }
+        int minorEnd = scanNumber(text, majorEnd + 1, end);
+        if (minorEnd < 0 || minorEnd == end || text.charAt(minorEnd) != '.') {
+            throw parseFailure(text, start, end);
+        }
+        int patchEnd = scanNumber(text, minorEnd + 1, end);
+        if (patchEnd < 0) {
+            throw parseFailure(text, start, end);
+        }
+
+        CharSequence prerelease = null;
+        CharSequence buildMetadata = null;
+
+        int i = patchEnd;
+        if (i < end && text.charAt(i) == '-') {
+            int prereleaseEnd = i + 1;
+            while (prereleaseEnd < end && text.charAt(prereleaseEnd) != '+') {
+                prereleaseEnd++;
+            }
+            if (!isValidIdentifiers(text, i + 1, prereleaseEnd)) {
+                throw parseFailure(text, start, end);
+            }
+            prerelease = AsciiSequence.copyOf(text, i + 1, prereleaseEnd);
+            i = prereleaseEnd;
+        }
+        if (i < end && text.charAt(i) == '+') {
+            if (!isValidIdentifiers(text, i + 1, end)) {
+                throw parseFailure(text, start, end);
+            }
+            buildMetadata = AsciiSequence.copyOf(text, i + 1, end);
+            i = end;
+        }
+        if (i != end) {
+            throw parseFailure(text, start, end);
+        }
+
+        // Only once the version is otherwise valid, so overflow fails like Integer.parseInt() on a matched version did
+        int major = parseNumber(text, majorStart, majorEnd);
+        int minor = parseNumber(text, majorEnd + 1, minorEnd);
+        int patch = parseNumber(text, minorEnd + 1, patchEnd);
+        return trusted(major, minor, patch, prerelease, buildMetadata);
+    }
+
+    /**
+     * Parses the ASCII version in {@code bytes} between {@code start} (inclusive) and {@code end} (exclusive) without
+     * decoding it to a {@link String}. The pre-release and build metadata strings are built lazily, the first time
+     * {@link #getPrerelease()} or {@link #getBuildMetadata()} needs them.
+     */
+    public static Version parse(byte[] bytes, int start, int end) {
+        if (start < 0 || end > bytes.length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + bytes.length);
+        }
+        return parse(new AsciiSequence(bytes, start, end - start), 0, end - start);
+    }
+
+    /**
+     * Parses the ASCII version between the buffer's position and limit. Heap and direct buffers are both read in
+     * place, and the buffer's position isn't changed.
+     *
+     * @see #parse(byte[], int, int)
+     */
+    public static Version parse(ByteBuffer buffer) {
+        AsciiSequence.ByteBufferSequence text = new AsciiSequence.ByteBufferSequence(buffer);
+        return parse(text, 0, text.length());
     }
 
     public int getMajor() {
@@ -93,28 +203,79 @@ public class Version implements Comparable<Version> {
     }
 
     public String getPrerelease() {
-        return prerelease;
+        return prerelease != null ? prerelease.toString() : null;
     }
 
     public String getBuildMetadata() {
-        return buildMetadata;
+        return buildMetadata != null ? buildMetadata.toString() : null;
+    }
+
+    /**
+     * Returns a key that orders versions by their major, minor and patch numbers, and puts pre-releases before the
+     * release they lead up to. If {@code a.sortKey() < b.sortKey()}, {@code a.compareTo(b) < 0}; if
+     * {@code a.compareTo(b) < 0}, {@code a.sortKey() <= b.sortKey()}. The key is never negative.
+     * <p>
+     * Keys of equal release versions are always equal. Keys are unique up to the pre-release string as long as the major
+     * number is below 2<sup>20</sup> - 1 and the minor and patch numbers are below 2<sup>21</sup> - 1. Larger numbers
+     * are clamped, which keeps the key ordered but means an equal key no longer implies an equal version.
+     */
+    public long sortKey() {
+        return sortKey;
+    }
+
+    static long sortKey(int major, int minor, int patch, boolean release) {
+        if (major >= MAJOR_LIMIT) {
+            return (MAJOR_LIMIT << MAJOR_SHIFT) | (MINOR_LIMIT << MINOR_SHIFT) | (PATCH_LIMIT << PATCH_SHIFT) | RELEASE_FLAG;
+        } else if (minor >= MINOR_LIMIT) {
+            return ((long) major << MAJOR_SHIFT) | (MINOR_LIMIT << MINOR_SHIFT) | (PATCH_LIMIT << PATCH_SHIFT) | RELEASE_FLAG;
+        } else if (patch >= PATCH_LIMIT) {
+            return ((long) major << MAJOR_SHIFT) | ((long) minor << MINOR_SHIFT) | (PATCH_LIMIT << PATCH_SHIFT) | RELEASE_FLAG;
+        } else {
+            return ((long) major << MAJOR_SHIFT) | ((long) minor << MINOR_SHIFT) | ((long) patch << PATCH_SHIFT)
+                    | (release ? RELEASE_FLAG : 0);
+        }
+    }
+
+    /**
+     * Returns whether {@code sortKey} was built from major, minor and patch numbers that weren't clamped, in which case
+     * two versions with this key have the same numbers.
+     */
+    static boolean isExactSortKey(long sortKey) {
+        return (sortKey & (PATCH_LIMIT << PATCH_SHIFT)) != (PATCH_LIMIT << PATCH_SHIFT);
+    }
+
+    /**
+     * Returns whether {@code sortKey} belongs to a release (not a pre-release) version.
+     */
+    static boolean isReleaseSortKey(long sortKey) {
+        return (sortKey & RELEASE_FLAG) != 0;
+    }
+
+    boolean isPrerelease() {
+        return prerelease != null;
     }
 
     @Override
     public int compareTo(Version version) {
+        if (this.sortKey != version.sortKey) {
+            return this.sortKey < version.sortKey ? -1 : 1;
+        } else if (isReleaseSortKey(this.sortKey) && isExactSortKey(this.sortKey)) {
+            return 0;
+        }
+
         int diff;
 
-        diff = this.major - version.major;
+        diff = Integer.compare(this.major, version.major);
         if (diff != 0) {
             return diff;
         }
 
-        diff = this.minor - version.minor;
+        diff = Integer.compare(this.minor, version.minor);
         if (diff != 0) {
             return diff;
         }
 
-        diff = this.patch - version.patch;
+        diff = Integer.compare(this.patch, version.patch);
         if (diff != 0) {
             return diff;
         }
@@ -125,23 +286,8 @@ public class Version implements Comparable<Version> {
             return -1;
         } else if (this.prerelease != null) {
             // https://semver.org/#spec-item-11
-            Object[] thiz = getPrereleaseParts();
-            Object[] that = version.getPrereleaseParts();
-
-            for (int i = 0; i < thiz.length && i < that.length; ++i) {
-                if (thiz[i].getClass() == that[i].getClass()) {
-                    diff = ((Comparable) thiz[i]).compareTo(that[i]);
-                    if (diff != 0) {
-                        return diff;
-                    }
-                } else if (thiz[i] instanceof Number) {
-                    return -1;
-                } else {
-                    return 1;
-                }
-            }
-
-            diff = thiz.length - that.length;
+            diff = PrereleaseIdentifiers.compare(
+                    this.prereleaseIdentifiers, this.prerelease, version.prereleaseIdentifiers, version.prerelease);
             if (diff != 0) {
                 return diff;
             }
@@ -153,15 +299,119 @@ public class Version implements Comparable<Version> {
 
     @Override
     public String toString() {
-        String result = major + "." + minor + "." + patch;
+        return appendTo(new StringBuilder(16)).toString();
+    }
+
+    /**
+     * Appends this version, as {@link #toString()} formats it, to {@code builder}, and returns {@code builder}.
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        try {
+            appendTo((Appendable) builder);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return builder;
+    }
+
+    /**
+     * Appends this version, as {@link #toString()} formats it, to {@code out}, without building a {@link String}.
+     */
+    public void appendTo(Appendable out) throws IOException {
+        int precision = precision();
+        if (precision == 0) {
+            out.append('x');
+            return;
+        }
+
+        appendNumber(out, major);
+        out.append('.');
+        if (precision >= 2) {
+            appendNumber(out, minor);
+        } else {
+            out.append('x');
+        }
+        out.append('.');
+        if (precision >= 3) {
+            appendNumber(out, patch);
+        } else {
+            out.append('x');
+        }
         if (prerelease != null) {
-            result = result + "-" + prerelease;
+            out.append('-').append(prerelease);
         }
         if (buildMetadata != null) {
-            result = result + "+" + buildMetadata;
+            out.append('+').append(buildMetadata);
         }
+    }
 
-        return result;
+    /**
+     * Writes this version, as {@link #toString()} formats it, in ASCII at the buffer's position, advancing it past the
+     * text. {@link #parse(ByteBuffer)} reads it back.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have room for the text
+     */
+    public void appendTo(ByteBuffer buffer) {
+        int precision = precision();
+        if (precision == 0) {
+            buffer.put((byte) 'x');
+            return;
+        }
+
+        putNumber(buffer, major);
+        buffer.put((byte) '.');
+        if (precision >= 2) {
+            putNumber(buffer, minor);
+        } else {
+            buffer.put((byte) 'x');
+        }
+        buffer.put((byte) '.');
+        if (precision >= 3) {
+            putNumber(buffer, patch);
+        } else {
+            buffer.put((byte) 'x');
+        }
+        if (prerelease != null) {
+            buffer.put((byte) '-');
+            putAscii(buffer, prerelease);
+        }
+        if (buildMetadata != null) {
+            buffer.put((byte) '+');
+            putAscii(buffer, buildMetadata);
+        }
+    }
+
+    /**
+     * Returns how many of the major, minor and patch numbers are written out; the rest are written as {@code x}.
+     */
+    int precision() {
+        return 3;
+    }
+
+    private static void appendNumber(Appendable out, int number) throws IOException {
+        int divisor = 1;
+        while (number / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + number / divisor % 10));
+        }
+    }
+
+    private static void putNumber(ByteBuffer buffer, int number) {
+        int divisor = 1;
+        while (number / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + number / divisor % 10));
+        }
+    }
+
+    private static void putAscii(ByteBuffer buffer, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
     }
 
     @Override
@@ -175,35 +425,96 @@ public class Version implements Comparable<Version> {
 
         Version version = (Version) o;
         return major == version.major && minor == version.minor && patch == version.patch &&
-                Objects.equals(buildMetadata, version.buildMetadata) &&
-                Objects.equals(prerelease, version.prerelease);
+                AsciiSequence.contentEquals(buildMetadata, version.buildMetadata) &&
+                AsciiSequence.contentEquals(prerelease, version.prerelease);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(major, minor, patch, prerelease, buildMetadata);
+        // Same as Objects.hash(major, minor, patch, getPrerelease(), getBuildMetadata()), without building the strings
+        int result = 1;
+        result = 31 * result + major;
+        result = 31 * result + minor;
+        result = 31 * result + patch;
+        result = 31 * result + AsciiSequence.contentHashCode(prerelease);
+        result = 31 * result + AsciiSequence.contentHashCode(buildMetadata);
+        return result;
     }
 
-    private Object[] getPrereleaseParts() {
-        if (prerelease == null || prereleaseParts != null) {
-            return prereleaseParts;
-        } else {
-            String[] parts = prerelease.split("[.]");
-            Object[] prereleaseParts = new Object[parts.length];
-            int i = 0;
-            for (String part : parts) {
-                try {
-                    prereleaseParts[i] = new BigInteger(part);
-                } catch (NumberFormatException e) {
-                    prereleaseParts[i] = part;
-                }
+    /**
+     * Returns the end of the numeric component ({@code [1-9]\d*|0}) starting at {@code i}, or -1 if there isn't one.
+     */
+    private static int scanNumber(CharSequence text, int i, int end) {
+        if (i >= end) {
+            return -1;
+        }
 
-                ++i;
+        char c = text.charAt(i);
+        if (c == '0') {
+            return i + 1;
+        } else if (c < '1' || c > '9') {
+            return -1;
+        }
+
+        i++;
+        while (i < end && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Parses the digits between {@code from} and {@code to}.
+     *
+     * @throws NumberFormatException if they don't fit in an int, with the same message as {@link Integer#parseInt}
+     */
+    static int parseNumber(CharSequence text, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (result > (Integer.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("For input string: \"" + text.subSequence(from, to) + "\"");
             }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
 
-            this.prereleaseParts = prereleaseParts;
+    /**
+     * Checks that {@code text} between {@code from} and {@code to} is a non-empty, dot-separated list of identifiers,
+     * each of which is either a number without leading zeros or a run of {@code [0-9A-Za-z-]} with a non-digit.
+     */
+    static boolean isValidIdentifiers(CharSequence text, int from, int to) {
+        int identifierStart = from;
+        boolean numeric = true;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? text.charAt(i) : '.';
+            if (c == '.') {
+                int length = i - identifierStart;
+                if (length == 0 || (numeric && length > 1 && text.charAt(identifierStart) == '0')) {
+                    return false;
+                }
+                identifierStart = i + 1;
+                numeric = true;
+            } else if (!isDigit(c)) {
+                if (!isIdentifierLetter(c)) {
+                    return false;
+                }
+                numeric = false;
+            }
         }
+        return true;
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    static boolean isIdentifierLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-';
+    }
 
-        return this.prereleaseParts;
+    private static IllegalArgumentException parseFailure(CharSequence text, int start, int end) {
+        return new IllegalArgumentException("Failed to parse version string: " + text.subSequence(start, end));
     }
 }
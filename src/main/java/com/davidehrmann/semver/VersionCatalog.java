@@ -0,0 +1,735 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+/**
+ * A read-only catalog of the versions of many packages, stored in a compact binary format that's read in place, for
+ * example from a {@linkplain #open(Path) memory-mapped file}. Opening a catalog only checks its header; versions are
+ * decoded as lookups reach them, and spec queries binary search the stored sort keys, so most of the catalog is never
+ * touched. Processes that map the same file share its pages.
+ *
+ * <p>Catalogs are written by a {@link Builder}. All numbers are big-endian. The layout is:</p>
+ * <ul>
+ *     <li>a header: a magic number, the format version, the number of packages, versions and strings, and the offsets
+ *     of the package table, the version table, the string offsets and the string data;</li>
+ *     <li>the package table, sorted by the UTF-8 bytes of the package names, with one fixed-width entry per package:
+ *     the string index of its name, the index of its first version, and its number of releases and pre-releases;</li>
+ *     <li>the version table, with one fixed-width entry per version: its {@linkplain Version#sortKey() sort key},
+ *     major, minor and patch numbers, and the string indexes of its pre-release and build metadata, or -1. Each
+ *     package's releases come first, then its pre-releases, each in order;</li>
+ *     <li>the string table, shared by package names, pre-releases and build metadata, with each distinct string
+ *     stored once, as the offsets of the strings followed by their UTF-8 bytes.</li>
+ * </ul>
+ *
+ * <p>Catalogs are thread-safe. Versions are ordered and deduplicated like a {@link VersionIndex}'s.</p>
+ *
+ * <p>Only the header is checked when a catalog is opened, so opening a large file stays cheap. Package entries and
+ * string references are checked as they're read, so any method can throw {@link IllegalArgumentException} for a corrupt
+ * catalog.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class VersionCatalog {
+
+    private static final int MAGIC = 0x53564331;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 36;
+    private static final int PACKAGE_SIZE = 16;
+    private static final int VERSION_SIZE = 28;
+
+    // The most decoded strings a catalog keeps, however many it stores
+    private static final int STRING_CACHE_SIZE = 1024;
+
+    private static final java.util.Comparator<byte[]> UNSIGNED_ORDER = new java.util.Comparator<byte[]>() {
+        @Override
+        public int compare(byte[] a, byte[] b) {
+            for (int i = 0; i < Math.min(a.length, b.length); i++) {
+                int diff = (a[i] & 0xff) - (b[i] & 0xff);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return a.length - b.length;
+        }
+    };
+
+    private final ByteBuffer buffer;
+    private final int packageCount;
+    private final int versionCount;
+    private final int stringCount;
+    private final int packagesOffset;
+    private final int versionsOffset;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+
+    // Recently decoded strings, each in the slot of its index modulo the cache size, so the few strings most versions
+    // share, like "beta.1", aren't decoded on every read, but a catalog with many strings doesn't keep them all. Races
+    // only decode a string twice.
+    private final DecodedString[] strings;
+
+    private VersionCatalog(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a version catalog");
+        } else if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported version catalog format " + buffer.getInt(4));
+        }
+
+        this.packageCount = buffer.getInt(8);
+        this.versionCount = buffer.getInt(12);
+        this.stringCount = buffer.getInt(16);
+        this.packagesOffset = buffer.getInt(20);
+        this.versionsOffset = buffer.getInt(24);
+        this.stringOffsetsOffset = buffer.getInt(28);
+        this.stringDataOffset = buffer.getInt(32);
+
+        if (packageCount < 0 || versionCount < 0 || stringCount < 0
+                || !fits(packagesOffset, (long) packageCount * PACKAGE_SIZE)
+                || !fits(versionsOffset, (long) versionCount * VERSION_SIZE)
+                || !fits(stringOffsetsOffset, 4L * (stringCount + 1))
+                || !fits(stringDataOffset, stringCount > 0 ? buffer.getInt(stringOffsetsOffset + 4 * stringCount) : 0)) {
+            throw corrupt();
+        }
+
+        this.strings = new DecodedString[Math.min(stringCount, STRING_CACHE_SIZE)];
+    }
+
+    /**
+     * Maps the catalog in {@code file} into memory. The mapping is released when the catalog is garbage collected.
+     *
+     * @throws IllegalArgumentException if the file isn't a version catalog
+     */
+    public static VersionCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the catalog between the buffer's position and limit, in place. The buffer's position isn't changed, and the
+     * buffer mustn't be modified while the catalog is in use.
+     *
+     * @throws IllegalArgumentException if the buffer doesn't hold a version catalog
+     */
+    public static VersionCatalog wrap(ByteBuffer buffer) {
+        return new VersionCatalog(buffer.slice().order(ByteOrder.BIG_ENDIAN));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the names of the packages in this catalog, ordered by their UTF-8 bytes. Names are decoded as they're
+     * read from the list.
+     */
+    public List<String> packageNames() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= packageCount) {
+                    throw new IndexOutOfBoundsException("index " + index + ", size " + packageCount);
+                }
+                return string(buffer.getInt(packagesOffset + index * PACKAGE_SIZE));
+            }
+
+            @Override
+            public int size() {
+                return packageCount;
+            }
+        };
+    }
+
+    public boolean contains(String packageName) {
+        return find(packageName) >= 0;
+    }
+
+    /**
+     * Returns the number of versions of {@code packageName}, or 0 if it isn't in this catalog.
+     */
+    public int size(String packageName) {
+        int entry = find(packageName);
+        return entry < 0 ? 0 : prereleases(entry).end - releases(entry).start;
+    }
+
+    /**
+     * Returns the versions of {@code packageName}, in order. The iterator is empty if the package isn't in this
+     * catalog.
+     */
+    public Iterator<Version> versions(String packageName) {
+        return select(packageName, null);
+    }
+
+    /**
+     * Returns the number of versions of {@code packageName} that satisfy {@code spec}.
+     */
+    public int count(String packageName, NodeVersionSpec spec) {
+        int entry = find(packageName);
+        if (entry < 0) {
+            return 0;
+        }
+        CompiledVersionSpec compiled = spec.compile();
+        return releases(entry).count(compiled.intervals(false)) + prereleases(entry).count(compiled.intervals(true));
+    }
+
+    /**
+     * Returns the lowest version of {@code packageName} that satisfies {@code spec}, or {@code null} if none do.
+     */
+    public Version min(String packageName, NodeVersionSpec spec) {
+        int entry = find(packageName);
+        if (entry < 0) {
+            return null;
+        }
+        CompiledVersionSpec compiled = spec.compile();
+        int release = releases(entry).min(compiled.intervals(false));
+        int prerelease = prereleases(entry).min(compiled.intervals(true));
+        if (release < 0 || prerelease < 0) {
+            return release >= 0 ? version(release) : prerelease >= 0 ? version(prerelease) : null;
+        }
+        return compare(release, prerelease) <= 0 ? version(release) : version(prerelease);
+    }
+
+    /**
+     * Returns the highest version of {@code packageName} that satisfies {@code spec}, or {@code null} if none do.
+     */
+    public Version max(String packageName, NodeVersionSpec spec) {
+        int entry = find(packageName);
+        if (entry < 0) {
+            return null;
+        }
+        CompiledVersionSpec compiled = spec.compile();
+        int release = releases(entry).max(compiled.intervals(false));
+        int prerelease = prereleases(entry).max(compiled.intervals(true));
+        if (release < 0 || prerelease < 0) {
+            return release >= 0 ? version(release) : prerelease >= 0 ? version(prerelease) : null;
+        }
+        return compare(release, prerelease) >= 0 ? version(release) : version(prerelease);
+    }
+
+    /**
+     * Returns the versions of {@code packageName} that satisfy {@code spec}, in order. Matching versions are decoded as
+     * the iterator advances.
+     */
+    public Iterator<Version> select(String packageName, NodeVersionSpec spec) {
+        int entry = find(packageName);
+        if (entry < 0) {
+            return Collections.<Version>emptyList().iterator();
+        }
+
+        Range releases = releases(entry);
+        Range prereleases = prereleases(entry);
+        final int[] releaseRanges;
+        final int[] prereleaseRanges;
+        if (spec == null) {
+            releaseRanges = new int[]{releases.start, releases.end};
+            prereleaseRanges = new int[]{prereleases.start, prereleases.end};
+        } else {
+            CompiledVersionSpec compiled = spec.compile();
+            releaseRanges = releases.ranges(compiled.intervals(false));
+            prereleaseRanges = prereleases.ranges(compiled.intervals(true));
+        }
+
+        return new Iterator<Version>() {
+            private final RangeCursor releaseCursor = new RangeCursor(releaseRanges);
+            private final RangeCursor prereleaseCursor = new RangeCursor(prereleaseRanges);
+
+            @Override
+            public boolean hasNext() {
+                return releaseCursor.hasNext() || prereleaseCursor.hasNext();
+            }
+
+            @Override
+            public Version next() {
+                RangeCursor cursor;
+                if (!releaseCursor.hasNext() || !prereleaseCursor.hasNext()) {
+                    cursor = releaseCursor.hasNext() ? releaseCursor : prereleaseCursor;
+                } else {
+                    cursor = compare(releaseCursor.peek(), prereleaseCursor.peek()) <= 0 ? releaseCursor : prereleaseCursor;
+                }
+                return version(cursor.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "VersionCatalog{packages=" + packageCount + ", versions=" + versionCount + "}";
+    }
+
+    private boolean fits(int offset, long length) {
+        return offset >= 0 && length >= 0 && offset + length <= buffer.capacity();
+    }
+
+    private static IllegalArgumentException corrupt() {
+        return new IllegalArgumentException("Corrupt version catalog");
+    }
+
+    /**
+     * Returns the offset of the package table entry for {@code packageName}, or -1 if there isn't one.
+     */
+    private int find(String packageName) {
+        byte[] name = packageName.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = packageCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = packagesOffset + mid * PACKAGE_SIZE;
+            int diff = compareString(buffer.getInt(entry), name);
+            if (diff < 0) {
+                low = mid + 1;
+            } else if (diff > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private Range releases(int entry) {
+        return range(buffer.getInt(entry + 4), buffer.getInt(entry + 8));
+    }
+
+    private Range prereleases(int entry) {
+        return range(releases(entry).end, buffer.getInt(entry + 12));
+    }
+
+    private Range range(int start, int count) {
+        if (start < 0 || count < 0 || start > versionCount - count) {
+            throw corrupt();
+        }
+        return new Range(start, start + count);
+    }
+
+    private Version version(int index) {
+        int record = versionsOffset + index * VERSION_SIZE;
+        int prerelease = buffer.getInt(record + 20);
+        int buildMetadata = buffer.getInt(record + 24);
+        // The builder only stores valid versions, so their strings don't need checking again
+        return Version.trusted(buffer.getInt(record + 8), buffer.getInt(record + 12), buffer.getInt(record + 16),
+                prerelease < 0 ? null : string(prerelease), buildMetadata < 0 ? null : string(buildMetadata));
+    }
+
+    /**
+     * Compares the precedence of two stored versions, only decoding them if their sort keys are equal.
+     */
+    private int compare(int a, int b) {
+        long aKey = buffer.getLong(versionsOffset + a * VERSION_SIZE);
+        long bKey = buffer.getLong(versionsOffset + b * VERSION_SIZE);
+        if (aKey != bKey) {
+            return aKey < bKey ? -1 : 1;
+        }
+        return version(a).compareTo(version(b));
+    }
+
+    /**
+     * Compares the precedence of a stored version to {@code version}, only decoding it if their sort keys are equal.
+     */
+    private int compare(int index, Version version) {
+        long key = buffer.getLong(versionsOffset + index * VERSION_SIZE);
+        if (key != version.sortKey()) {
+            return key < version.sortKey() ? -1 : 1;
+        } else if (Version.isReleaseSortKey(key) && Version.isExactSortKey(key)) {
+            return 0;
+        }
+        return version(index).compareTo(version);
+    }
+
+    private String string(int index) {
+        if (index < 0 || index >= stringCount) {
+            throw corrupt();
+        }
+        int slot = index % strings.length;
+        DecodedString decoded = strings[slot];
+        if (decoded == null || decoded.index != index) {
+            int start = stringStart(index);
+            byte[] bytes = new byte[stringLength(index, start)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            decoded = new DecodedString(index, new String(bytes, StandardCharsets.UTF_8));
+            strings[slot] = decoded;
+        }
+        return decoded.string;
+    }
+
+    private int compareString(int index, byte[] other) {
+        if (index < 0 || index >= stringCount) {
+            throw corrupt();
+        }
+        int start = stringStart(index);
+        int length = stringLength(index, start);
+        for (int i = 0; i < Math.min(length, other.length); i++) {
+            int diff = (buffer.get(start + i) & 0xff) - (other[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - other.length;
+    }
+
+    /**
+     * Returns the position of the first byte of string {@code index}, or of the end of the string data for
+     * {@code stringCount}.
+     */
+    private int stringStart(int index) {
+        int offset = buffer.getInt(stringOffsetsOffset + 4 * index);
+        if (!fits(stringDataOffset, offset)) {
+            throw corrupt();
+        }
+        return stringDataOffset + offset;
+    }
+
+    private int stringLength(int index, int start) {
+        int length = stringStart(index + 1) - start;
+        if (length < 0) {
+            throw corrupt();
+        }
+        return length;
+    }
+
+    /**
+     * The stored releases or pre-releases of one package, as a range of version indexes.
+     */
+    private final class Range {
+        final int start;
+        final int end;
+
+        Range(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        int[] ranges(VersionIntervalSet set) {
+            List<VersionInterval> intervals = set.intervals();
+            int[] ranges = new int[2 * intervals.size()];
+            int n = 0;
+            for (VersionInterval interval : intervals) {
+                int from = lowerIndex(interval);
+                int to = upperIndex(interval);
+                if (from < to) {
+                    ranges[n++] = from;
+                    ranges[n++] = to;
+                }
+            }
+            return Arrays.copyOf(ranges, n);
+        }
+
+        int count(VersionIntervalSet set) {
+            int count = 0;
+            for (VersionInterval interval : set.intervals()) {
+                count += Math.max(0, upperIndex(interval) - lowerIndex(interval));
+            }
+            return count;
+        }
+
+        int min(VersionIntervalSet set) {
+            for (VersionInterval interval : set.intervals()) {
+                int from = lowerIndex(interval);
+                if (from < upperIndex(interval)) {
+                    return from;
+                }
+            }
+            return -1;
+        }
+
+        int max(VersionIntervalSet set) {
+            List<VersionInterval> intervals = set.intervals();
+            for (int i = intervals.size() - 1; i >= 0; i--) {
+                int to = upperIndex(intervals.get(i));
+                if (lowerIndex(intervals.get(i)) < to) {
+                    return to - 1;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the index of the first version that isn't below the interval.
+         */
+        private int lowerIndex(VersionInterval interval) {
+            if (interval.getLower() == null) {
+                return start;
+            }
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int diff = compare(mid, interval.getLower());
+                if (diff > 0 || (diff == 0 && interval.isLowerInclusive())) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the index of the first version that's above the interval.
+         */
+        private int upperIndex(VersionInterval interval) {
+            if (interval.getUpper() == null) {
+                return end;
+            }
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int diff = compare(mid, interval.getUpper());
+                if (diff < 0 || (diff == 0 && interval.isUpperInclusive())) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class DecodedString {
+        final int index;
+        final String string;
+
+        DecodedString(int index, String string) {
+            this.index = index;
+            this.string = string;
+        }
+    }
+
+    private static final class RangeCursor {
+        private final int[] ranges;
+        private int range;
+        private int next;
+
+        RangeCursor(int[] ranges) {
+            this.ranges = ranges;
+            skipEmpty();
+        }
+
+        boolean hasNext() {
+            return range < ranges.length;
+        }
+
+        int peek() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return next;
+        }
+
+        int next() {
+            int index = peek();
+            next++;
+            skipEmpty();
+            return index;
+        }
+
+        private void skipEmpty() {
+            while (range < ranges.length) {
+                next = Math.max(next, ranges[range]);
+                if (next < ranges[range + 1]) {
+                    return;
+                }
+                range += 2;
+            }
+        }
+    }
+
+    /**
+     * Collects the versions of packages and writes them as a catalog. Adding the same package more than once merges
+     * its versions.
+     */
+    public static final class Builder {
+        private final Map<String, Collection<Version>> packages = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String packageName, Collection<? extends Version> versions) {
+            Collection<Version> existing = packages.get(packageName);
+            if (existing == null) {
+                existing = new ArrayList<>();
+                packages.put(packageName, existing);
+            }
+            for (Version version : versions) {
+                if (version == null) {
+                    throw new NullPointerException("versions contains null");
+                }
+                existing.add(version);
+            }
+            return this;
+        }
+
+        public Builder add(String packageName, Version... versions) {
+            return add(packageName, Arrays.asList(versions));
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            ByteBuffer buffer = toByteBuffer();
+            out.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+        }
+
+        public void writeTo(Path file) throws IOException {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                writeTo(out);
+            }
+        }
+
+        /**
+         * Returns the catalog as a heap buffer, which can be read with {@link #wrap(ByteBuffer)}.
+         */
+        public ByteBuffer toByteBuffer() {
+            // Order the packages by their UTF-8 bytes, so readers can binary search without decoding names
+            Map<byte[], String> names = new HashMap<>();
+            TreeSet<byte[]> sortedNames = new TreeSet<>(UNSIGNED_ORDER);
+            for (String name : packages.keySet()) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                names.put(bytes, name);
+                if (!sortedNames.add(bytes)) {
+                    throw new IllegalArgumentException("Package names encode to the same UTF-8: '" + name + "'");
+                }
+            }
+
+            Map<String, Integer> strings = new LinkedHashMap<>();
+            List<Version> versions = new ArrayList<>();
+            int[] packageEntries = new int[4 * sortedNames.size()];
+            int p = 0;
+            for (byte[] bytes : sortedNames) {
+                String name = names.get(bytes);
+                // An index sorts and deduplicates the versions the same way readers expect
+                VersionIndex index = VersionIndex.of(packages.get(name));
+                packageEntries[p++] = intern(strings, name);
+                packageEntries[p++] = versions.size();
+                int releases = 0;
+                for (Version version : index) {
+                    if (!version.isPrerelease()) {
+                        versions.add(version);
+                        releases++;
+                    }
+                }
+                for (Version version : index) {
+                    if (version.isPrerelease()) {
+                        versions.add(version);
+                    }
+                }
+                packageEntries[p++] = releases;
+                packageEntries[p++] = index.size() - releases;
+            }
+
+            int[] versionStrings = new int[2 * versions.size()];
+            for (int i = 0; i < versions.size(); i++) {
+                Version version = versions.get(i);
+                versionStrings[2 * i] = version.getPrerelease() == null ? -1 : intern(strings, version.getPrerelease());
+                versionStrings[2 * i + 1] = version.getBuildMetadata() == null ? -1 : intern(strings, version.getBuildMetadata());
+            }
+
+            List<byte[]> stringBytes = new ArrayList<>(strings.size());
+            long stringDataSize = 0;
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                stringBytes.add(bytes);
+                stringDataSize += bytes.length;
+            }
+
+            long packagesOffset = HEADER_SIZE;
+            long versionsOffset = packagesOffset + (long) PACKAGE_SIZE * sortedNames.size();
+            long stringOffsetsOffset = versionsOffset + (long) VERSION_SIZE * versions.size();
+            long stringDataOffset = stringOffsetsOffset + 4L * (strings.size() + 1);
+            long size = stringDataOffset + stringDataSize;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Catalog would be larger than 2GB");
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            buffer.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(sortedNames.size())
+                    .putInt(versions.size())
+                    .putInt(strings.size())
+                    .putInt((int) packagesOffset)
+                    .putInt((int) versionsOffset)
+                    .putInt((int) stringOffsetsOffset)
+                    .putInt((int) stringDataOffset);
+            for (int entry : packageEntries) {
+                buffer.putInt(entry);
+            }
+            for (int i = 0; i < versions.size(); i++) {
+                Version version = versions.get(i);
+                buffer.putLong(version.sortKey())
+                        .putInt(version.getMajor())
+                        .putInt(version.getMinor())
+                        .putInt(version.getPatch())
+                        .putInt(versionStrings[2 * i])
+                        .putInt(versionStrings[2 * i + 1]);
+            }
+            int offset = 0;
+            for (byte[] bytes : stringBytes) {
+                buffer.putInt(offset);
+                offset += bytes.length;
+            }
+            buffer.putInt(offset);
+            for (byte[] bytes : stringBytes) {
+                buffer.put(bytes);
+            }
+
+            // Through Buffer, since Java 9's covariant ByteBuffer.flip() doesn't exist on older runtimes
+            ((Buffer) buffer).flip();
+            return buffer;
+        }
+
+        private static int intern(Map<String, Integer> strings, String string) {
+            Integer index = strings.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.put(string, index);
+            }
+            return index;
+        }
+    }
+}
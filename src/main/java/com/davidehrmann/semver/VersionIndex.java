@@ -0,0 +1,360 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, sorted set of versions that answers spec queries by binary search instead of checking every version.
+ * Versions are ordered by precedence, then by build metadata, and duplicates (by {@link Version#equals(Object)}) are
+ * dropped.
+ *
+ * <p>Releases and pre-releases are kept in separate arrays, alongside their {@linkplain Version#sortKey() sort keys}.
+ * A spec is {@linkplain NodeVersionSpec#compile() compiled} to one set of intervals for each, and each interval maps
+ * to a contiguous slice of its array, so {@link #count(NodeVersionSpec)}, {@link #min(NodeVersionSpec)} and
+ * {@link #max(NodeVersionSpec)} only look at the ends of the slices, and {@link #select(NodeVersionSpec)} only visits
+ * matching versions.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class VersionIndex implements Iterable<Version> {
+
+    static final java.util.Comparator<Version> ORDER = new java.util.Comparator<Version>() {
+        @Override
+        public int compare(Version a, Version b) {
+            int diff = a.compareTo(b);
+            if (diff != 0) {
+                return diff;
+            } else if (a.getBuildMetadata() == null || b.getBuildMetadata() == null) {
+                return a.getBuildMetadata() == null ? (b.getBuildMetadata() == null ? 0 : -1) : 1;
+            }
+            return a.getBuildMetadata().compareTo(b.getBuildMetadata());
+        }
+    };
+
+    private final Version[] versions;
+    private final Slice releases;
+    private final Slice prereleases;
+
+    private VersionIndex(Version[] versions) {
+        this.versions = versions;
+
+        List<Version> releaseList = new ArrayList<>();
+        List<Version> prereleaseList = new ArrayList<>();
+        for (Version version : versions) {
+            (version.isPrerelease() ? prereleaseList : releaseList).add(version);
+        }
+        this.releases = new Slice(releaseList.toArray(new Version[releaseList.size()]));
+        this.prereleases = new Slice(prereleaseList.toArray(new Version[prereleaseList.size()]));
+    }
+
+    public static VersionIndex of(Collection<? extends Version> versions) {
+        return of(versions.toArray(new Version[versions.size()]));
+    }
+
+    public static VersionIndex of(Version... versions) {
+        Version[] sorted = versions.clone();
+        for (Version version : sorted) {
+            if (version == null) {
+                throw new NullPointerException("versions contains null");
+            }
+        }
+        Arrays.sort(sorted, ORDER);
+
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || !sorted[i].equals(sorted[size - 1])) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new VersionIndex(size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+    }
+
+    public int size() {
+        return versions.length;
+    }
+
+    /**
+     * Returns the versions in this index, in order.
+     */
+    public List<Version> versions() {
+        return Collections.unmodifiableList(Arrays.asList(versions));
+    }
+
+    @Override
+    public Iterator<Version> iterator() {
+        return versions().iterator();
+    }
+
+    /**
+     * Returns the number of versions that satisfy {@code spec}.
+     */
+    public int count(NodeVersionSpec spec) {
+        CompiledVersionSpec compiled = spec.compile();
+        return releases.count(compiled.intervals(false)) + prereleases.count(compiled.intervals(true));
+    }
+
+    /**
+     * Returns the lowest version that satisfies {@code spec}, or {@code null} if none do.
+     */
+    public Version min(NodeVersionSpec spec) {
+        CompiledVersionSpec compiled = spec.compile();
+        Version release = releases.min(compiled.intervals(false));
+        Version prerelease = prereleases.min(compiled.intervals(true));
+        if (release == null || prerelease == null) {
+            return release != null ? release : prerelease;
+        }
+        return ORDER.compare(release, prerelease) <= 0 ? release : prerelease;
+    }
+
+    /**
+     * Returns the highest version that satisfies {@code spec}, or {@code null} if none do.
+     */
+    public Version max(NodeVersionSpec spec) {
+        CompiledVersionSpec compiled = spec.compile();
+        Version release = releases.max(compiled.intervals(false));
+        Version prerelease = prereleases.max(compiled.intervals(true));
+        if (release == null || prerelease == null) {
+            return release != null ? release : prerelease;
+        }
+        return ORDER.compare(release, prerelease) >= 0 ? release : prerelease;
+    }
+
+    /**
+     * Returns the versions that satisfy {@code spec}, in order. The matching slices are located up front, but the
+     * versions in them are read as the iterator advances.
+     */
+    public Iterator<Version> select(NodeVersionSpec spec) {
+        CompiledVersionSpec compiled = spec.compile();
+        final SliceIterator releaseMatches = new SliceIterator(releases, releases.ranges(compiled.intervals(false)));
+        final SliceIterator prereleaseMatches = new SliceIterator(prereleases, prereleases.ranges(compiled.intervals(true)));
+
+        return new Iterator<Version>() {
+            @Override
+            public boolean hasNext() {
+                return releaseMatches.hasNext() || prereleaseMatches.hasNext();
+            }
+
+            @Override
+            public Version next() {
+                if (!releaseMatches.hasNext()) {
+                    return prereleaseMatches.next();
+                } else if (!prereleaseMatches.hasNext()) {
+                    return releaseMatches.next();
+                }
+                return ORDER.compare(releaseMatches.peek(), prereleaseMatches.peek()) <= 0
+                        ? releaseMatches.next()
+                        : prereleaseMatches.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(versions, ((VersionIndex) o).versions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(versions);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(versions);
+    }
+
+    /**
+     * The releases or the pre-releases of an index, with their sort keys.
+     */
+    private static final class Slice {
+        private final Version[] versions;
+        private final long[] keys;
+
+        Slice(Version[] versions) {
+            this.versions = versions;
+            this.keys = new long[versions.length];
+            for (int i = 0; i < versions.length; i++) {
+                keys[i] = versions[i].sortKey();
+            }
+        }
+
+        /**
+         * Returns the start (inclusive) and end (exclusive) index of each non-empty slice of versions in
+         * {@code set}, in order, two ints per slice.
+         */
+        int[] ranges(VersionIntervalSet set) {
+            List<VersionInterval> intervals = set.intervals();
+            int[] ranges = new int[2 * intervals.size()];
+            int n = 0;
+            for (VersionInterval interval : intervals) {
+                int start = lowerIndex(interval);
+                int end = upperIndex(interval);
+                if (start < end) {
+                    ranges[n++] = start;
+                    ranges[n++] = end;
+                }
+            }
+            return Arrays.copyOf(ranges, n);
+        }
+
+        int count(VersionIntervalSet set) {
+            int count = 0;
+            for (VersionInterval interval : set.intervals()) {
+                count += Math.max(0, upperIndex(interval) - lowerIndex(interval));
+            }
+            return count;
+        }
+
+        Version min(VersionIntervalSet set) {
+            for (VersionInterval interval : set.intervals()) {
+                int start = lowerIndex(interval);
+                if (start < upperIndex(interval)) {
+                    return versions[start];
+                }
+            }
+            return null;
+        }
+
+        Version max(VersionIntervalSet set) {
+            List<VersionInterval> intervals = set.intervals();
+            for (int i = intervals.size() - 1; i >= 0; i--) {
+                int end = upperIndex(intervals.get(i));
+                if (lowerIndex(intervals.get(i)) < end) {
+                    return versions[end - 1];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the index of the first version that isn't below the interval.
+         */
+        private int lowerIndex(VersionInterval interval) {
+            if (interval.getLower() == null) {
+                return 0;
+            }
+
+            // Keys order versions, so narrow the search to the versions with the bound's key, then compare those
+            long key = interval.getLower().sortKey();
+            int low = firstKeyAtLeast(key);
+            int high = firstKeyAbove(key);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (interval.isAboveLower(versions[mid])) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the index of the first version that's above the interval.
+         */
+        private int upperIndex(VersionInterval interval) {
+            if (interval.getUpper() == null) {
+                return versions.length;
+            }
+
+            long key = interval.getUpper().sortKey();
+            int low = firstKeyAtLeast(key);
+            int high = firstKeyAbove(key);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (interval.isBelowUpper(versions[mid])) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int firstKeyAbove(long key) {
+            return key == Long.MAX_VALUE ? keys.length : firstKeyAtLeast(key + 1);
+        }
+
+        private int firstKeyAtLeast(long key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class SliceIterator {
+        private final Slice slice;
+        private final int[] ranges;
+        private int range;
+        private int next;
+
+        SliceIterator(Slice slice, int[] ranges) {
+            this.slice = slice;
+            this.ranges = ranges;
+            this.next = ranges.length > 0 ? ranges[0] : 0;
+        }
+
+        boolean hasNext() {
+            return range < ranges.length;
+        }
+
+        Version peek() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return slice.versions[next];
+        }
+
+        Version next() {
+            Version version = peek();
+            if (++next == ranges[range + 1]) {
+                range += 2;
+                if (range < ranges.length) {
+                    next = ranges[range];
+                }
+            }
+            return version;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.Objects;
+
+/**
+ * A contiguous range of versions, ordered by {@link Version#compareTo(Version)}. A {@code null} bound means the range
+ * is unbounded on that side.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class VersionInterval {
+    private final Version lower;
+    private final boolean lowerInclusive;
+    private final Version upper;
+    private final boolean upperInclusive;
+
+    VersionInterval(Version lower, boolean lowerInclusive, Version upper, boolean upperInclusive) {
+        this.lower = lower;
+        this.lowerInclusive = lower != null && lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upper != null && upperInclusive;
+    }
+
+    public Version getLower() {
+        return lower;
+    }
+
+    public boolean isLowerInclusive() {
+        return lowerInclusive;
+    }
+
+    public Version getUpper() {
+        return upper;
+    }
+
+    public boolean isUpperInclusive() {
+        return upperInclusive;
+    }
+
+    public boolean contains(Version version) {
+        return isAboveLower(version) && isBelowUpper(version);
+    }
+
+    boolean isAboveLower(Version version) {
+        if (lower == null) {
+            return true;
+        }
+        int diff = version.compareTo(lower);
+        return diff > 0 || (diff == 0 && lowerInclusive);
+    }
+
+    boolean isBelowUpper(Version version) {
+        if (upper == null) {
+            return true;
+        }
+        int diff = version.compareTo(upper);
+        return diff < 0 || (diff == 0 && upperInclusive);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        VersionInterval interval = (VersionInterval) o;
+        return lowerInclusive == interval.lowerInclusive && upperInclusive == interval.upperInclusive &&
+                Objects.equals(lower, interval.lower) && Objects.equals(upper, interval.upper);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lower, lowerInclusive, upper, upperInclusive);
+    }
+
+    @Override
+    public String toString() {
+        return (lowerInclusive ? "[" : "(") + (lower != null ? lower : "-inf") + ", "
+                + (upper != null ? upper : "+inf") + (upperInclusive ? "]" : ")");
+    }
+}
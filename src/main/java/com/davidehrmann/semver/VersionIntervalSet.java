@@ -0,0 +1,319 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of versions, stored as sorted, disjoint, non-adjacent {@link VersionInterval}s. Membership is a
+ * binary search over the packed {@link Version#sortKey()} of each interval's lower bound.
+ */
+final class VersionIntervalSet {
+    static final VersionIntervalSet EMPTY = new VersionIntervalSet(new VersionInterval[0]);
+    static final VersionIntervalSet ALL = new VersionIntervalSet(new VersionInterval[]{
+            new VersionInterval(null, false, null, false)
+    });
+
+    private static final long UNBOUNDED_KEY = -1;
+
+    private final VersionInterval[] intervals;
+    private final long[] lowerKeys;
+
+    private VersionIntervalSet(VersionInterval[] intervals) {
+        this.intervals = intervals;
+        this.lowerKeys = new long[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            Version lower = intervals[i].getLower();
+            this.lowerKeys[i] = lower != null ? lower.sortKey() : UNBOUNDED_KEY;
+        }
+    }
+
+    static VersionIntervalSet of(Version lower, boolean lowerInclusive, Version upper, boolean upperInclusive) {
+        lower = normalize(lower);
+        upper = normalize(upper);
+        if (!isNonEmpty(lower, lowerInclusive, upper, upperInclusive)) {
+            return EMPTY;
+        }
+        return new VersionIntervalSet(new VersionInterval[]{
+                new VersionInterval(lower, lowerInclusive, upper, upperInclusive)
+        });
+    }
+
+    /**
+     * Returns the first release after every version that starts with the first {@code prefixLength} numbers of
+     * {@code major.minor.patch}, or {@code null} if there isn't one.
+     */
+    static Version nextRelease(int major, int minor, int patch, int prefixLength) {
+        if (prefixLength >= 3 && patch < Integer.MAX_VALUE) {
+            return new Version(major, minor, patch + 1);
+        } else if (prefixLength >= 2 && minor < Integer.MAX_VALUE) {
+            return new Version(major, minor + 1, 0);
+        } else if (prefixLength >= 1 && major < Integer.MAX_VALUE) {
+            return new Version(major + 1, 0, 0);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the smallest pre-release with the same numbers as {@code release}, or {@code null} for {@code null}.
+     */
+    static Version firstPrerelease(Version release) {
+        return release != null ? new Version(release.getMajor(), release.getMinor(), release.getPatch(), "0", null) : null;
+    }
+
+    // Bounds are plain versions without build metadata, so they print and compare predictably
+    private static Version normalize(Version version) {
+        if (version == null || (version.getClass() == Version.class && version.getBuildMetadata() == null)) {
+            return version;
+        }
+        return new Version(version.getMajor(), version.getMinor(), version.getPatch(), version.getPrerelease(), null);
+    }
+
+    boolean contains(Version version) {
+        long key = version.sortKey();
+
+        // Find the last interval whose lower bound key is <= key
+        int low = 0;
+        int high = lowerKeys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lowerKeys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // Equal keys don't imply equal versions, so step back past lower bounds that are still above the version
+        int i = high;
+        while (i >= 0 && !intervals[i].isAboveLower(version)) {
+            i--;
+        }
+        return i >= 0 && intervals[i].isBelowUpper(version);
+    }
+
+    boolean isEmpty() {
+        return intervals.length == 0;
+    }
+
+    /**
+     * Returns whether any release ({@code prerelease == false}) or any pre-release ({@code prerelease == true}) is in
+     * this set. Sets can contain intervals with no versions of one kind, like {@code [1.2.3-0, 1.2.3)}, which has no
+     * releases, so this is stricter than {@code !isEmpty()}.
+     */
+    boolean containsAny(boolean prerelease) {
+        for (VersionInterval interval : intervals) {
+            Version least = prerelease ? leastPrereleaseAbove(interval) : leastReleaseAbove(interval);
+            if (least != null && interval.isBelowUpper(least)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The smallest release that isn't below the interval, or null if there isn't one
+    private static Version leastReleaseAbove(VersionInterval interval) {
+        Version lower = interval.getLower();
+        if (lower == null) {
+            return new Version(0, 0, 0);
+        } else if (lower.isPrerelease()) {
+            return new Version(lower.getMajor(), lower.getMinor(), lower.getPatch());
+        } else if (interval.isLowerInclusive()) {
+            return lower;
+        }
+        return nextRelease(lower.getMajor(), lower.getMinor(), lower.getPatch(), 3);
+    }
+
+    // The smallest pre-release that isn't below the interval, or null if there isn't one
+    private static Version leastPrereleaseAbove(VersionInterval interval) {
+        Version lower = interval.getLower();
+        if (lower == null) {
+            return firstPrerelease(new Version(0, 0, 0));
+        } else if (!lower.isPrerelease()) {
+            return firstPrerelease(nextRelease(lower.getMajor(), lower.getMinor(), lower.getPatch(), 3));
+        } else if (interval.isLowerInclusive()) {
+            return lower;
+        }
+        // Adding an identifier makes the next pre-release, since nothing sorts between "alpha" and "alpha.0"
+        return new Version(lower.getMajor(), lower.getMinor(), lower.getPatch(), lower.getPrerelease() + ".0", null);
+    }
+
+    List<VersionInterval> intervals() {
+        return Collections.unmodifiableList(Arrays.asList(intervals));
+    }
+
+    VersionInterval first() {
+        return intervals[0];
+    }
+
+    VersionInterval last() {
+        return intervals[intervals.length - 1];
+    }
+
+    VersionIntervalSet union(VersionIntervalSet other) {
+        if (this.isEmpty()) {
+            return other;
+        } else if (other.isEmpty()) {
+            return this;
+        }
+
+        List<VersionInterval> result = new ArrayList<>(intervals.length + other.intervals.length);
+        int i = 0;
+        int j = 0;
+        VersionInterval current = null;
+        while (i < intervals.length || j < other.intervals.length) {
+            VersionInterval next;
+            if (j >= other.intervals.length
+                    || (i < intervals.length && compareLower(intervals[i], other.intervals[j]) <= 0)) {
+                next = intervals[i++];
+            } else {
+                next = other.intervals[j++];
+            }
+
+            if (current == null) {
+                current = next;
+            } else if (touches(current, next)) {
+                if (compareUpper(next, current) > 0) {
+                    current = new VersionInterval(current.getLower(), current.isLowerInclusive(),
+                            next.getUpper(), next.isUpperInclusive());
+                }
+            } else {
+                result.add(current);
+                current = next;
+            }
+        }
+        result.add(current);
+
+        return new VersionIntervalSet(result.toArray(new VersionInterval[result.size()]));
+    }
+
+    VersionIntervalSet intersect(VersionIntervalSet other) {
+        if (this.isEmpty() || other.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<VersionInterval> result = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < intervals.length && j < other.intervals.length) {
+            VersionInterval a = intervals[i];
+            VersionInterval b = other.intervals[j];
+
+            VersionInterval lower = compareLower(a, b) >= 0 ? a : b;
+            VersionInterval upper = compareUpper(a, b) <= 0 ? a : b;
+            if (isNonEmpty(lower.getLower(), lower.isLowerInclusive(), upper.getUpper(), upper.isUpperInclusive())) {
+                result.add(new VersionInterval(lower.getLower(), lower.isLowerInclusive(),
+                        upper.getUpper(), upper.isUpperInclusive()));
+            }
+
+            if (upper == a) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return new VersionIntervalSet(result.toArray(new VersionInterval[result.size()]));
+    }
+
+    VersionIntervalSet complement() {
+        if (isEmpty()) {
+            return ALL;
+        }
+
+        List<VersionInterval> result = new ArrayList<>(intervals.length + 1);
+        Version lower = null;
+        boolean lowerInclusive = false;
+        for (int i = 0; i <= intervals.length; i++) {
+            Version upper = i < intervals.length ? intervals[i].getLower() : null;
+            boolean upperInclusive = i < intervals.length && !intervals[i].isLowerInclusive();
+            if ((i == 0 && upper != null) || (i > 0 && lower != null)) {
+                result.add(new VersionInterval(lower, lowerInclusive, upper, upperInclusive));
+            }
+
+            if (i < intervals.length) {
+                lower = intervals[i].getUpper();
+                lowerInclusive = !intervals[i].isUpperInclusive();
+            }
+        }
+
+        return new VersionIntervalSet(result.toArray(new VersionInterval[result.size()]));
+    }
+
+    private static boolean isNonEmpty(Version lower, boolean lowerInclusive, Version upper, boolean upperInclusive) {
+        if (lower == null || upper == null) {
+            return true;
+        }
+        int diff = lower.compareTo(upper);
+        return diff < 0 || (diff == 0 && lowerInclusive && upperInclusive);
+    }
+
+    // Whether b, which doesn't start before a, overlaps or directly follows a
+    private static boolean touches(VersionInterval a, VersionInterval b) {
+        if (a.getUpper() == null || b.getLower() == null) {
+            return true;
+        }
+        int diff = b.getLower().compareTo(a.getUpper());
+        return diff < 0 || (diff == 0 && (a.isUpperInclusive() || b.isLowerInclusive()));
+    }
+
+    private static int compareLower(VersionInterval a, VersionInterval b) {
+        if (a.getLower() == null || b.getLower() == null) {
+            return (a.getLower() == null ? 0 : 1) - (b.getLower() == null ? 0 : 1);
+        }
+        int diff = a.getLower().compareTo(b.getLower());
+        if (diff != 0) {
+            return diff;
+        }
+        // An inclusive lower bound starts first
+        return (a.isLowerInclusive() ? 0 : 1) - (b.isLowerInclusive() ? 0 : 1);
+    }
+
+    private static int compareUpper(VersionInterval a, VersionInterval b) {
+        if (a.getUpper() == null || b.getUpper() == null) {
+            return (a.getUpper() == null ? 1 : 0) - (b.getUpper() == null ? 1 : 0);
+        }
+        int diff = a.getUpper().compareTo(b.getUpper());
+        if (diff != 0) {
+            return diff;
+        }
+        // An exclusive upper bound ends first
+        return (a.isUpperInclusive() ? 1 : 0) - (b.isUpperInclusive() ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof VersionIntervalSet && Arrays.equals(intervals, ((VersionIntervalSet) o).intervals));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(intervals);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(intervals);
+    }
+}
@@ -0,0 +1,346 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodes versions as keys for sorted key-value stores: byte strings whose unsigned lexicographic order is the order
+ * of {@link Version#compareTo(Version)}. Versions of equal precedence, which only differ in build metadata, are
+ * ordered by their build metadata, so every distinct version has a distinct key. Keys are self-delimiting, so they can
+ * be followed by other key parts.
+ * <p>
+ * A key is made of:
+ * <ul>
+ *     <li>the major, minor and patch numbers, each as a byte holding the number of significant bytes in the number,
+ *     followed by those bytes, big-endian;</li>
+ *     <li>{@code 0x02} for a release, or {@code 0x01} for a pre-release, followed by its identifiers and
+ *     {@code 0x00}. A numeric identifier is {@code 0x01}, its number of digits, encoded like a version number, and
+ *     its digits. Any other identifier is {@code 0x02}, its characters and {@code 0x00};</li>
+ *     <li>{@code 0x00} if there's no build metadata, or {@code 0x01}, the build metadata and {@code 0x00}.</li>
+ * </ul>
+ * Everything before the build metadata is the version's <em>precedence prefix</em>, which all keys of versions with
+ * the same precedence start with, and no other key does.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class VersionKeys {
+
+    private static final byte END = 0x00;
+    private static final byte PRERELEASE = 0x01;
+    private static final byte RELEASE = 0x02;
+    private static final byte NUMERIC_IDENTIFIER = 0x01;
+    private static final byte TEXT_IDENTIFIER = 0x02;
+    private static final byte NO_BUILD_METADATA = 0x00;
+    private static final byte BUILD_METADATA = 0x01;
+    // Above either build metadata marker, so a precedence prefix followed by this is above every key starting with it
+    private static final byte AFTER_PRECEDENCE = 0x02;
+
+    private VersionKeys() {
+    }
+
+    public static byte[] encode(Version version) {
+        byte[] key = new byte[precedenceLength(version) + buildMetadataLength(version)];
+        int end = writePrecedence(version, key, 0);
+        writeBuildMetadata(version, key, end);
+        return key;
+    }
+
+    /**
+     * Writes the key for {@code version} at the buffer's position, advancing it past the key.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have room for the key
+     */
+    public static void encode(Version version, ByteBuffer buffer) {
+        buffer.put(encode(version));
+    }
+
+    /**
+     * Decodes the key in {@code key}, which must be exactly one key long.
+     *
+     * @throws IllegalArgumentException if {@code key} isn't a version key
+     */
+    public static Version decode(byte[] key) {
+        ByteBuffer buffer = ByteBuffer.wrap(key);
+        Version version = decode(buffer);
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes after version key");
+        }
+        return version;
+    }
+
+    /**
+     * Decodes the key at the buffer's position, advancing it past the key.
+     *
+     * @throws IllegalArgumentException if the buffer doesn't start with a version key
+     */
+    public static Version decode(ByteBuffer buffer) {
+        try {
+            int major = readNumber(buffer);
+            int minor = readNumber(buffer);
+            int patch = readNumber(buffer);
+
+            String prerelease = null;
+            byte kind = buffer.get();
+            if (kind == PRERELEASE) {
+                prerelease = readPrerelease(buffer);
+            } else if (kind != RELEASE) {
+                throw new IllegalArgumentException("Corrupt version key: unrecognized kind " + kind);
+            }
+
+            String buildMetadata = null;
+            byte build = buffer.get();
+            if (build == BUILD_METADATA) {
+                buildMetadata = readText(buffer);
+            } else if (build != NO_BUILD_METADATA) {
+                throw new IllegalArgumentException("Corrupt version key: unrecognized build metadata marker " + build);
+            }
+
+            return new Version(major, minor, patch, prerelease, buildMetadata);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated version key", e);
+        }
+    }
+
+    /**
+     * Returns the ranges of keys that hold every version satisfying {@code spec}, in order, for seeking in a store.
+     * The ranges are as narrow as the spec's {@linkplain CompiledVersionSpec intervals}, but a range can still hold
+     * pre-releases or releases the spec excludes, like the pre-releases between {@code 1.2.3} and {@code 2.0.0} for
+     * {@code ^1.2.3}, so check the versions found with {@link NodeVersionSpec#isSatisfiedBy(Version)}.
+     */
+    public static List<KeyRange> ranges(NodeVersionSpec spec) {
+        CompiledVersionSpec compiled = spec.compile();
+        List<VersionInterval> intervals = compiled.intervals(false).union(compiled.intervals(true)).intervals();
+        List<KeyRange> ranges = new ArrayList<>(intervals.size());
+        for (VersionInterval interval : intervals) {
+            byte[] start = null;
+            byte[] end = null;
+            if (interval.getLower() != null) {
+                start = interval.isLowerInclusive()
+                        ? precedencePrefix(interval.getLower())
+                        : afterPrecedence(interval.getLower());
+            }
+            if (interval.getUpper() != null) {
+                end = interval.isUpperInclusive()
+                        ? afterPrecedence(interval.getUpper())
+                        : precedencePrefix(interval.getUpper());
+            }
+            ranges.add(new KeyRange(start, end));
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns the precedence prefix of {@code version}'s key. It's below the keys of every version of equal or higher
+     * precedence, and above the keys of lower versions.
+     */
+    public static byte[] precedencePrefix(Version version) {
+        byte[] prefix = new byte[precedenceLength(version)];
+        writePrecedence(version, prefix, 0);
+        return prefix;
+    }
+
+    /**
+     * Returns a key above the keys of every version of equal or lower precedence to {@code version}, and below the
+     * keys of higher versions.
+     */
+    private static byte[] afterPrecedence(Version version) {
+        byte[] key = new byte[precedenceLength(version) + 1];
+        key[writePrecedence(version, key, 0)] = AFTER_PRECEDENCE;
+        return key;
+    }
+
+    private static int precedenceLength(Version version) {
+        int length = numberLength(version.getMajor()) + numberLength(version.getMinor())
+                + numberLength(version.getPatch()) + 1;
+        String prerelease = version.getPrerelease();
+        if (prerelease != null) {
+            int start = 0;
+            for (int i = 0; i <= prerelease.length(); i++) {
+                if (i == prerelease.length() || prerelease.charAt(i) == '.') {
+                    length += isNumeric(prerelease, start, i)
+                            ? 1 + numberLength(i - start) + (i - start)
+                            : 1 + (i - start) + 1;
+                    start = i + 1;
+                }
+            }
+            length++;
+        }
+        return length;
+    }
+
+    private static int buildMetadataLength(Version version) {
+        String buildMetadata = version.getBuildMetadata();
+        return buildMetadata == null ? 1 : 1 + buildMetadata.length() + 1;
+    }
+
+    private static int writePrecedence(Version version, byte[] key, int offset) {
+        offset = writeNumber(version.getMajor(), key, offset);
+        offset = writeNumber(version.getMinor(), key, offset);
+        offset = writeNumber(version.getPatch(), key, offset);
+
+        String prerelease = version.getPrerelease();
+        if (prerelease == null) {
+            key[offset++] = RELEASE;
+            return offset;
+        }
+
+        key[offset++] = PRERELEASE;
+        int start = 0;
+        for (int i = 0; i <= prerelease.length(); i++) {
+            if (i == prerelease.length() || prerelease.charAt(i) == '.') {
+                boolean numeric = isNumeric(prerelease, start, i);
+                if (numeric) {
+                    // Numbers don't have leading zeros, so longer ones are larger, and equally long ones compare like text
+                    key[offset++] = NUMERIC_IDENTIFIER;
+                    offset = writeNumber(i - start, key, offset);
+                } else {
+                    key[offset++] = TEXT_IDENTIFIER;
+                }
+                for (int j = start; j < i; j++) {
+                    key[offset++] = (byte) prerelease.charAt(j);
+                }
+                if (!numeric) {
+                    key[offset++] = END;
+                }
+                start = i + 1;
+            }
+        }
+        key[offset++] = END;
+        return offset;
+    }
+
+    private static void writeBuildMetadata(Version version, byte[] key, int offset) {
+        String buildMetadata = version.getBuildMetadata();
+        if (buildMetadata == null) {
+            key[offset] = NO_BUILD_METADATA;
+            return;
+        }
+
+        key[offset++] = BUILD_METADATA;
+        for (int i = 0; i < buildMetadata.length(); i++) {
+            key[offset++] = (byte) buildMetadata.charAt(i);
+        }
+        key[offset] = END;
+    }
+
+    private static String readPrerelease(ByteBuffer buffer) {
+        StringBuilder prerelease = new StringBuilder();
+        for (byte kind = buffer.get(); kind != END; kind = buffer.get()) {
+            if (prerelease.length() > 0) {
+                prerelease.append('.');
+            }
+            if (kind == NUMERIC_IDENTIFIER) {
+                int length = readNumber(buffer);
+                for (int i = 0; i < length; i++) {
+                    prerelease.append((char) buffer.get());
+                }
+            } else if (kind == TEXT_IDENTIFIER) {
+                prerelease.append(readText(buffer));
+            } else {
+                throw new IllegalArgumentException("Corrupt version key: unrecognized identifier kind " + kind);
+            }
+        }
+        if (prerelease.length() == 0) {
+            throw new IllegalArgumentException("Corrupt version key: empty pre-release");
+        }
+        return prerelease.toString();
+    }
+
+    private static String readText(ByteBuffer buffer) {
+        StringBuilder text = new StringBuilder();
+        for (byte b = buffer.get(); b != END; b = buffer.get()) {
+            text.append((char) (b & 0xff));
+        }
+        return text.toString();
+    }
+
+    private static int numberLength(int number) {
+        return 1 + significantBytes(number);
+    }
+
+    private static int significantBytes(int number) {
+        return (Integer.SIZE - Integer.numberOfLeadingZeros(number) + 7) / 8;
+    }
+
+    private static int writeNumber(int number, byte[] key, int offset) {
+        int bytes = significantBytes(number);
+        key[offset++] = (byte) bytes;
+        for (int shift = 8 * (bytes - 1); shift >= 0; shift -= 8) {
+            key[offset++] = (byte) (number >>> shift);
+        }
+        return offset;
+    }
+
+    private static int readNumber(ByteBuffer buffer) {
+        int bytes = buffer.get();
+        if (bytes < 0 || bytes > 4) {
+            throw new IllegalArgumentException("Corrupt version key: " + bytes + "-byte number");
+        }
+        int number = 0;
+        for (int i = 0; i < bytes; i++) {
+            number = (number << 8) | (buffer.get() & 0xff);
+        }
+        if (number < 0 || significantBytes(number) != bytes) {
+            throw new IllegalArgumentException("Corrupt version key: number out of range");
+        }
+        return number;
+    }
+
+    private static boolean isNumeric(String identifiers, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Version.isDigit(identifiers.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A range of keys, from {@link #getStart()} (inclusive) to {@link #getEnd()} (exclusive). A {@code null} bound
+     * means the range is unbounded on that side.
+     */
+    public static final class KeyRange {
+        private final byte[] start;
+        private final byte[] end;
+
+        KeyRange(byte[] start, byte[] end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public byte[] getStart() {
+            return start != null ? start.clone() : null;
+        }
+
+        public byte[] getEnd() {
+            return end != null ? end.clone() : null;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + (start != null ? Arrays.toString(start) : "-inf") + ", "
+                    + (end != null ? Arrays.toString(end) : "+inf") + ")";
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe pool of canonical {@link Version} instances. {@link #intern(Version)} returns the same instance for
+ * every equal version, so large collections of versions share one copy of each, and {@code equals()} on pooled
+ * versions usually ends at the identity check.
+ * <p>
+ * Versions start out weakly referenced, so rare ones can be garbage collected once nothing else uses them. A version
+ * that's looked up often enough is promoted to a bounded, strongly referenced set, so it stays in the pool. Once that
+ * set is full, promoting a version first demotes one that's been looked up less: a few strongly held versions are
+ * sampled, their hit counts are halved so old hits count for less, and the first that's left with fewer hits than the
+ * version being promoted goes back to being weakly referenced. If none does, the promotion waits for a later hit.
+ * Demoted versions stay canonical for as long as they're in use.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class VersionPool {
+    private static final int DEFAULT_PROMOTION_THRESHOLD = 8;
+    private static final int DEFAULT_MAX_STRONG_SIZE = 16384;
+    // The number of strongly held versions to look at for one to demote
+    private static final int DEMOTION_SAMPLE_SIZE = 8;
+
+    private final int promotionThreshold;
+    private final int maxStrongSize;
+
+    // Maps each strongly held version to its key in the weak map, which keeps its hit count
+    private final ConcurrentMap<Version, WeakKey> strong = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, WeakKey> weak = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Version> queue = new ReferenceQueue<>();
+    private final ThreadLocal<LookupKey> lookupKeys = new ThreadLocal<LookupKey>() {
+        @Override
+        protected LookupKey initialValue() {
+            return new LookupKey();
+        }
+    };
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public VersionPool() {
+        this(DEFAULT_PROMOTION_THRESHOLD, DEFAULT_MAX_STRONG_SIZE);
+    }
+
+    /**
+     * @param promotionThreshold number of hits after which a version is strongly held
+     * @param maxStrongSize      maximum number of strongly held versions
+     */
+    public VersionPool(int promotionThreshold, int maxStrongSize) {
+        if (promotionThreshold < 0) {
+            throw new IllegalArgumentException("Negative promotion threshold not allowed");
+        }
+        if (maxStrongSize < 0) {
+            throw new IllegalArgumentException("Negative maximum strong size not allowed");
+        }
+
+        this.promotionThreshold = promotionThreshold;
+        this.maxStrongSize = maxStrongSize;
+    }
+
+    /**
+     * Returns the canonical instance equal to {@code version}, adding {@code version} to the pool if there isn't one.
+     */
+    public Version intern(Version version) {
+        Objects.requireNonNull(version);
+
+        WeakKey key = strong.get(version);
+        Version result = key != null ? key.get() : null;
+        if (result != null) {
+            key.hits++;
+            hitCount.incrementAndGet();
+            return result;
+        }
+
+        expungeStaleEntries();
+
+        // Look for an existing key first, since allocating a WeakKey registers another reference with the collector
+        LookupKey lookupKey = lookupKeys.get();
+        lookupKey.version = version;
+        try {
+            key = weak.get(lookupKey);
+        } finally {
+            lookupKey.version = null;
+        }
+
+        while (true) {
+            if (key == null) {
+                WeakKey newKey = new WeakKey(version, queue);
+                key = weak.putIfAbsent(newKey, newKey);
+                if (key == null) {
+                    missCount.incrementAndGet();
+                    return version;
+                }
+            }
+
+            result = key.get();
+            if (result != null) {
+                hitCount.incrementAndGet();
+                // Racy, so promotion can come a little late, which is fine for a heuristic
+                if (++key.hits >= promotionThreshold) {
+                    promote(result, key);
+                }
+                return result;
+            }
+
+            // The canonical instance was collected but hasn't been expunged yet
+            weak.remove(key, key);
+            key = null;
+        }
+    }
+
+    /**
+     * Returns the number of {@link #intern(Version)} calls that found an existing canonical instance.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of {@link #intern(Version)} calls that added a new canonical instance.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the approximate number of distinct versions in the pool.
+     */
+    public int size() {
+        expungeStaleEntries();
+        return weak.size();
+    }
+
+    /**
+     * Returns the number of versions that have been promoted to strongly held.
+     */
+    public int getStrongSize() {
+        return strong.size();
+    }
+
+    private void promote(Version version, WeakKey key) {
+        if (strong.size() >= maxStrongSize && !demote(key.hits)) {
+            return;
+        }
+        strong.putIfAbsent(version, key);
+    }
+
+    /**
+     * Demotes a sampled strongly held version with fewer than {@code hits} hits, once its hits have been halved, and
+     * returns whether there was one.
+     */
+    private boolean demote(int hits) {
+        Iterator<WeakKey> iterator = strong.values().iterator();
+        for (int i = 0; i < DEMOTION_SAMPLE_SIZE && iterator.hasNext(); i++) {
+            WeakKey key = iterator.next();
+            key.hits >>>= 1;
+            if (key.hits < hits) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void expungeStaleEntries() {
+        Object stale;
+        while ((stale = queue.poll()) != null) {
+            weak.remove(stale);
+        }
+    }
+
+    private static final class WeakKey extends WeakReference<Version> {
+        private final int hash;
+        int hits;
+
+        WeakKey(Version version, ReferenceQueue<Version> queue) {
+            super(version, queue);
+            this.hash = version.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            // Cleared keys are only equal to themselves, so stale entries can still be removed
+            Version version = get();
+            return version != null && version.equals(referent(obj));
+        }
+    }
+
+    /**
+     * A reusable key for finding a version in the weak map without allocating a {@link WeakKey}.
+     */
+    private static final class LookupKey {
+        Version version;
+
+        @Override
+        public int hashCode() {
+            return version.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this || version.equals(referent(obj));
+        }
+    }
+
+    private static Version referent(Object key) {
+        if (key instanceof WeakKey) {
+            return ((WeakKey) key).get();
+        } else if (key instanceof LookupKey) {
+            return ((LookupKey) key).version;
+        }
+        return null;
+    }
+}
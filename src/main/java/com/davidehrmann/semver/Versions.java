@@ -0,0 +1,322 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts arrays of versions by precedence, the order of {@link Version#compareTo(Version)}. Versions are radix sorted
+ * on their {@linkplain Version#sortKey() sort keys}, which orders them by major, minor and patch number and puts
+ * pre-releases first without looking at the versions again. Only runs of versions with equal keys, which are
+ * pre-releases of the same release or versions with very large numbers, are then sorted with {@code compareTo}.
+ *
+ * <p>Sorts are stable: versions of equal precedence, like ones that only differ in build metadata, stay in the order
+ * they were in.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Versions {
+
+    /**
+     * The number of versions counted and moved by each parallel task. Arrays shorter than two chunks are sorted on
+     * the calling thread.
+     */
+    static final int CHUNK_SIZE = 1 << 14;
+
+    // Below this, the counting passes of a radix sort cost more than they save
+    private static final int RADIX_THRESHOLD = 128;
+
+    private Versions() {
+    }
+
+    /**
+     * Sorts {@code versions} in place, in ascending order of precedence.
+     *
+     * @throws NullPointerException if {@code versions} contains {@code null}
+     */
+    public static void sort(Version[] versions) {
+        long[] keys = keys(versions);
+        sort(versions, keys, new Version[versions.length], new long[versions.length], 0, versions.length);
+    }
+
+    /**
+     * Like {@link #sort(Version[])}, but large arrays are split into chunks that are counted and moved in parallel on
+     * a shared {@link ForkJoinPool} in each radix pass. The result is the same.
+     *
+     * @throws NullPointerException if {@code versions} contains {@code null}
+     */
+    public static void parallelSort(Version[] versions) {
+        long[] keys = keys(versions);
+        if (versions.length < 2 * CHUNK_SIZE) {
+            sort(versions, keys, new Version[versions.length], new long[versions.length], 0, versions.length);
+        } else {
+            parallelSort(versions, keys);
+        }
+    }
+
+    /**
+     * Returns {@code versions} sorted in ascending order of precedence, keeping only the first of each run of versions
+     * with equal precedence. Versions that only differ in build metadata are collapsed, since
+     * {@link Version#compareTo(Version)} ignores it; the one that came first in {@code versions} is kept.
+     * {@code versions} isn't changed.
+     *
+     * @throws NullPointerException if {@code versions} contains {@code null}
+     */
+    public static Version[] sortedDistinct(Version[] versions) {
+        Version[] sorted = versions.clone();
+        sort(sorted);
+        return distinct(sorted);
+    }
+
+    /**
+     * Like {@link #sortedDistinct(Version[])}, but sorts with {@link #parallelSort(Version[])}.
+     */
+    public static Version[] parallelSortedDistinct(Version[] versions) {
+        Version[] sorted = versions.clone();
+        parallelSort(sorted);
+        return distinct(sorted);
+    }
+
+    private static long[] keys(Version[] versions) {
+        long[] keys = new long[versions.length];
+        for (int i = 0; i < versions.length; i++) {
+            if (versions[i] == null) {
+                throw new NullPointerException("versions contains null");
+            }
+            keys[i] = versions[i].sortKey();
+        }
+        return keys;
+    }
+
+    private static Version[] distinct(Version[] sorted) {
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || sorted[i].compareTo(sorted[size - 1]) != 0) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * Sorts {@code versions} between {@code from} and {@code to}, along with their {@code keys}, using the same range
+     * of the scratch arrays.
+     */
+    private static void sort(Version[] versions, long[] keys, Version[] scratch, long[] scratchKeys, int from, int to) {
+        if (to - from < RADIX_THRESHOLD) {
+            // A stable merge sort, which gives the same order as the radix sort below
+            Arrays.sort(versions, from, to);
+            for (int i = from; i < to; i++) {
+                keys[i] = versions[i].sortKey();
+            }
+            return;
+        }
+
+        // Only sort on the bytes that differ between keys. Usually that's a few of the low bytes.
+        long differentBits = 0;
+        for (int i = from + 1; i < to; i++) {
+            differentBits |= keys[i] ^ keys[from];
+        }
+
+        Version[] source = versions;
+        long[] sourceKeys = keys;
+        Version[] target = scratch;
+        long[] targetKeys = scratchKeys;
+        int[] counts = new int[257];
+        for (int shift = 0; shift < 64; shift += 8) {
+            if (((differentBits >>> shift) & 0xff) == 0) {
+                continue;
+            }
+
+            Arrays.fill(counts, 0);
+            for (int i = from; i < to; i++) {
+                counts[(int) ((sourceKeys[i] >>> shift) & 0xff) + 1]++;
+            }
+            counts[0] = from;
+            for (int b = 1; b < counts.length; b++) {
+                counts[b] += counts[b - 1];
+            }
+            for (int i = from; i < to; i++) {
+                int position = counts[(int) ((sourceKeys[i] >>> shift) & 0xff)]++;
+                target[position] = source[i];
+                targetKeys[position] = sourceKeys[i];
+            }
+
+            Version[] swap = source;
+            source = target;
+            target = swap;
+            long[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+        }
+
+        if (source != versions) {
+            System.arraycopy(source, from, versions, from, to - from);
+            System.arraycopy(sourceKeys, from, keys, from, to - from);
+        }
+
+        sortEqualKeys(versions, keys, from, to);
+    }
+
+    /**
+     * Sorts each run of equal keys that doesn't already imply equal precedence.
+     */
+    private static void sortEqualKeys(Version[] versions, long[] keys, int from, int to) {
+        int start = from;
+        for (int i = from + 1; i <= to; i++) {
+            if (i == to || keys[i] != keys[start]) {
+                if (i - start > 1 && !(Version.isReleaseSortKey(keys[start]) && Version.isExactSortKey(keys[start]))) {
+                    Arrays.sort(versions, start, i);
+                }
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * Radix sorts all of {@code versions} with their {@code keys}. Each pass counts the bytes of every chunk in
+     * parallel, then has every chunk scatter its versions to the positions those counts give it, which keeps the
+     * passes stable.
+     */
+    private static void parallelSort(final Version[] versions, final long[] keys) {
+        final int length = versions.length;
+        int chunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        long differentBits = 0;
+        for (int i = 1; i < length; i++) {
+            differentBits |= keys[i] ^ keys[0];
+        }
+
+        Version[] source = versions;
+        long[] sourceKeys = keys;
+        Version[] target = new Version[length];
+        long[] targetKeys = new long[length];
+        final int[][] counts = new int[chunks][256];
+        for (int shift = 0; shift < 64; shift += 8) {
+            if (((differentBits >>> shift) & 0xff) == 0) {
+                continue;
+            }
+
+            final int pass = shift;
+            final Version[] from = source;
+            final long[] fromKeys = sourceKeys;
+            final Version[] to = target;
+            final long[] toKeys = targetKeys;
+            SharedPool.POOL.invoke(new ChunkTask(0, chunks) {
+                @Override
+                void compute(int chunk) {
+                    int[] chunkCounts = counts[chunk];
+                    Arrays.fill(chunkCounts, 0);
+                    for (int i = chunk * CHUNK_SIZE, end = Math.min(length, i + CHUNK_SIZE); i < end; i++) {
+                        chunkCounts[(int) ((fromKeys[i] >>> pass) & 0xff)]++;
+                    }
+                }
+            });
+
+            // Turn the counts into the position each chunk writes its first version with each byte to
+            int position = 0;
+            for (int b = 0; b < 256; b++) {
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    int count = counts[chunk][b];
+                    counts[chunk][b] = position;
+                    position += count;
+                }
+            }
+
+            SharedPool.POOL.invoke(new ChunkTask(0, chunks) {
+                @Override
+                void compute(int chunk) {
+                    int[] positions = counts[chunk];
+                    for (int i = chunk * CHUNK_SIZE, end = Math.min(length, i + CHUNK_SIZE); i < end; i++) {
+                        int position = positions[(int) ((fromKeys[i] >>> pass) & 0xff)]++;
+                        to[position] = from[i];
+                        toKeys[position] = fromKeys[i];
+                    }
+                }
+            });
+
+            source = to;
+            sourceKeys = toKeys;
+            target = from;
+            targetKeys = fromKeys;
+        }
+
+        if (source != versions) {
+            System.arraycopy(source, 0, versions, 0, length);
+            System.arraycopy(sourceKeys, 0, keys, 0, length);
+        }
+
+        SharedPool.POOL.invoke(new ChunkTask(0, chunks) {
+            @Override
+            void compute(int chunk) {
+                // Each run of equal keys is sorted by the chunk it starts in
+                int start = chunk * CHUNK_SIZE;
+                while (start > 0 && start < length && keys[start] == keys[start - 1]) {
+                    start++;
+                }
+                int end = Math.min(length, (chunk + 1) * CHUNK_SIZE);
+                while (end < length && keys[end] == keys[end - 1]) {
+                    end++;
+                }
+                if (start < end) {
+                    sortEqualKeys(versions, keys, start, end);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs {@link #compute(int)} on each chunk between {@code from} and {@code to}, splitting the range in half until
+     * each task has one chunk.
+     */
+    private abstract static class ChunkTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        ChunkTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        abstract void compute(int chunk);
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                compute(from);
+            } else {
+                final ChunkTask parent = this;
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(from, mid) {
+                    @Override
+                    void compute(int chunk) {
+                        parent.compute(chunk);
+                    }
+                }, new ChunkTask(mid, to) {
+                    @Override
+                    void compute(int chunk) {
+                        parent.compute(chunk);
+                    }
+                });
+            }
+        }
+    }
+}
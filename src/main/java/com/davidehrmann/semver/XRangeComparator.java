@@ -24,13 +24,19 @@ import java.util.Objects;
 class XRangeComparator extends BaseVersionSpec {
 
     private final XRangeVersion xRangeVersion;
+    private final int hashCode;
 
     XRangeComparator(XRangeVersion xRangeVersion) {
         this.xRangeVersion = Objects.requireNonNull(xRangeVersion);
+        this.hashCode = Objects.hash(this.getClass(), xRangeVersion.hashCode());
     }
 
     @Override
     public boolean isSatisfiedBy(Version ver) {
+        return Instrumentation.matched(SemverListener.SpecKind.X_RANGE, matches(ver));
+    }
+
+    private boolean matches(Version ver) {
         boolean result = true;
         switch (xRangeVersion.prefixLength) {
             case 3:
@@ -44,14 +50,59 @@ class XRangeComparator extends BaseVersionSpec {
         return result;
     }
 
+    @Override
+    boolean isWildcard() {
+        return xRangeVersion.prefixLength == 0;
+    }
+
+    @Override
+    boolean isLoneXRange() {
+        return true;
+    }
+
+    @Override
+    public <R> R accept(NodeVersionSpecVisitor<R> visitor) {
+        return visitor.visitXRange(new Version(this.xRangeVersion.getMajor(), this.xRangeVersion.getMinor(),
+                this.xRangeVersion.getPatch()), this.xRangeVersion.prefixLength);
+    }
+
+    @Override
+    VersionIntervalSet intervals(boolean prerelease) {
+        int major = this.xRangeVersion.getMajor();
+        int minor = this.xRangeVersion.getMinor();
+        int patch = this.xRangeVersion.getPatch();
+
+        switch (xRangeVersion.prefixLength) {
+            case 0:
+                return VersionIntervalSet.ALL;
+            case 3:
+                if (prerelease) {
+                    return VersionIntervalSet.of(new Version(major, minor, patch, "0", null), true,
+                            new Version(major, minor, patch), false);
+                } else {
+                    return VersionIntervalSet.of(new Version(major, minor, patch), true,
+                            new Version(major, minor, patch), true);
+                }
+            default:
+                Version lower = new Version(major, minor, 0);
+                Version upper = VersionIntervalSet.nextRelease(major, minor, 0, xRangeVersion.prefixLength);
+                if (prerelease) {
+                    return VersionIntervalSet.of(VersionIntervalSet.firstPrerelease(lower), true,
+                            VersionIntervalSet.firstPrerelease(upper), false);
+                } else {
+                    return VersionIntervalSet.of(lower, true, upper, false);
+                }
+        }
+    }
+
     @Override
     public boolean isLatest() {
         return false;
     }
 
     @Override
-    public String toString() {
-        return xRangeVersion.toString();
+    void format(StringBuilder builder) {
+        xRangeVersion.appendTo(builder);
     }
 
     @Override
@@ -66,6 +117,10 @@ class XRangeComparator extends BaseVersionSpec {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.getClass(), xRangeVersion.hashCode());
+        return hashCode;
+    }
+
+    XRangeVersion getXRangeVersion() {
+        return xRangeVersion;
     }
 }
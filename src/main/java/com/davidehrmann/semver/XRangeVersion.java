@@ -45,18 +45,8 @@ class XRangeVersion extends Version {
     }
 
     @Override
-    public String toString() {
-        if (prefixLength == 0) {
-            return "x";
-        } else if (prefixLength == 1) {
-            return getMajor() + ".x.x";
-        } else if (prefixLength == 2) {
-            return getMajor() + "." + getMinor() + ".x";
-        } else if (prefixLength == 3) {
-            return getMajor() + "." + getMinor() + "." + getPatch();
-        } else {
-            throw new RuntimeException();
-        }
+    int precision() {
+        return prefixLength;
     }
 
     @Override
@@ -0,0 +1,463 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.lockfile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A pull tokenizer for JSON. It reads through a fixed size buffer and only keeps the stack of open objects and arrays,
+ * so documents of any size can be read in constant memory, as long as the caller doesn't hold on to what it reads.
+ * Values that aren't needed can be {@linkplain #skipValue() skipped} without building strings for them.
+ *
+ * <p>Malformed documents throw {@link IllegalArgumentException}, with the offset of the problem.</p>
+ */
+final class JsonReader implements Closeable {
+
+    enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT,
+    }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    // An object whose last name hasn't been followed by its value
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final Reader in;
+    private final int maxStringLength;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    // The number of chars read before the start of the buffer
+    private long bufferOffset;
+
+    private int[] stack = new int[16];
+    private int depth = 1;
+
+    private Token peeked;
+    // The value of a peeked BOOLEAN
+    private boolean peekedBoolean;
+    private final StringBuilder string = new StringBuilder();
+
+    /**
+     * @param maxStringLength the longest name or string value to accept, to bound memory on hostile input
+     */
+    JsonReader(Reader in, int maxStringLength) {
+        this.in = in;
+        this.maxStringLength = maxStringLength;
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+                break;
+            case NONEMPTY_ARRAY:
+                if (nextNonWhitespace() == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+                consume(',');
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    pos++;
+                    return peeked = Token.END_OBJECT;
+                } else if (stack[depth - 1] == NONEMPTY_OBJECT) {
+                    consume(',');
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                pos++;
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                consume(':');
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                if (nextNonWhitespace() == -1) {
+                    return peeked = Token.END_DOCUMENT;
+                }
+                throw syntaxError("Expected the end of the document");
+            default:
+                throw new IllegalStateException();
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                pos++;
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                pos++;
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                pos++;
+                return peeked = Token.STRING;
+            case 't':
+                consumeLiteral("true");
+                peekedBoolean = true;
+                return peeked = Token.BOOLEAN;
+            case 'f':
+                consumeLiteral("false");
+                peekedBoolean = false;
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                consumeLiteral("null");
+                return peeked = Token.NULL;
+            case -1:
+                throw syntaxError("Unexpected end of document");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString(true);
+    }
+
+    /**
+     * Returns the next string value, or {@code null} if the next value isn't a string, in which case it's skipped.
+     */
+    String nextStringOrSkip() throws IOException {
+        if (peek() != Token.STRING) {
+            skipValue();
+            return null;
+        }
+        peeked = null;
+        return readString(true);
+    }
+
+    /**
+     * Returns the next boolean value, or {@code false} if the next value isn't a boolean, in which case it's skipped.
+     */
+    boolean nextBooleanOrSkip() throws IOException {
+        if (peek() != Token.BOOLEAN) {
+            skipValue();
+            return false;
+        }
+        peeked = null;
+        return peekedBoolean;
+    }
+
+    /**
+     * Skips the next value, including everything nested in it.
+     */
+    void skipValue() throws IOException {
+        int nesting = 0;
+        do {
+            Token token = peek();
+            peeked = null;
+            switch (token) {
+                case BEGIN_OBJECT:
+                    push(EMPTY_OBJECT);
+                    nesting++;
+                    break;
+                case BEGIN_ARRAY:
+                    push(EMPTY_ARRAY);
+                    nesting++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    nesting--;
+                    break;
+                case NAME:
+                case STRING:
+                    readString(false);
+                    break;
+                case NUMBER:
+                    skipNumber();
+                    break;
+                case BOOLEAN:
+                case NULL:
+                    break;
+                default:
+                    throw syntaxError("Expected a value");
+            }
+            if (nesting < 0) {
+                throw syntaxError("Expected a value");
+            }
+        } while (nesting > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has been consumed, returning it if {@code build} is set.
+     */
+    private String readString(boolean build) throws IOException {
+        string.setLength(0);
+        int length = 0;
+        while (true) {
+            // Copy runs of plain chars in bulk
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"' || c == '\\' || c < 0x20) {
+                    break;
+                }
+                pos++;
+            }
+            length += pos - start;
+            if (length > maxStringLength) {
+                throw syntaxError("String is longer than " + maxStringLength + " chars");
+            } else if (build) {
+                string.append(buffer, start, pos - start);
+            }
+
+            if (pos == limit) {
+                if (!fill()) {
+                    throw syntaxError("Unterminated string");
+                }
+                continue;
+            }
+
+            char c = buffer[pos++];
+            if (c == '"') {
+                return build ? string.toString() : null;
+            } else if (c == '\\') {
+                char escaped = readEscape();
+                if (++length > maxStringLength) {
+                    throw syntaxError("String is longer than " + maxStringLength + " chars");
+                } else if (build) {
+                    string.append(escaped);
+                }
+            } else {
+                throw syntaxError("Unescaped control character in string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape");
+        }
+    }
+
+    /**
+     * Skips a number, checking that it matches {@code -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?}.
+     */
+    private void skipNumber() throws IOException {
+        if (peekChar() == '-') {
+            pos++;
+        }
+        if (peekChar() == '0') {
+            pos++;
+        } else {
+            skipDigits();
+        }
+        if (peekChar() == '.') {
+            pos++;
+            skipDigits();
+        }
+        int c = peekChar();
+        if (c == 'e' || c == 'E') {
+            pos++;
+            c = peekChar();
+            if (c == '+' || c == '-') {
+                pos++;
+            }
+            skipDigits();
+        }
+    }
+
+    /**
+     * Skips one or more digits.
+     */
+    private void skipDigits() throws IOException {
+        int c = peekChar();
+        if (c < '0' || c > '9') {
+            throw syntaxError("Invalid number");
+        }
+        do {
+            pos++;
+            c = peekChar();
+        } while (c >= '0' && c <= '9');
+    }
+
+    private void consumeLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    private void consume(char expected) throws IOException {
+        if (nextNonWhitespace() != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * Returns the next char that isn't whitespace without consuming it, or -1 at the end of the input.
+     */
+    private int nextNonWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the next char without consuming it, or -1 at the end of the input.
+     */
+    private int peekChar() throws IOException {
+        return pos < limit || fill() ? buffer[pos] : -1;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        bufferOffset += limit;
+        pos = 0;
+        limit = 0;
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private IllegalArgumentException syntaxError(String message) {
+        return new IllegalArgumentException(message + " at offset " + (bufferOffset + pos));
+    }
+}
@@ -0,0 +1,302 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.lockfile;
+
+import com.davidehrmann.semver.NodeVersionSpec;
+import com.davidehrmann.semver.Version;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that an npm lockfile ({@code package-lock.json} or {@code npm-shrinkwrap.json}) locks the direct
+ * dependencies of its manifest ({@code package.json}) at versions that satisfy the manifest's ranges.
+ *
+ * <p>Both documents are read with a streaming tokenizer. The manifest's {@code dependencies} and
+ * {@code devDependencies} are kept, since they're needed to check the lockfile, but the lockfile is checked one entry at
+ * a time as it's read, and only top-level entries for those dependencies are decoded; everything else is skipped. Memory
+ * use depends on the size of the manifest, not the lockfile. Lockfile versions 1 (the {@code dependencies} tree) and
+ * 2 and 3 (the {@code packages} map) are supported. In the {@code packages} map, a dependency that links to a workspace
+ * is checked against the version of the workspace's own entry, when that entry comes after the link.</p>
+ *
+ * <p>Verifiers are stateless, so one can be shared between threads.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class LockfileVerifier {
+
+    /**
+     * Receives mismatches as they're found.
+     */
+    public interface MismatchHandler {
+        void onMismatch(Mismatch mismatch);
+    }
+
+    private static final String[] SECTIONS = {"dependencies", "devDependencies"};
+    private static final String NODE_MODULES = "node_modules/";
+
+    private final int maxStringLength;
+
+    public LockfileVerifier() {
+        this(1 << 16);
+    }
+
+    /**
+     * @param maxStringLength the longest JSON string to accept, which bounds memory use on hostile input
+     */
+    public LockfileVerifier(int maxStringLength) {
+        if (maxStringLength < 1) {
+            throw new IllegalArgumentException("maxStringLength must be positive");
+        }
+        this.maxStringLength = maxStringLength;
+    }
+
+    /**
+     * Returns the mismatches between {@code manifest} and {@code lockfile}. The readers aren't closed.
+     *
+     * @throws IllegalArgumentException if either document isn't valid JSON
+     */
+    public List<Mismatch> verify(Reader manifest, Reader lockfile) throws IOException {
+        final List<Mismatch> mismatches = new ArrayList<>();
+        verify(manifest, lockfile, new MismatchHandler() {
+            @Override
+            public void onMismatch(Mismatch mismatch) {
+                mismatches.add(mismatch);
+            }
+        });
+        return mismatches;
+    }
+
+    /**
+     * Reports each mismatch between {@code manifest} and {@code lockfile} to {@code handler} as soon as it's found,
+     * and returns how many there were. Invalid ranges are reported first and missing dependencies last, both in the
+     * order they're listed in the manifest. The readers aren't
+     * closed.
+     *
+     * @throws IllegalArgumentException if either document isn't valid JSON
+     */
+    public int verify(Reader manifest, Reader lockfile, MismatchHandler handler) throws IOException {
+        Map<String, List<Dependency>> dependencies = readManifest(new JsonReader(manifest, maxStringLength));
+
+        int count = 0;
+        for (List<Dependency> list : dependencies.values()) {
+            for (Dependency dependency : list) {
+                if (dependency.spec == null) {
+                    handler.onMismatch(new Mismatch(Mismatch.Kind.INVALID_RANGE,
+                            dependency.section, dependency.name, dependency.range, null));
+                    count++;
+                }
+            }
+        }
+
+        count += checkLockfile(new JsonReader(lockfile, maxStringLength), dependencies, handler);
+
+        for (List<Dependency> list : dependencies.values()) {
+            for (Dependency dependency : list) {
+                if (dependency.spec != null && !dependency.locked) {
+                    handler.onMismatch(new Mismatch(Mismatch.Kind.MISSING,
+                            dependency.section, dependency.name, dependency.range, null));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Map<String, List<Dependency>> readManifest(JsonReader reader) throws IOException {
+        Map<String, List<Dependency>> dependencies = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String section = section(reader.nextName());
+            if (section == null || reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                String range = reader.nextStringOrSkip();
+                if (range == null) {
+                    continue;
+                }
+
+                List<Dependency> list = dependencies.get(name);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    dependencies.put(name, list);
+                }
+                list.add(new Dependency(section, name, range));
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+        reader.peek();
+        return dependencies;
+    }
+
+    private static int checkLockfile(JsonReader reader, Map<String, List<Dependency>> dependencies,
+                                     MismatchHandler handler) throws IOException {
+        int count = 0;
+        boolean checked = false;
+        // Workspace links that haven't reached their target's entry yet, keyed by the target's path
+        Map<String, List<Dependency>> links = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            // Version 2 lockfiles have both; they agree, so only check the first
+            boolean packages = name.equals("packages");
+            if (checked || !(packages || name.equals("dependencies")) || reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            checked = true;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                List<Dependency> list = packages ? links.remove(key) : null;
+                if (list == null) {
+                    list = dependencies.get(packages ? packageName(key) : key);
+                }
+                if (list == null || reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                Entry entry = readEntry(reader);
+                if (packages && entry.link && entry.resolved != null) {
+                    // The version is on the target's entry. If that's already been read, the link can't be checked,
+                    // but it's still locked.
+                    for (Dependency dependency : list) {
+                        dependency.locked = true;
+                    }
+                    links.put(entry.resolved, list);
+                } else if (entry.version != null) {
+                    count += check(list, entry.version, handler);
+                }
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+        reader.peek();
+        return count;
+    }
+
+    /**
+     * Reads a lockfile entry, keeping its {@code version}, {@code resolved} and {@code link} fields.
+     */
+    private static Entry readEntry(JsonReader reader) throws IOException {
+        Entry entry = new Entry();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("version")) {
+                entry.version = reader.nextStringOrSkip();
+            } else if (name.equals("resolved")) {
+                entry.resolved = reader.nextStringOrSkip();
+            } else if (name.equals("link")) {
+                entry.link = reader.nextBooleanOrSkip();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return entry;
+    }
+
+    private static int check(List<Dependency> list, String lockedVersion, MismatchHandler handler) {
+        Version version;
+        try {
+            version = Version.of(lockedVersion);
+        } catch (IllegalArgumentException e) {
+            version = null;
+        }
+
+        int count = 0;
+        for (Dependency dependency : list) {
+            if (dependency.spec == null) {
+                continue;
+            }
+            dependency.locked = true;
+            if (version == null || !dependency.spec.isSatisfiedBy(version)) {
+                handler.onMismatch(new Mismatch(version == null ? Mismatch.Kind.INVALID_VERSION : Mismatch.Kind.UNSATISFIED,
+                        dependency.section, dependency.name, dependency.range, lockedVersion));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the name of the package installed at {@code path}, a key of a lockfile's {@code packages} map, or
+     * {@code null} if it isn't a top-level package.
+     */
+    private static String packageName(String path) {
+        if (!path.startsWith(NODE_MODULES) || path.indexOf("/" + NODE_MODULES, NODE_MODULES.length()) >= 0) {
+            return null;
+        }
+        return path.substring(NODE_MODULES.length());
+    }
+
+    private static String section(String name) {
+        for (String section : SECTIONS) {
+            if (section.equals(name)) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    private static final class Entry {
+        String version;
+        String resolved;
+        boolean link;
+    }
+
+    private static final class Dependency {
+        final String section;
+        final String name;
+        final String range;
+        // Null if the range isn't a version range, including "latest", which is a dist-tag in a manifest
+        final NodeVersionSpec spec;
+        boolean locked;
+
+        Dependency(String section, String name, String range) {
+            this.section = section;
+            this.name = name;
+            this.range = range;
+            this.spec = parse(range);
+        }
+
+        private static NodeVersionSpec parse(String range) {
+            try {
+                NodeVersionSpec spec = NodeVersionSpec.of(range);
+                return spec.isLatest() ? null : spec;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.lockfile;
+
+import java.util.Objects;
+
+/**
+ * A dependency in a manifest that its lockfile doesn't satisfy.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Mismatch {
+
+    public enum Kind {
+        /**
+         * The locked version doesn't satisfy the manifest's range.
+         */
+        UNSATISFIED,
+        /**
+         * The lockfile doesn't lock the dependency.
+         */
+        MISSING,
+        /**
+         * The manifest's range isn't a version range, for example a git URL or a dist-tag.
+         */
+        INVALID_RANGE,
+        /**
+         * The locked version isn't a semantic version, for example a tarball URL.
+         */
+        INVALID_VERSION,
+    }
+
+    private final Kind kind;
+    private final String section;
+    private final String name;
+    private final String range;
+    private final String lockedVersion;
+
+    Mismatch(Kind kind, String section, String name, String range, String lockedVersion) {
+        this.kind = Objects.requireNonNull(kind);
+        this.section = Objects.requireNonNull(section);
+        this.name = Objects.requireNonNull(name);
+        this.range = Objects.requireNonNull(range);
+        this.lockedVersion = lockedVersion;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the manifest section the dependency is in, like {@code "dependencies"}.
+     */
+    public String getSection() {
+        return section;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRange() {
+        return range;
+    }
+
+    /**
+     * Returns the locked version, or {@code null} if it wasn't read, like for {@link Kind#MISSING}.
+     */
+    public String getLockedVersion() {
+        return lockedVersion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Mismatch that = (Mismatch) o;
+        return kind == that.kind
+                && section.equals(that.section)
+                && name.equals(that.name)
+                && range.equals(that.range)
+                && Objects.equals(lockedVersion, that.lockedVersion);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, section, name, range, lockedVersion);
+    }
+
+    @Override
+    public String toString() {
+        return kind + ": " + section + " " + name + "@" + range + (lockedVersion != null ? " locked at " + lockedVersion : "");
+    }
+}
@@ -0,0 +1,90 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.resolver;
+
+import com.davidehrmann.semver.NodeVersionSpec;
+import com.davidehrmann.semver.Version;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link PackageRegistry} backed by maps, for tests and small, static package sets. It isn't thread-safe; finish
+ * adding packages before resolving against it.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class InMemoryPackageRegistry implements PackageRegistry {
+    private final Map<String, Map<Version, Map<String, NodeVersionSpec>>> packages = new HashMap<>();
+
+    /**
+     * Adds {@code version} of {@code packageName} with no dependencies.
+     */
+    public InMemoryPackageRegistry add(String packageName, String version) {
+        return add(packageName, Version.of(version), Collections.<String, NodeVersionSpec>emptyMap());
+    }
+
+    /**
+     * Adds {@code version} of {@code packageName}, depending on the packages in {@code dependencies}, each followed by
+     * its version spec: {@code add("a", "1.0.0", "b", "^2.0.0", "c", "~1.2.0")}.
+     */
+    public InMemoryPackageRegistry add(String packageName, String version, String... dependencies) {
+        if (dependencies.length % 2 != 0) {
+            throw new IllegalArgumentException("Dependencies must be package name and version spec pairs");
+        }
+
+        Map<String, NodeVersionSpec> specs = new LinkedHashMap<>();
+        for (int i = 0; i < dependencies.length; i += 2) {
+            specs.put(dependencies[i], NodeVersionSpec.of(dependencies[i + 1]));
+        }
+        return add(packageName, Version.of(version), specs);
+    }
+
+    public InMemoryPackageRegistry add(String packageName, Version version, Map<String, NodeVersionSpec> dependencies) {
+        Map<Version, Map<String, NodeVersionSpec>> versions = packages.get(Objects.requireNonNull(packageName));
+        if (versions == null) {
+            versions = new HashMap<>();
+            packages.put(packageName, versions);
+        }
+        versions.put(Objects.requireNonNull(version), Collections.unmodifiableMap(new LinkedHashMap<>(dependencies)));
+        return this;
+    }
+
+    @Override
+    public Collection<Version> getVersions(String packageName) {
+        Map<Version, Map<String, NodeVersionSpec>> versions = packages.get(packageName);
+        return versions != null
+                ? Collections.unmodifiableCollection(versions.keySet())
+                : Collections.<Version>emptyList();
+    }
+
+    @Override
+    public Map<String, NodeVersionSpec> getDependencies(String packageName, Version version) {
+        Map<Version, Map<String, NodeVersionSpec>> versions = packages.get(packageName);
+        Map<String, NodeVersionSpec> dependencies = versions != null ? versions.get(version) : null;
+        if (dependencies == null) {
+            throw new IllegalArgumentException("Unknown package version " + packageName + "@" + version);
+        }
+        return dependencies;
+    }
+}
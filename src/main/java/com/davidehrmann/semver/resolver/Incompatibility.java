@@ -0,0 +1,119 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.resolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of terms that can't all be true at once. The solver learns new incompatibilities from conflicts, so each one
+ * rules out every selection it matches, not just the one that led to it.
+ */
+final class Incompatibility {
+
+    enum Kind {
+        /**
+         * The root package must be selected.
+         */
+        ROOT,
+        /**
+         * A package version depends on another package.
+         */
+        DEPENDENCY,
+        /**
+         * No versions of a package are in a range.
+         */
+        NO_VERSIONS,
+        /**
+         * Derived from two other incompatibilities.
+         */
+        CONFLICT,
+    }
+
+    final List<Term> terms;
+    final Kind kind;
+    final Incompatibility leftCause;
+    final Incompatibility rightCause;
+
+    Incompatibility(List<Term> terms, Kind kind) {
+        this(terms, kind, null, null);
+    }
+
+    Incompatibility(List<Term> terms, Kind kind, Incompatibility leftCause, Incompatibility rightCause) {
+        this.kind = kind;
+        this.leftCause = leftCause;
+        this.rightCause = rightCause;
+
+        // Each package appears at most once
+        Map<String, Term> byPackage = new LinkedHashMap<>();
+        for (Term term : terms) {
+            Term existing = byPackage.get(term.packageName);
+            byPackage.put(term.packageName, existing != null ? existing.intersect(term) : term);
+        }
+
+        // The root package is always selected, so saying so adds nothing to a derived incompatibility
+        if (kind == Kind.CONFLICT && byPackage.size() > 1) {
+            Term root = byPackage.get(Resolver.ROOT);
+            if (root != null && root.positive) {
+                byPackage.remove(Resolver.ROOT);
+            }
+        }
+
+        this.terms = Collections.unmodifiableList(new ArrayList<>(byPackage.values()));
+    }
+
+    /**
+     * Returns whether this incompatibility rules out every solution.
+     */
+    boolean isFailure() {
+        return terms.isEmpty() || (terms.size() == 1 && terms.get(0).positive && terms.get(0).packageName.equals(Resolver.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case ROOT:
+                return "root is required";
+            case DEPENDENCY:
+                return terms.get(0) + " depends on " + terms.get(1).inverse();
+            case NO_VERSIONS:
+                return "no versions of " + terms.get(0) + " are available";
+            default:
+                if (isFailure()) {
+                    return "version solving failed";
+                } else if (terms.size() == 1) {
+                    Term term = terms.get(0);
+                    return term.positive ? term + " is forbidden" : term.inverse() + " is required";
+                }
+
+                StringBuilder builder = new StringBuilder();
+                for (Term term : terms) {
+                    if (builder.length() > 0) {
+                        builder.append(" and ");
+                    }
+                    builder.append(term);
+                }
+                return builder.append(" are incompatible").toString();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.resolver;
+
+import com.davidehrmann.semver.NodeVersionSpec;
+import com.davidehrmann.semver.Version;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The source of packages for a {@link Resolver}: the versions of each package, and the dependencies of each version.
+ * The resolver only calls these from the thread running it, and asks for each package's versions once per resolution.
+ */
+public interface PackageRegistry {
+
+    /**
+     * Returns the published versions of {@code packageName}, in any order, or an empty collection if there's no such
+     * package.
+     */
+    Collection<Version> getVersions(String packageName);
+
+    /**
+     * Returns the dependencies of {@code version} of {@code packageName}, mapping each package it depends on to the
+     * versions it accepts.
+     */
+    Map<String, NodeVersionSpec> getDependencies(String packageName, Version version);
+}
@@ -0,0 +1,178 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.resolver;
+
+import com.davidehrmann.semver.Version;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The solver's current assignments, in order: versions it has decided on, and terms it has derived from them.
+ */
+final class PartialSolution {
+
+    static final class Assignment {
+        final Term term;
+        final int decisionLevel;
+        final int index;
+        // The version decided on, or null for a derivation
+        final Version version;
+        // The incompatibility this was derived from, or null for a decision
+        final Incompatibility cause;
+
+        Assignment(Term term, int decisionLevel, int index, Version version, Incompatibility cause) {
+            this.term = term;
+            this.decisionLevel = decisionLevel;
+            this.index = index;
+            this.version = version;
+            this.cause = cause;
+        }
+    }
+
+    private final List<Assignment> assignments = new ArrayList<>();
+    private final Map<String, Version> decisions = new LinkedHashMap<>();
+
+    // The intersection of the assignments for each package, positive if any of them are
+    private final Map<String, Term> positive = new HashMap<>();
+    private final Map<String, Term> negative = new HashMap<>();
+
+    // Packages with a positive term that haven't been decided, in the order they became positive
+    private final Set<String> undecided = new LinkedHashSet<>();
+
+    /**
+     * The number of decisions after the root package's. Derivations before the root decision are at level -1.
+     */
+    int decisionLevel() {
+        return decisions.size() - 1;
+    }
+
+    Map<String, Version> decisions() {
+        return decisions;
+    }
+
+    void decide(String packageName, Version version, Term term) {
+        decisions.put(packageName, version);
+        undecided.remove(packageName);
+        assign(new Assignment(term, decisionLevel(), assignments.size(), version, null));
+    }
+
+    void derive(Term term, Incompatibility cause) {
+        assign(new Assignment(term, decisionLevel(), assignments.size(), null, cause));
+    }
+
+    private void assign(Assignment assignment) {
+        assignments.add(assignment);
+        register(assignment.term);
+    }
+
+    private void register(Term term) {
+        String packageName = term.packageName;
+        Term oldPositive = positive.get(packageName);
+        if (oldPositive != null) {
+            positive.put(packageName, oldPositive.intersect(term));
+            return;
+        }
+
+        Term oldNegative = negative.get(packageName);
+        Term accumulated = oldNegative != null ? term.intersect(oldNegative) : term;
+        if (accumulated.positive) {
+            negative.remove(packageName);
+            positive.put(packageName, accumulated);
+            if (!decisions.containsKey(packageName)) {
+                undecided.add(packageName);
+            }
+        } else {
+            negative.put(packageName, accumulated);
+        }
+    }
+
+    /**
+     * Removes the assignments made after {@code decisionLevel}.
+     */
+    void backtrack(int decisionLevel) {
+        int size = assignments.size();
+        while (size > 0 && assignments.get(size - 1).decisionLevel > decisionLevel) {
+            size--;
+        }
+        List<Assignment> kept = new ArrayList<>(assignments.subList(0, size));
+
+        assignments.clear();
+        decisions.clear();
+        positive.clear();
+        negative.clear();
+        undecided.clear();
+        for (Assignment assignment : kept) {
+            if (assignment.version != null) {
+                decisions.put(assignment.term.packageName, assignment.version);
+            }
+        }
+        for (Assignment assignment : kept) {
+            assignments.add(assignment);
+            register(assignment.term);
+        }
+    }
+
+    /**
+     * Returns the undecided packages that must be selected, in the order they were found to be needed.
+     */
+    Set<String> undecided() {
+        return undecided;
+    }
+
+    /**
+     * Returns the intersection of the assignments for {@code packageName}, or {@code null} if there are none.
+     */
+    Term termFor(String packageName) {
+        Term term = positive.get(packageName);
+        return term != null ? term : negative.get(packageName);
+    }
+
+    Term.Relation relation(Term term) {
+        Term assigned = termFor(term.packageName);
+        return assigned != null ? assigned.relation(term) : Term.Relation.OVERLAPPING;
+    }
+
+    boolean satisfies(Term term) {
+        return relation(term) == Term.Relation.SUBSET;
+    }
+
+    /**
+     * Returns the earliest assignment that, with the ones before it, satisfies {@code term}.
+     */
+    Assignment satisfier(Term term) {
+        Term assigned = null;
+        for (Assignment assignment : assignments) {
+            if (!assignment.term.packageName.equals(term.packageName)) {
+                continue;
+            }
+            assigned = assigned != null ? assigned.intersect(assignment.term) : assignment.term;
+            if (assigned.satisfies(term)) {
+                return assignment;
+            }
+        }
+        throw new IllegalStateException(term + " isn't satisfied");
+    }
+}
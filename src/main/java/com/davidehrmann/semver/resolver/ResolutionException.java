@@ -0,0 +1,54 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.resolver;
+
+/**
+ * Thrown when a {@link Resolver} can't produce a solution. For {@link Reason#UNSATISFIABLE}, the message explains
+ * which dependencies conflict.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ResolutionException extends RuntimeException {
+
+    public enum Reason {
+        /**
+         * No set of versions satisfies the dependencies.
+         */
+        UNSATISFIABLE,
+        /**
+         * The time budget ran out.
+         */
+        TIMED_OUT,
+        /**
+         * The resolving thread was interrupted. Its interrupt status is left set.
+         */
+        CANCELLED,
+    }
+
+    private final Reason reason;
+
+    ResolutionException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,440 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.resolver;
+
+import com.davidehrmann.semver.NodeVersionSpec;
+import com.davidehrmann.semver.Version;
+import com.davidehrmann.semver.VersionIndex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks one version of each package needed to satisfy a set of dependencies, using conflict-driven clause learning
+ * in the style of PubGrub.
+ *
+ * <p>The solver alternates between deriving what must be true from what it knows (unit propagation) and picking the
+ * highest allowed version of a package it needs. When its choices conflict, it works out the root cause of the
+ * conflict as a new incompatibility, backtracks to before the earliest choice involved, and never makes that
+ * combination of choices again. If the dependencies can't be satisfied, the exception explains why.</p>
+ *
+ * <p>Resolution can be bounded with a time budget, and is cancelled by interrupting the resolving thread. A resolver
+ * can be used by one thread at a time.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Resolver {
+
+    /**
+     * The name of the package standing in for the caller, which depends on the packages passed to
+     * {@link #resolve(Map)}. Package names can't be empty, so it can't clash with a real one.
+     */
+    static final String ROOT = "";
+
+    private static final Version ROOT_VERSION = new Version(0, 0, 0);
+
+    // How many of the needed packages to compare when choosing which one to decide on next
+    private static final int CANDIDATES = 8;
+
+    private final PackageRegistry registry;
+
+    // Per-resolution state
+    private final Map<String, List<Incompatibility>> incompatibilities = new HashMap<>();
+    private final Map<String, VersionIndex> versions = new HashMap<>();
+    private final Set<String> expanded = new HashSet<>();
+    private Map<String, NodeVersionSpec> rootDependencies;
+    private PartialSolution solution;
+    private boolean timed;
+    private long deadline;
+
+    public Resolver(PackageRegistry registry) {
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    /**
+     * Returns a version for each package needed to satisfy {@code dependencies}, by package name.
+     *
+     * @throws ResolutionException if the dependencies can't be satisfied, or the thread is interrupted
+     */
+    public Map<String, Version> resolve(Map<String, ? extends NodeVersionSpec> dependencies) {
+        return resolve(dependencies, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Like {@link #resolve(Map)}, but gives up with {@link ResolutionException.Reason#TIMED_OUT} after
+     * {@code timeout}.
+     */
+    public Map<String, Version> resolve(Map<String, ? extends NodeVersionSpec> dependencies, long timeout, TimeUnit unit) {
+        for (String packageName : dependencies.keySet()) {
+            checkPackageName(packageName);
+        }
+
+        long budget = unit.toNanos(timeout);
+        timed = budget != Long.MAX_VALUE;
+        deadline = System.nanoTime() + budget;
+
+        rootDependencies = new TreeMap<>(dependencies);
+        solution = new PartialSolution();
+        try {
+            addIncompatibility(new Incompatibility(
+                    Collections.singletonList(new Term(ROOT, Term.ANY, false)), Incompatibility.Kind.ROOT));
+
+            String next = ROOT;
+            while (next != null) {
+                propagate(next);
+                next = choosePackageVersion();
+            }
+
+            Map<String, Version> result = new TreeMap<>(solution.decisions());
+            result.remove(ROOT);
+            return result;
+        } finally {
+            incompatibilities.clear();
+            versions.clear();
+            expanded.clear();
+            rootDependencies = null;
+            solution = null;
+        }
+    }
+
+    private void propagate(String packageName) {
+        Set<String> changed = new LinkedHashSet<>();
+        changed.add(packageName);
+        while (!changed.isEmpty()) {
+            Iterator<String> it = changed.iterator();
+            String next = it.next();
+            it.remove();
+
+            // Newer incompatibilities are usually more specific, so check them first
+            List<Incompatibility> list = new ArrayList<>(incompatibilities.get(next));
+            for (int i = list.size() - 1; i >= 0; i--) {
+                checkBudget();
+                Incompatibility incompatibility = list.get(i);
+                Propagation result = propagate(incompatibility);
+                if (result.conflict) {
+                    Incompatibility rootCause = resolveConflict(incompatibility);
+                    changed.clear();
+                    changed.add(propagate(rootCause).derivedPackage);
+                    break;
+                } else if (result.derivedPackage != null) {
+                    changed.add(result.derivedPackage);
+                }
+            }
+        }
+    }
+
+    /**
+     * Derives what {@code incompatibility} implies, if anything.
+     */
+    private Propagation propagate(Incompatibility incompatibility) {
+        Term unsatisfied = null;
+        for (Term term : incompatibility.terms) {
+            Term.Relation relation = solution.relation(term);
+            if (relation == Term.Relation.DISJOINT) {
+                return Propagation.NOTHING;
+            } else if (relation == Term.Relation.OVERLAPPING) {
+                if (unsatisfied != null) {
+                    return Propagation.NOTHING;
+                }
+                unsatisfied = term;
+            }
+        }
+
+        if (unsatisfied == null) {
+            return Propagation.CONFLICT;
+        }
+
+        solution.derive(unsatisfied.inverse(), incompatibility);
+        return new Propagation(false, unsatisfied.packageName);
+    }
+
+    /**
+     * Finds the root cause of {@code incompatibility} being satisfied, and backtracks to where it stops being
+     * satisfied. Returns the root cause, which is then almost satisfied.
+     */
+    private Incompatibility resolveConflict(Incompatibility incompatibility) {
+        boolean isNew = false;
+        while (!incompatibility.isFailure()) {
+            checkBudget();
+
+            Term mostRecentTerm = null;
+            PartialSolution.Assignment mostRecentSatisfier = null;
+            Term difference = null;
+            // Never backtrack past the root decision
+            int previousSatisfierLevel = 0;
+
+            for (Term term : incompatibility.terms) {
+                PartialSolution.Assignment satisfier = solution.satisfier(term);
+                if (mostRecentSatisfier == null) {
+                    mostRecentTerm = term;
+                    mostRecentSatisfier = satisfier;
+                } else if (mostRecentSatisfier.index < satisfier.index) {
+                    previousSatisfierLevel = Math.max(previousSatisfierLevel, mostRecentSatisfier.decisionLevel);
+                    mostRecentTerm = term;
+                    mostRecentSatisfier = satisfier;
+                    difference = null;
+                } else {
+                    previousSatisfierLevel = Math.max(previousSatisfierLevel, satisfier.decisionLevel);
+                }
+
+                if (mostRecentTerm == term) {
+                    // The satisfier may allow more than the term does; if so, find what else was needed
+                    difference = mostRecentSatisfier.term.difference(mostRecentTerm);
+                    if (difference != null) {
+                        previousSatisfierLevel = Math.max(previousSatisfierLevel,
+                                solution.satisfier(difference.inverse()).decisionLevel);
+                    }
+                }
+            }
+
+            if (previousSatisfierLevel < mostRecentSatisfier.decisionLevel || mostRecentSatisfier.cause == null) {
+                solution.backtrack(previousSatisfierLevel);
+                if (isNew) {
+                    addIncompatibility(incompatibility);
+                }
+                return incompatibility;
+            }
+
+            // Combine the incompatibility with the one the satisfier was derived from, leaving out the satisfier
+            List<Term> terms = new ArrayList<>();
+            for (Term term : incompatibility.terms) {
+                if (term != mostRecentTerm) {
+                    terms.add(term);
+                }
+            }
+            for (Term term : mostRecentSatisfier.cause.terms) {
+                if (!term.packageName.equals(mostRecentSatisfier.term.packageName)) {
+                    terms.add(term);
+                }
+            }
+            if (difference != null) {
+                terms.add(difference.inverse());
+            }
+
+            incompatibility = new Incompatibility(terms, Incompatibility.Kind.CONFLICT,
+                    incompatibility, mostRecentSatisfier.cause);
+            isNew = true;
+        }
+
+        throw new ResolutionException(ResolutionException.Reason.UNSATISFIABLE, explain(incompatibility));
+    }
+
+    /**
+     * Decides on a version of one of the packages that must be selected. Returns the package, or {@code null} if every
+     * needed package has been decided, and the solution is complete.
+     */
+    private String choosePackageVersion() {
+        checkBudget();
+
+        String packageName = null;
+        Term term = null;
+        int count = Integer.MAX_VALUE;
+        int candidates = 0;
+        for (Iterator<String> it = solution.undecided().iterator(); it.hasNext() && candidates < CANDIDATES; candidates++) {
+            String candidate = it.next();
+            Term candidateTerm = solution.termFor(candidate);
+            int candidateCount = candidate.equals(ROOT) ? 1 : versionsOf(candidate).count(candidateTerm.versions);
+            // Packages with fewer choices are more likely to conflict, so find out sooner
+            if (candidateCount < count) {
+                packageName = candidate;
+                term = candidateTerm;
+                count = candidateCount;
+            }
+        }
+
+        if (packageName == null) {
+            return null;
+        }
+
+        Version version = packageName.equals(ROOT) ? ROOT_VERSION : versionsOf(packageName).max(term.versions);
+        if (version == null) {
+            addIncompatibility(new Incompatibility(Collections.singletonList(term), Incompatibility.Kind.NO_VERSIONS));
+            return packageName;
+        }
+
+        Term versionTerm = exactTerm(packageName, version);
+        boolean conflict = false;
+        for (Incompatibility incompatibility : dependencyIncompatibilities(packageName, version, versionTerm)) {
+            // Skip the decision if a dependency is already ruled out; propagation will find out why
+            boolean satisfied = true;
+            for (Term dependencyTerm : incompatibility.terms) {
+                if (!dependencyTerm.packageName.equals(packageName) && !solution.satisfies(dependencyTerm)) {
+                    satisfied = false;
+                    break;
+                }
+            }
+            conflict |= satisfied;
+        }
+
+        if (!conflict) {
+            solution.decide(packageName, version, versionTerm);
+        }
+        return packageName;
+    }
+
+    /**
+     * Adds and returns an incompatibility for each dependency of {@code version} of {@code packageName}, the first time
+     * it's asked for.
+     */
+    private List<Incompatibility> dependencyIncompatibilities(String packageName, Version version, Term versionTerm) {
+        if (!expanded.add(packageName + '@' + version)) {
+            return Collections.emptyList();
+        }
+
+        Map<String, ? extends NodeVersionSpec> dependencies = packageName.equals(ROOT)
+                ? rootDependencies
+                : registry.getDependencies(packageName, version);
+
+        List<Incompatibility> result = new ArrayList<>(dependencies.size());
+        for (Map.Entry<String, ? extends NodeVersionSpec> dependency : dependencies.entrySet()) {
+            checkPackageName(dependency.getKey());
+            Incompatibility incompatibility = new Incompatibility(
+                    Arrays.asList(versionTerm, Term.of(dependency.getKey(), dependency.getValue(), false)),
+                    Incompatibility.Kind.DEPENDENCY);
+            addIncompatibility(incompatibility);
+            result.add(incompatibility);
+        }
+        return result;
+    }
+
+    private static Term exactTerm(String packageName, Version version) {
+        if (packageName.equals(ROOT)) {
+            return new Term(ROOT, Term.ANY, true);
+        }
+        return Term.of(packageName, NodeVersionSpec.exactly(version), true);
+    }
+
+    private void addIncompatibility(Incompatibility incompatibility) {
+        for (Term term : incompatibility.terms) {
+            List<Incompatibility> list = incompatibilities.get(term.packageName);
+            if (list == null) {
+                list = new ArrayList<>();
+                incompatibilities.put(term.packageName, list);
+            }
+            list.add(incompatibility);
+        }
+    }
+
+    private VersionIndex versionsOf(String packageName) {
+        VersionIndex index = versions.get(packageName);
+        if (index == null) {
+            index = VersionIndex.of(registry.getVersions(packageName));
+            versions.put(packageName, index);
+        }
+        return index;
+    }
+
+    private void checkBudget() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ResolutionException(ResolutionException.Reason.CANCELLED, "Resolution was interrupted");
+        } else if (timed && System.nanoTime() - deadline > 0) {
+            throw new ResolutionException(ResolutionException.Reason.TIMED_OUT, "Resolution ran out of time");
+        }
+    }
+
+    private static void checkPackageName(String packageName) {
+        if (packageName == null || packageName.isEmpty()) {
+            throw new IllegalArgumentException("Package names can't be null or empty");
+        }
+    }
+
+    /**
+     * Explains how {@code failure} was derived, one line per derived incompatibility, causes first.
+     */
+    private static String explain(Incompatibility failure) {
+        final int maxLines = 100;
+
+        // Number the derived incompatibilities in the order their lines will appear, without recursing
+        Map<Incompatibility, Integer> numbers = new IdentityHashMap<>();
+        List<Incompatibility> order = new ArrayList<>();
+        Deque<Incompatibility> stack = new ArrayDeque<>();
+        Set<Incompatibility> visited = Collections.newSetFromMap(new IdentityHashMap<Incompatibility, Boolean>());
+        stack.push(failure);
+        while (!stack.isEmpty()) {
+            Incompatibility top = stack.peek();
+            if (top.kind != Incompatibility.Kind.CONFLICT || numbers.containsKey(top)) {
+                stack.pop();
+            } else if (visited.add(top)) {
+                stack.push(top.rightCause);
+                stack.push(top.leftCause);
+            } else {
+                stack.pop();
+                numbers.put(top, numbers.size() + 1);
+                order.add(top);
+            }
+        }
+
+        StringBuilder builder = new StringBuilder("Version solving failed:");
+        int first = Math.max(0, order.size() - maxLines);
+        if (first > 0) {
+            builder.append("\n  ... ").append(first).append(" earlier steps omitted");
+        }
+        for (int i = first; i < order.size(); i++) {
+            Incompatibility incompatibility = order.get(i);
+            builder.append("\n  (").append(numbers.get(incompatibility)).append(") Because ")
+                    .append(describe(incompatibility.leftCause, numbers))
+                    .append(" and ")
+                    .append(describe(incompatibility.rightCause, numbers))
+                    .append(", ")
+                    .append(incompatibility)
+                    .append('.');
+        }
+        if (order.isEmpty()) {
+            builder.append("\n  ").append(failure).append('.');
+        }
+        return builder.toString();
+    }
+
+    private static String describe(Incompatibility incompatibility, Map<Incompatibility, Integer> numbers) {
+        Integer number = numbers.get(incompatibility);
+        return number != null ? incompatibility + " (" + number + ")" : incompatibility.toString();
+    }
+
+    /**
+     * What propagating an incompatibility found: a conflict, a term derived for a package, or nothing.
+     */
+    private static final class Propagation {
+        static final Propagation NOTHING = new Propagation(false, null);
+        static final Propagation CONFLICT = new Propagation(true, null);
+
+        // The incompatibility is already satisfied
+        final boolean conflict;
+        // The package a term was derived for, or null if none was
+        final String derivedPackage;
+
+        Propagation(boolean conflict, String derivedPackage) {
+            this.conflict = conflict;
+            this.derivedPackage = derivedPackage;
+        }
+    }
+}
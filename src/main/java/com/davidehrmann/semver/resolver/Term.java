@@ -0,0 +1,145 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.resolver;
+
+import com.davidehrmann.semver.CompiledVersionSpec;
+import com.davidehrmann.semver.NodeVersionSpec;
+
+/**
+ * A statement about one package: either it's selected at a version in {@code versions} (a positive term), or it
+ * isn't selected at any version in {@code versions}, possibly because it isn't selected at all (a negative term).
+ */
+final class Term {
+
+    /**
+     * Every version. Terms only hold version sets {@linkplain CompiledVersionSpec#withoutSource() without a source
+     * spec}, so that the results of set operations on them don't hold on to their operands.
+     */
+    static final CompiledVersionSpec ANY = NodeVersionSpec.of("*").compile().withoutSource();
+
+    enum Relation {
+        /**
+         * Everything that satisfies one term satisfies the other.
+         */
+        SUBSET,
+        /**
+         * Nothing satisfies both terms.
+         */
+        DISJOINT,
+        OVERLAPPING,
+    }
+
+    final String packageName;
+    final CompiledVersionSpec versions;
+    final boolean positive;
+    // The spec the versions came from, if any, for explanations
+    private final String description;
+
+    Term(String packageName, CompiledVersionSpec versions, boolean positive) {
+        this(packageName, versions, positive, null);
+    }
+
+    Term(String packageName, CompiledVersionSpec versions, boolean positive, String description) {
+        this.packageName = packageName;
+        this.versions = versions;
+        this.positive = positive;
+        this.description = description;
+    }
+
+    /**
+     * Returns a term for the versions of {@code packageName} that satisfy {@code spec}.
+     */
+    static Term of(String packageName, NodeVersionSpec spec, boolean positive) {
+        return new Term(packageName, spec.compile().withoutSource(), positive, spec.toString());
+    }
+
+    static boolean isEmpty(CompiledVersionSpec versions) {
+        return !versions.intersects(ANY);
+    }
+
+    Term inverse() {
+        return new Term(packageName, versions, !positive, description);
+    }
+
+    /**
+     * Returns a term satisfied by exactly the selections that satisfy both this term and {@code other}, which must be
+     * for the same package.
+     */
+    Term intersect(Term other) {
+        if (positive && other.positive) {
+            return new Term(packageName, versions.intersect(other.versions), true);
+        } else if (positive) {
+            return new Term(packageName, versions.intersect(other.versions.complement()), true);
+        } else if (other.positive) {
+            return new Term(packageName, other.versions.intersect(versions.complement()), true);
+        } else {
+            return new Term(packageName, versions.union(other.versions), false);
+        }
+    }
+
+    /**
+     * Returns the part of this term that doesn't satisfy {@code other}, or {@code null} if there's none.
+     */
+    Term difference(Term other) {
+        Term difference = intersect(other.inverse());
+        return difference.positive && isEmpty(difference.versions) ? null : difference;
+    }
+
+    /**
+     * Returns whether every selection that satisfies this term satisfies {@code other}.
+     */
+    boolean satisfies(Term other) {
+        return relation(other) == Relation.SUBSET;
+    }
+
+    /**
+     * Returns how the selections that satisfy this term relate to the ones that satisfy {@code other}.
+     */
+    Relation relation(Term other) {
+        if (other.positive) {
+            if (positive) {
+                if (versions.isSubsetOf(other.versions)) {
+                    return Relation.SUBSET;
+                }
+                return versions.intersects(other.versions) ? Relation.OVERLAPPING : Relation.DISJOINT;
+            } else {
+                // Not selecting the package satisfies this term, but never other
+                return other.versions.isSubsetOf(versions) ? Relation.DISJOINT : Relation.OVERLAPPING;
+            }
+        } else {
+            if (positive) {
+                if (!versions.intersects(other.versions)) {
+                    return Relation.SUBSET;
+                }
+                return versions.isSubsetOf(other.versions) ? Relation.DISJOINT : Relation.OVERLAPPING;
+            } else {
+                return other.versions.isSubsetOf(versions) ? Relation.SUBSET : Relation.OVERLAPPING;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (packageName.equals(Resolver.ROOT)) {
+            return positive ? "root" : "not root";
+        }
+        return (positive ? "" : "not ") + packageName + " " + (description != null ? description : versions.toString());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parameterized SQL boolean expression, for a {@code WHERE} clause, with the values of its {@code ?} placeholders.
+ *
+ * @see SqlPredicateGenerator
+ */
+@SuppressWarnings("WeakerAccess")
+public final class SqlPredicate {
+    private final String sql;
+    private final List<Object> parameters;
+    private final boolean exact;
+
+    SqlPredicate(String sql, List<Object> parameters, boolean exact) {
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.exact = exact;
+    }
+
+    /**
+     * Returns the expression, with a {@code ?} placeholder for each parameter.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns the values of the placeholders, in order. Version numbers are {@link Integer}s, and pre-releases are
+     * {@link String}s.
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns whether the expression selects exactly the rows whose versions satisfy the spec. If it doesn't, it
+     * selects a few more: pre-releases of the release a pre-release bound is attached to, which SQL can't order
+     * portably. Check those rows with {@link com.davidehrmann.semver.NodeVersionSpec#isSatisfiedBy}.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Binds the parameters to {@code statement}, starting at parameter {@code index}, and returns the index after the
+     * last one.
+     */
+    public int bind(PreparedStatement statement, int index) throws SQLException {
+        for (Object parameter : parameters) {
+            statement.setObject(index++, parameter);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + parameters;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.sql;
+
+import com.davidehrmann.semver.CompiledVersionSpec;
+import com.davidehrmann.semver.NodeVersionSpec;
+import com.davidehrmann.semver.Version;
+import com.davidehrmann.semver.VersionInterval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Translates {@link NodeVersionSpec}s into SQL predicates over a table that stores versions in separate columns: the
+ * major, minor and patch numbers as integers, and the pre-release as a string that's {@code NULL} for releases. Build
+ * metadata doesn't affect matching, so it isn't needed. The predicate only compares the columns with {@code =},
+ * {@code <}, {@code >} and friends, so a composite index on the number columns can serve it.
+ * <p>
+ * The spec is {@linkplain NodeVersionSpec#compile() compiled} first, and the predicate selects the releases in its
+ * release intervals and the pre-releases in its pre-release intervals, so pre-releases are only admitted where the
+ * spec admits them. Pre-releases are compared for equality, so the pre-release column should compare strings
+ * case-sensitively. The one comparison SQL can't make portably is ordering two pre-releases of the same release, like
+ * {@code 1.2.3-beta.10} and {@code 1.2.3-beta.2}; when a spec needs it, the predicate also selects the other
+ * pre-releases of that release, and {@link SqlPredicate#isExact()} is {@code false}.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class SqlPredicateGenerator {
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(?:[.][A-Za-z_][A-Za-z0-9_]*)?");
+
+    // The lowest pre-release identifier, so the bound firstPrerelease(1.2.3) = 1.2.3-0 only needs numbers compared
+    private static final String LOWEST_PRERELEASE = "0";
+
+    private final String majorColumn;
+    private final String minorColumn;
+    private final String patchColumn;
+    private final String prereleaseColumn;
+
+    /**
+     * Uses the columns {@code major}, {@code minor}, {@code patch} and {@code prerelease}.
+     */
+    public SqlPredicateGenerator() {
+        this("major", "minor", "patch", "prerelease");
+    }
+
+    /**
+     * @throws IllegalArgumentException if a column name isn't a plain, optionally qualified, SQL identifier
+     */
+    public SqlPredicateGenerator(String majorColumn, String minorColumn, String patchColumn, String prereleaseColumn) {
+        this.majorColumn = checkColumn(majorColumn);
+        this.minorColumn = checkColumn(minorColumn);
+        this.patchColumn = checkColumn(patchColumn);
+        this.prereleaseColumn = checkColumn(prereleaseColumn);
+    }
+
+    public SqlPredicate generate(NodeVersionSpec spec) {
+        CompiledVersionSpec compiled = spec.compile();
+        List<VersionInterval> releases = new ArrayList<>();
+        for (VersionInterval interval : compiled.getReleaseIntervals()) {
+            if (containsReleases(interval)) {
+                releases.add(interval);
+            }
+        }
+        List<VersionInterval> prereleases = compiled.getPrereleaseIntervals();
+
+        if (releases.isEmpty() && prereleases.isEmpty()) {
+            return new SqlPredicate("1 = 0", new ArrayList<>(), true);
+        } else if (isUnbounded(releases) && isUnbounded(prereleases)) {
+            return new SqlPredicate("1 = 1", new ArrayList<>(), true);
+        }
+
+        Expression expression = new Expression();
+        boolean both = !releases.isEmpty() && !prereleases.isEmpty();
+        if (!releases.isEmpty()) {
+            expression.sql.append(both ? "(" : "").append(prereleaseColumn).append(" IS NULL");
+            appendIntervals(expression, releases, false);
+            expression.sql.append(both ? ")" : "");
+        }
+        if (both) {
+            expression.sql.append(" OR ");
+        }
+        if (!prereleases.isEmpty()) {
+            expression.sql.append(both ? "(" : "").append(prereleaseColumn).append(" IS NOT NULL");
+            appendIntervals(expression, prereleases, true);
+            expression.sql.append(both ? ")" : "");
+        }
+
+        return new SqlPredicate(expression.sql.toString(), expression.parameters, expression.exact);
+    }
+
+    /**
+     * Returns whether any release is in {@code interval}. Release intervals between two pre-releases of the same
+     * release, like the one for {@code =1.2.3-alpha}, don't have any, and would only add a contradiction to the
+     * predicate.
+     */
+    private static boolean containsReleases(VersionInterval interval) {
+        Version lower = interval.getLower();
+        Version upper = interval.getUpper();
+        return lower == null || upper == null || lower.getPrerelease() == null || upper.getPrerelease() == null
+                || lower.getMajor() != upper.getMajor()
+                || lower.getMinor() != upper.getMinor()
+                || lower.getPatch() != upper.getPatch();
+    }
+
+    private static boolean isUnbounded(List<VersionInterval> intervals) {
+        return intervals.size() == 1 && intervals.get(0).getLower() == null && intervals.get(0).getUpper() == null;
+    }
+
+    /**
+     * Appends {@code " AND (...)"} with a condition that's true for rows of the given kind in any of the intervals,
+     * or nothing if that's every row of the kind.
+     */
+    private void appendIntervals(Expression expression, List<VersionInterval> intervals, boolean prerelease) {
+        if (isUnbounded(intervals)) {
+            return;
+        }
+
+        expression.sql.append(" AND (");
+        for (int i = 0; i < intervals.size(); i++) {
+            if (i > 0) {
+                expression.sql.append(" OR ");
+            }
+            expression.sql.append(intervals.size() > 1 ? "(" : "");
+            appendInterval(expression, intervals.get(i), prerelease);
+            expression.sql.append(intervals.size() > 1 ? ")" : "");
+        }
+        expression.sql.append(")");
+    }
+
+    private void appendInterval(Expression expression, VersionInterval interval, boolean prerelease) {
+        Version lower = interval.getLower();
+        Version upper = interval.getUpper();
+
+        if (prerelease && lower != null && upper != null && interval.isLowerInclusive() && interval.isUpperInclusive()
+                && lower.compareTo(upper) == 0 && lower.getPrerelease() != null) {
+            // A single pre-release, so only strings need to be equal
+            appendNumbers(expression, "=", lower);
+            expression.sql.append(" AND ").append(prereleaseColumn).append(" = ?");
+            expression.parameters.add(lower.getPrerelease());
+            return;
+        }
+
+        if (lower != null) {
+            appendLower(expression, lower, interval.isLowerInclusive(), prerelease);
+        }
+        if (lower != null && upper != null) {
+            expression.sql.append(" AND ");
+        }
+        if (upper != null) {
+            appendUpper(expression, upper, interval.isUpperInclusive(), prerelease);
+        }
+    }
+
+    private void appendLower(Expression expression, Version bound, boolean inclusive, boolean prerelease) {
+        if (bound.getPrerelease() == null) {
+            // A pre-release is below its release, so it's only above a release bound if its numbers are
+            appendNumbers(expression, inclusive && !prerelease ? ">=" : ">", bound);
+        } else if (!prerelease) {
+            // A release is above the pre-releases of its numbers
+            appendNumbers(expression, ">=", bound);
+        } else if (bound.getPrerelease().equals(LOWEST_PRERELEASE)) {
+            if (inclusive) {
+                appendNumbers(expression, ">=", bound);
+            } else {
+                expression.sql.append("(");
+                appendNumbers(expression, ">", bound);
+                expression.sql.append(" OR (");
+                appendNumbers(expression, "=", bound);
+                expression.sql.append(" AND ").append(prereleaseColumn).append(" <> ?))");
+                expression.parameters.add(LOWEST_PRERELEASE);
+            }
+        } else {
+            appendNumbers(expression, ">=", bound);
+            expression.exact = false;
+        }
+    }
+
+    private void appendUpper(Expression expression, Version bound, boolean inclusive, boolean prerelease) {
+        if (bound.getPrerelease() == null) {
+            appendNumbers(expression, inclusive || prerelease ? "<=" : "<", bound);
+        } else if (!prerelease) {
+            appendNumbers(expression, "<", bound);
+        } else if (bound.getPrerelease().equals(LOWEST_PRERELEASE)) {
+            if (!inclusive) {
+                appendNumbers(expression, "<", bound);
+            } else {
+                expression.sql.append("(");
+                appendNumbers(expression, "<", bound);
+                expression.sql.append(" OR (");
+                appendNumbers(expression, "=", bound);
+                expression.sql.append(" AND ").append(prereleaseColumn).append(" = ?))");
+                expression.parameters.add(LOWEST_PRERELEASE);
+            }
+        } else {
+            appendNumbers(expression, "<=", bound);
+            expression.exact = false;
+        }
+    }
+
+    /**
+     * Appends a comparison of the major, minor and patch columns, as a tuple, with those of {@code version}.
+     * {@code operator} is {@code "="}, or a strict or non-strict inequality that only applies to the patch number.
+     */
+    private void appendNumbers(Expression expression, String operator, Version version) {
+        if (operator.equals("=")) {
+            expression.sql.append(majorColumn).append(" = ? AND ")
+                    .append(minorColumn).append(" = ? AND ")
+                    .append(patchColumn).append(" = ?");
+            expression.parameters.add(version.getMajor());
+            expression.parameters.add(version.getMinor());
+            expression.parameters.add(version.getPatch());
+            return;
+        }
+
+        String strict = operator.substring(0, 1);
+        expression.sql.append("(").append(majorColumn).append(' ').append(strict).append(" ? OR (")
+                .append(majorColumn).append(" = ? AND (")
+                .append(minorColumn).append(' ').append(strict).append(" ? OR (")
+                .append(minorColumn).append(" = ? AND ")
+                .append(patchColumn).append(' ').append(operator).append(" ?))))");
+        expression.parameters.add(version.getMajor());
+        expression.parameters.add(version.getMajor());
+        expression.parameters.add(version.getMinor());
+        expression.parameters.add(version.getMinor());
+        expression.parameters.add(version.getPatch());
+    }
+
+    private static String checkColumn(String column) {
+        if (!COLUMN_PATTERN.matcher(column).matches()) {
+            throw new IllegalArgumentException("Invalid column name '" + column + "'");
+        }
+        return column;
+    }
+
+    private static final class Expression {
+        final StringBuilder sql = new StringBuilder();
+        final List<Object> parameters = new ArrayList<>();
+        boolean exact = true;
+    }
+}
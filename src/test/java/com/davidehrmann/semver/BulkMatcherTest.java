@@ -0,0 +1,69 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+public class BulkMatcherTest {
+    @Test
+    public void testMatchesSequential() {
+        Random random = new Random(10);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int length : new int[]{0, 1, 63, 64, 65, 1000, 2 * BulkMatcher.CHUNK_SIZE + 17, 5 * BulkMatcher.CHUNK_SIZE}) {
+                Version[] versions = new Version[length];
+                for (int i = 0; i < length; i++) {
+                    versions[i] = RandomSpecs.randomVersion(random);
+                }
+
+                for (int i = 0; i < 20; i++) {
+                    NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+                    BitSet expected = new BitSet();
+                    for (int j = 0; j < length; j++) {
+                        expected.set(j, spec.isSatisfiedBy(versions[j]));
+                    }
+                    expected.set(length + 3);
+
+                    // Bits below the length are overwritten, and bits above it are left alone
+                    BitSet actual = new BitSet();
+                    actual.set(0, length);
+                    actual.set(length + 3);
+                    spec.matchAll(versions, actual);
+                    assertEquals(spec + " " + length, expected, actual);
+
+                    actual = new BitSet();
+                    actual.set(length + 3);
+                    spec.matchAll(versions, actual, executor);
+                    assertEquals(spec + " " + length, expected, actual);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledVersionSpecTest {
+    @Test
+    public void testMatchesSpec() {
+        Random random = new Random(1);
+        for (int i = 0; i < 3000; i++) {
+            NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+            CompiledVersionSpec compiled = spec.compile();
+            for (int j = 0; j < 200; j++) {
+                Version version = RandomSpecs.randomVersion(random);
+                assertEquals(spec + " vs " + version, spec.isSatisfiedBy(version), compiled.isSatisfiedBy(version));
+            }
+        }
+    }
+
+    @Test
+    public void testPrereleaseRules() {
+        CompiledVersionSpec spec = NodeVersionSpec.of("^1.2.3-beta.2").compile();
+        assertTrue(spec.isSatisfiedBy(Version.of("1.2.3-alpha")));
+        assertTrue(spec.isSatisfiedBy(Version.of("1.9.0")));
+        assertFalse(spec.isSatisfiedBy(Version.of("1.2.4-beta.4")));
+        assertEquals("[[1.2.3-beta.2, 2.0.0)]", spec.getReleaseIntervals().toString());
+        assertEquals("[[1.2.3-0, 1.2.3)]", spec.getPrereleaseIntervals().toString());
+    }
+
+    @Test
+    public void testBounds() {
+        StringBuilder specString = new StringBuilder("^1.0.0");
+        for (int i = 2; i <= 40; i++) {
+            specString.append(" || ^").append(i).append(".0.0");
+        }
+
+        CompiledVersionSpec spec = NodeVersionSpec.of(specString.toString()).compile();
+        assertEquals(1, spec.getReleaseIntervals().size());
+        assertEquals(Version.of("1.0.0"), spec.lowerBound());
+        assertEquals(Version.of("41.0.0"), spec.upperBound());
+        assertTrue(spec.isSatisfiedBy(Version.of("17.3.0")));
+        assertFalse(spec.isSatisfiedBy(Version.of("41.0.0")));
+        assertEquals(specString.toString(), spec.toString());
+
+        spec = NodeVersionSpec.of("<1.0.0 || >=2.0.0-rc.1").compile();
+        assertNull(spec.lowerBound());
+        assertNull(spec.upperBound());
+        assertEquals("[(-inf, 1.0.0), [2.0.0-rc.1, +inf)]", spec.getReleaseIntervals().toString());
+        assertEquals("[[2.0.0-rc.1, +inf)]", spec.getPrereleaseIntervals().toString());
+
+        assertNull(NodeVersionSpec.LATEST.compile().span());
+        assertTrue(NodeVersionSpec.LATEST.compile().isLatest());
+    }
+
+    @Test
+    public void testLargeNumbers() {
+        CompiledVersionSpec spec = NodeVersionSpec.of("~2147483647.2147483647.2147483647 || ^0.0.2147483647").compile();
+        assertTrue(spec.isSatisfiedBy(new Version(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE)));
+        assertTrue(spec.isSatisfiedBy(new Version(0, 0, Integer.MAX_VALUE)));
+        assertFalse(spec.isSatisfiedBy(new Version(0, 1, 0)));
+        assertFalse(spec.isSatisfiedBy(new Version(Integer.MAX_VALUE, Integer.MAX_VALUE, 0)));
+    }
+
+    @Test
+    public void testWithoutSource() {
+        CompiledVersionSpec compiled = NodeVersionSpec.of("^1.2.3 || ~3.1.0").compile();
+        CompiledVersionSpec withoutSource = compiled.withoutSource();
+        assertEquals("^1.2.3 || ~3.1.0", compiled.toString());
+        assertEquals("releases [[1.2.3, 2.0.0), [3.1.0, 3.2.0)], pre-releases []", withoutSource.toString());
+        assertEquals(compiled, withoutSource);
+        assertSame(withoutSource, withoutSource.withoutSource());
+        assertFalse(NodeVersionSpec.LATEST.compile().withoutSource().isLatest());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentVersionCatalogTest {
+
+    @Test
+    public void testAddAndRemove() {
+        ConcurrentVersionCatalog catalog = new ConcurrentVersionCatalog();
+        assertTrue(catalog.add("left-pad", Version.of("1.2.3")));
+        assertFalse(catalog.add("left-pad", Version.of("1.2.3")));
+        assertTrue(catalog.addAll("left-pad", Arrays.asList(Version.of("1.3.0-beta"), Version.of("2.0.0"))));
+        assertTrue(catalog.contains("left-pad"));
+        assertEquals(Collections.singleton("left-pad"), catalog.packageNames());
+
+        assertEquals(Version.of("1.2.3"), catalog.maxSatisfying("left-pad", NodeVersionSpec.of("^1.0.0")));
+        assertEquals(Version.of("1.3.0-beta"), catalog.maxSatisfying("left-pad", NodeVersionSpec.of("^1.3.0-alpha")));
+        assertEquals(Version.of("2.0.0"), catalog.maxSatisfying("left-pad", NodeVersionSpec.of("*")));
+        assertNull(catalog.maxSatisfying("left-pad", NodeVersionSpec.LATEST));
+        assertNull(catalog.maxSatisfying("right-pad", NodeVersionSpec.of("*")));
+
+        assertTrue(catalog.remove("left-pad", Version.of("2.0.0")));
+        assertFalse(catalog.remove("left-pad", Version.of("2.0.0")));
+        assertTrue(catalog.removePackage("left-pad"));
+        assertFalse(catalog.contains("left-pad"));
+        assertEquals(0, catalog.snapshot("left-pad").size());
+    }
+
+    @Test
+    public void testSnapshotIsolation() {
+        ConcurrentVersionCatalog catalog = new ConcurrentVersionCatalog(1);
+        catalog.add("pkg", Version.of("1.0.0"));
+        ConcurrentVersionCatalog.Snapshot snapshot = catalog.snapshot("pkg");
+
+        catalog.add("pkg", Version.of("1.1.0"));
+        catalog.remove("pkg", Version.of("1.0.0"));
+
+        assertEquals(Collections.singletonList(Version.of("1.0.0")), snapshot.versions());
+        assertEquals(Version.of("1.0.0"), snapshot.maxSatisfying(NodeVersionSpec.of("^1")));
+        assertEquals(Collections.singletonList(Version.of("1.1.0")), catalog.snapshot("pkg").versions());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(24);
+        ConcurrentVersionCatalog catalog = new ConcurrentVersionCatalog();
+        TreeSet<Version> expected = new TreeSet<>(VersionIndex.ORDER);
+        for (int i = 0; i < 3000; i++) {
+            Version version = RandomSpecs.randomVersionWithBuildMetadata(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(version), catalog.remove("pkg", version));
+            } else {
+                assertEquals(expected.add(version), catalog.add("pkg", version));
+            }
+
+            ConcurrentVersionCatalog.Snapshot snapshot = catalog.snapshot("pkg");
+            assertEquals(expected.size(), snapshot.size());
+            if (i % 20 == 0) {
+                List<Version> sorted = new ArrayList<>(expected);
+                assertEquals(sorted, snapshot.versions());
+                for (int j = 0; j < 10; j++) {
+                    NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+                    assertSamePrecedence(spec.maxSatisfying(sorted), snapshot.maxSatisfying(spec));
+                    assertSamePrecedence(spec.minSatisfying(sorted), snapshot.minSatisfying(spec));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        final ConcurrentVersionCatalog catalog = new ConcurrentVersionCatalog(4);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final String packageName = "pkg-" + (t % 3);
+            final int writer = t;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 500; i++) {
+                            catalog.add(packageName, new Version(writer, i, 0));
+                            // A snapshot never changes, and always sees this writer's own additions
+                            ConcurrentVersionCatalog.Snapshot snapshot = catalog.snapshot(packageName);
+                            int size = snapshot.size();
+                            assertEquals(new Version(writer, i, 0),
+                                    snapshot.maxSatisfying(NodeVersionSpec.of(">=" + writer + ".0.0 <" + writer + "." + (i + 1))));
+                            assertEquals(size, snapshot.versions().size());
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(3 * 500, catalog.snapshot("pkg-0").size());
+        assertEquals(3 * 500, catalog.snapshot("pkg-1").size());
+        assertEquals(2 * 500, catalog.snapshot("pkg-2").size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStripes() {
+        new ConcurrentVersionCatalog(0);
+    }
+
+    private static void assertSamePrecedence(Version expected, Version actual) {
+        // Versions only differing in build metadata satisfy the same specs, and either is the right answer
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual);
+        } else {
+            assertEquals(expected + " vs " + actual, 0, expected.compareTo(actual));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class FormattingTest {
+
+    @Test
+    public void testVersion() throws IOException {
+        for (Version version : new Version[]{
+                Version.of("0.0.0"), Version.of("1.2.3-beta.1+sha.5114f85"), Version.of("10.200.3000+build"),
+                new Version(Integer.MAX_VALUE, 1000000000, 999999999, "rc.1", null),
+                Version.parse(ByteBuffer.wrap("1.2.3-alpha.1+b".getBytes(StandardCharsets.US_ASCII))),
+        }) {
+            String expected = version.getMajor() + "." + version.getMinor() + "." + version.getPatch()
+                    + (version.getPrerelease() != null ? "-" + version.getPrerelease() : "")
+                    + (version.getBuildMetadata() != null ? "+" + version.getBuildMetadata() : "");
+            assertEquals(expected, version.toString());
+            assertEquals("> " + expected, version.appendTo(new StringBuilder("> ")).toString());
+
+            StringWriter writer = new StringWriter();
+            version.appendTo(writer);
+            assertEquals(expected, writer.toString());
+
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            version.appendTo(buffer);
+            ((Buffer) buffer).flip();
+            assertEquals(expected, StandardCharsets.US_ASCII.decode(buffer.duplicate()).toString());
+            assertEquals(version, Version.parse(buffer));
+        }
+    }
+
+    @Test
+    public void testSpecs() throws IOException {
+        assertEquals("^1.x.x || ~1.2.x || 1.2.3 - 2.3.4 || >=3.x.x <4.x.x || >=5.x.x <6.0.0",
+                NodeVersionSpec.of("^1 || ~1.2 || 1.2.3 - 2.3.4 || >=3 <4 || 5.x").toString());
+        assertEquals("latest", NodeVersionSpec.LATEST.toString());
+        assertSame(NodeVersionSpec.LATEST, NodeVersionSpec.of(NodeVersionSpec.LATEST.toString()));
+
+        Random random = new Random(25);
+        for (int i = 0; i < 1000; i++) {
+            NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+            String string = spec.toString();
+            assertEquals(LegacySpecFormatter.format(spec), string);
+            assertEquals(LegacySpecFormatter.format(spec.complement()), spec.complement().toString());
+            assertNotSame(string, spec.toString());
+            assertEquals(string, spec.appendTo(new StringBuilder()).toString());
+            assertSame(spec, spec.cacheString());
+            assertSame(spec.toString(), spec.toString());
+            assertEquals(string, spec.toString());
+            assertEquals(string, spec.compile().toString());
+
+            StringWriter writer = new StringWriter();
+            spec.appendTo(writer);
+            assertEquals(string, writer.toString());
+
+            ByteBuffer buffer = ByteBuffer.allocate(string.length());
+            spec.appendTo(buffer);
+            assertEquals(string, new String(buffer.array(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void testRandomVersions() {
+        Random random = new Random(26);
+        for (int i = 0; i < 10000; i++) {
+            Version version = RandomSpecs.randomVersion(random);
+            assertEquals(LegacySpecFormatter.format(version), version.toString());
+        }
+    }
+
+    @Test
+    public void testLongUnion() {
+        StringBuilder builder = new StringBuilder("=0.0.0");
+        for (int i = 1; i < 100000; i++) {
+            builder.append(" || =").append(i).append(".0.0");
+        }
+        String string = builder.toString();
+        assertEquals(string, NodeVersionSpec.of(string).toString());
+    }
+}
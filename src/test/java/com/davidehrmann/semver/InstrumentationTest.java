@@ -0,0 +1,147 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InstrumentationTest {
+
+    private final RecordingListener listener = new RecordingListener();
+
+    @After
+    public void tearDown() {
+        Instrumentation.setListener(null);
+        Instrumentation.setSlowParseThreshold(1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testParseEvents() {
+        Instrumentation.setListener(listener);
+        assertSame(listener, Instrumentation.getListener());
+
+        NodeVersionSpec.of("^1.2.3");
+        NodeVersionSpec.of(new byte[]{'~', '1'}, 0, 2);
+        assertEquals(2, listener.parsed.size());
+        assertEquals("^1.2.3", listener.parsed.get(0));
+        assertEquals("~1", listener.parsed.get(1));
+        assertTrue(listener.slow.isEmpty());
+
+        Instrumentation.setSlowParseThreshold(0, TimeUnit.NANOSECONDS);
+        NodeVersionSpec.of("1.x || 2.x");
+        assertEquals("1.x || 2.x", listener.slow.get(0));
+
+        Instrumentation.setListener(null);
+        assertNull(Instrumentation.getListener());
+        NodeVersionSpec.of("^1.2.3");
+        assertEquals(3, listener.parsed.size());
+    }
+
+    @Test
+    public void testParseFailureEvents() {
+        Instrumentation.setListener(listener);
+        assertParseFails("^1.2.3 ^", Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertParseFails("^1.2.3", 3, Integer.MAX_VALUE);
+        assertParseFails("1.2.3 - 2.3.4", Integer.MAX_VALUE, 2);
+
+        List<SemverListener.ParseFailure> expected = new ArrayList<>();
+        expected.add(SemverListener.ParseFailure.MALFORMED);
+        expected.add(SemverListener.ParseFailure.TOO_LONG);
+        expected.add(SemverListener.ParseFailure.TOO_MANY_NODES);
+        assertEquals(expected, listener.failures);
+        assertTrue(listener.parsed.isEmpty());
+    }
+
+    @Test
+    public void testMatchEvents() {
+        NodeVersionSpec spec = NodeVersionSpec.of("^1.2.3 || ~2.1.0 || 3.x || >=4.0.0 <5.0.0");
+        CompiledVersionSpec compiled = spec.compile();
+
+        Instrumentation.setListener(listener);
+        spec.isSatisfiedBy(Version.of("4.1.0"));
+        compiled.isSatisfiedBy(Version.of("4.1.0"));
+        NodeVersionSpec.of("1.x").isSatisfiedBy(Version.of("1.0.0"));
+
+        // Unions short-circuit, so every operand is checked before the last one matches. 3.x is promoted to
+        // >=3.0.0 <4.0.0 because it's part of a larger spec, but 1.x isn't
+        assertEquals(3, (int) listener.matches.get(SemverListener.SpecKind.UNION));
+        assertEquals(2, (int) listener.matches.get(SemverListener.SpecKind.INTERSECTION));
+        assertEquals(1, (int) listener.matches.get(SemverListener.SpecKind.CARET));
+        assertEquals(1, (int) listener.matches.get(SemverListener.SpecKind.TILDE));
+        assertEquals(1, (int) listener.matches.get(SemverListener.SpecKind.X_RANGE));
+        assertEquals(4, (int) listener.matches.get(SemverListener.SpecKind.COMPARATOR));
+        assertEquals(1, (int) listener.matches.get(SemverListener.SpecKind.COMPILED));
+        assertEquals(8, listener.satisfied);
+    }
+
+    private static void assertParseFails(String versionSpec, int maxLength, int maxNodes) {
+        try {
+            NodeVersionSpec.of(versionSpec, maxLength, maxNodes);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static final class RecordingListener extends SemverListener {
+        final List<String> parsed = new ArrayList<>();
+        final List<String> slow = new ArrayList<>();
+        final List<ParseFailure> failures = new ArrayList<>();
+        final Map<SpecKind, Integer> matches = new EnumMap<>(SpecKind.class);
+        int satisfied;
+
+        @Override
+        public void onParse(String versionSpec, long nanos) {
+            assertTrue(nanos >= 0);
+            parsed.add(versionSpec);
+        }
+
+        @Override
+        public void onSlowParse(String versionSpec, long nanos) {
+            slow.add(versionSpec);
+        }
+
+        @Override
+        public void onParseFailure(String versionSpec, ParseFailure cause, IllegalArgumentException exception, long nanos) {
+            failures.add(cause);
+        }
+
+        @Override
+        public void onMatch(SpecKind kind, boolean satisfied) {
+            Integer count = matches.get(kind);
+            matches.put(kind, count == null ? 1 : count + 1);
+            if (satisfied) {
+                this.satisfied++;
+            }
+        }
+    }
+}
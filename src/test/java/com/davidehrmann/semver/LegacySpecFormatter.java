@@ -0,0 +1,98 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+/**
+ * The original recursive {@code toString()} of specs and versions, kept as a reference for checking that
+ * {@link NodeVersionSpec#toString()} and the {@code appendTo} methods still write the same text.
+ */
+final class LegacySpecFormatter {
+
+    private LegacySpecFormatter() {
+    }
+
+    static String format(NodeVersionSpec spec) {
+        if (spec instanceof BinaryOperation) {
+            BinaryOperation operation = (BinaryOperation) spec;
+            NodeVersionSpec left = operation.getLeftOperand();
+            NodeVersionSpec right = operation.getRightOperand();
+            if (operation.getOperator() == BinaryOperation.BinaryComparatorOperator.UNION) {
+                return format(left) + " || " + format(right);
+            }
+            // Intrinsic to handle 1.2.3 - 1.6.0
+            if (left instanceof Comparator
+                    && right instanceof Comparator
+                    && ((Comparator) left).getComparatorOperator() == Comparator.ComparatorOperator.GTE
+                    && ((Comparator) right).getComparatorOperator() == Comparator.ComparatorOperator.LTE) {
+                return format(((Comparator) left).getVersion()) + " - " + format(((Comparator) right).getVersion());
+            }
+            return format(left) + " " + format(right);
+        } else if (spec instanceof Comparator) {
+            Comparator comparator = (Comparator) spec;
+            switch (comparator.getComparatorOperator()) {
+                case LT:
+                    return "<" + format(comparator.getVersion());
+                case LTE:
+                    return "<=" + format(comparator.getVersion());
+                case GT:
+                    return ">" + format(comparator.getVersion());
+                case GTE:
+                    return ">=" + format(comparator.getVersion());
+                case EQ:
+                    return "=" + format(comparator.getVersion());
+                default:
+                    throw new IllegalArgumentException(comparator.getComparatorOperator().toString());
+            }
+        } else if (spec instanceof CaretComparator) {
+            return "^" + format(((CaretComparator) spec).getVersion());
+        } else if (spec instanceof TildeComparator) {
+            return "~" + format(((TildeComparator) spec).getVersion());
+        } else if (spec instanceof XRangeComparator) {
+            return format(((XRangeComparator) spec).getXRangeVersion());
+        } else if (spec instanceof CompiledVersionSpec && !spec.hasSource()) {
+            return "releases " + spec.intervals(false) + ", pre-releases " + spec.intervals(true);
+        }
+        throw new IllegalArgumentException("Unsupported spec " + spec.getClass());
+    }
+
+    static String format(Version version) {
+        if (version instanceof XRangeVersion) {
+            XRangeVersion xRangeVersion = (XRangeVersion) version;
+            if (xRangeVersion.prefixLength == 0) {
+                return "x";
+            } else if (xRangeVersion.prefixLength == 1) {
+                return version.getMajor() + ".x.x";
+            } else if (xRangeVersion.prefixLength == 2) {
+                return version.getMajor() + "." + version.getMinor() + ".x";
+            } else {
+                return version.getMajor() + "." + version.getMinor() + "." + version.getPatch();
+            }
+        }
+
+        String result = version.getMajor() + "." + version.getMinor() + "." + version.getPatch();
+        if (version.getPrerelease() != null) {
+            result = result + "-" + version.getPrerelease();
+        }
+        if (version.getBuildMetadata() != null) {
+            result = result + "+" + version.getBuildMetadata();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class NodeVersionSpecCacheTest {
+    @Test
+    public void testGet() {
+        NodeVersionSpecCache cache = new NodeVersionSpecCache(10);
+        NodeVersionSpec spec = cache.get("^1.2.3");
+
+        assertEquals(NodeVersionSpec.of("^1.2.3"), spec);
+        assertSame(spec, cache.get("^1.2.3"));
+        assertNotSame(spec, cache.get("^1.2.4"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        NodeVersionSpecCache cache = new NodeVersionSpecCache(16);
+        for (int i = 0; i < 100; i++) {
+            cache.get("^" + i + ".0.0");
+        }
+
+        assertEquals(16, cache.size());
+        assertEquals(84, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testNormalizeWhitespace() {
+        NodeVersionSpecCache cache = new NodeVersionSpecCache(10, true);
+        NodeVersionSpec spec = cache.get(">=1.2.3 <2.0.0 || 3.0.0 - 4.0.0");
+
+        assertSame(spec, cache.get(">=1.2.3\t<2.0.0  ||  3.0.0 -\n 4.0.0"));
+        assertEquals(1, cache.getHitCount());
+
+        assertEquals("a b", NodeVersionSpecCache.normalizeWhitespace("a b"));
+        assertEquals(" a b ", NodeVersionSpecCache.normalizeWhitespace("\t a \r\n b  "));
+    }
+
+    @Test
+    public void testInvalidSpecWithWhitespace() {
+        String versionSpec = ">=1.2.3\t\t\t@";
+        String expected = null;
+        try {
+            NodeVersionSpec.of(versionSpec);
+            fail();
+        } catch (IllegalArgumentException e) {
+            expected = e.getMessage();
+        }
+
+        try {
+            new NodeVersionSpecCache(10, true).get(versionSpec);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(expected, e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSpec() {
+        new NodeVersionSpecCache(10).get("~>1.2.3");
+    }
+}
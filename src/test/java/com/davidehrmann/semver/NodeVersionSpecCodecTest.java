@@ -0,0 +1,144 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class NodeVersionSpecCodecTest {
+    private static final String[] SPECS = {
+            "1.2.3", "=1.2.3", ">1.2.3", ">=1.2.3-alpha.1", "<1.2.3+build.5", "<=1.2.3-rc.1+sha.abc",
+            "^1.2.3", "^0.2.x", "^1.x", "^*", "~1.2.3-beta.2", "~1", "~0.2",
+            "x", "1.x", "1.2.x", "1.2.*", "1.2.3 - 2.3.4", "1.2 - 2", "",
+            ">=1.2.3 <2.0.0 || ^3.0.0-0 || ~4.5 5.x",
+            "v2147483647.0.0",
+    };
+
+    @Test
+    public void testDataOutputRoundTrip() throws IOException {
+        for (String string : SPECS) {
+            NodeVersionSpec spec = NodeVersionSpec.of(string);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            spec.writeTo(new DataOutputStream(bytes));
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            NodeVersionSpec decoded = NodeVersionSpec.readFrom(in);
+            assertEquals(string, spec, decoded);
+            assertEquals(string, spec.hashCode(), decoded.hashCode());
+            assertEquals(string, spec.toString(), decoded.toString());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testByteBufferRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (String string : SPECS) {
+            NodeVersionSpec.of(string).writeTo(buffer);
+        }
+
+        ((Buffer) buffer).flip();
+        for (String string : SPECS) {
+            assertEquals(string, NodeVersionSpec.of(string), NodeVersionSpec.readFrom(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testRandomSpecs() {
+        Random random = new Random(18);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (int i = 0; i < 1000; i++) {
+            NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+            ((Buffer) buffer).clear();
+            spec.writeTo(buffer);
+            ((Buffer) buffer).flip();
+            NodeVersionSpec decoded = NodeVersionSpec.readFrom(buffer);
+            assertEquals(spec, decoded);
+            assertEquals(spec.hashCode(), decoded.hashCode());
+        }
+    }
+
+    @Test
+    public void testLongUnion() {
+        StringBuilder builder = new StringBuilder("1.0.0");
+        for (int i = 1; i < 20000; i++) {
+            builder.append(" || ").append(i).append(".0.0");
+        }
+        NodeVersionSpec spec = NodeVersionSpec.of(builder.toString());
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        spec.writeTo(buffer);
+        ((Buffer) buffer).flip();
+        assertEquals(spec, NodeVersionSpec.readFrom(buffer));
+    }
+
+    @Test
+    public void testLatest() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        NodeVersionSpec.LATEST.writeTo(buffer);
+        ((Buffer) buffer).flip();
+        assertSame(NodeVersionSpec.LATEST, NodeVersionSpec.readFrom(buffer));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompiledSpec() {
+        NodeVersionSpec.of("^1.2.3").compile().writeTo(ByteBuffer.allocate(64));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedFormat() {
+        NodeVersionSpec.readFrom(ByteBuffer.wrap(new byte[]{2, 1, 0}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncated() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        NodeVersionSpec.of("^1.2.3-alpha").writeTo(buffer);
+        ((Buffer) buffer).flip();
+        ((Buffer) buffer).limit(buffer.limit() - 1);
+        NodeVersionSpec.readFrom(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingOperand() {
+        // Format 1, two nodes: a caret comparator, then a union with only one operand
+        NodeVersionSpec.readFrom(ByteBuffer.wrap(new byte[]{1, 2, 2, 0, 1, 2, 3, 6}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrerelease() {
+        // Format 1, one node: a caret comparator on 1.2.3 with the pre-release "a_b"
+        NodeVersionSpec.readFrom(ByteBuffer.wrap(new byte[]{1, 1, 2, 1, 1, 2, 3, 3, 'a', '_', 'b'}));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class NodeVersionSpecInternerTest {
+    @Test
+    public void testIntern() {
+        NodeVersionSpecInterner interner = new NodeVersionSpecInterner();
+        NodeVersionSpec spec = NodeVersionSpec.of(">=1.2.3 <2.0.0");
+        NodeVersionSpec interned = interner.intern(spec);
+
+        assertSame(spec, interned);
+        assertSame(interned, interner.intern(NodeVersionSpec.of(">=1.2.3 <2.0.0")));
+        assertSame(interned, interner.of(">=1.2.3 <2.0.0"));
+        assertSame(NodeVersionSpec.LATEST, interner.intern(NodeVersionSpec.LATEST));
+
+        // Interned specs keep their strings
+        assertSame(interned.toString(), interned.toString());
+    }
+
+    @Test
+    public void testSharesSubtrees() {
+        NodeVersionSpecInterner interner = new NodeVersionSpecInterner();
+        BinaryOperation a = (BinaryOperation) interner.of(">=1.2.3 <2.0.0 || ^3.0.0");
+        BinaryOperation b = (BinaryOperation) interner.of(">=1.2.3 <2.0.0 || ~4.0.0");
+
+        assertNotSame(a, b);
+        assertSame(a.getLeftOperand(), b.getLeftOperand());
+        assertEquals(NodeVersionSpec.of(">=1.2.3 <2.0.0 || ~4.0.0"), b);
+        assertEquals(NodeVersionSpec.of(">=1.2.3 <2.0.0 || ~4.0.0").hashCode(), b.hashCode());
+
+        // >=1.2.3, <2.0.0, their intersection, ^3.0.0, the first union, ~4.0.0 and the second union
+        assertEquals(7, interner.size());
+    }
+
+    @Test
+    public void testRandomSpecs() {
+        NodeVersionSpecInterner interner = new NodeVersionSpecInterner();
+        Random random = new Random(20);
+        for (int i = 0; i < 1000; i++) {
+            NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+            NodeVersionSpec interned = interner.intern(spec);
+            assertEquals(spec, interned);
+            assertEquals(spec.hashCode(), interned.hashCode());
+            assertEquals(spec.toString(), interned.toString());
+            // An equal spec that isn't the same instance
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            spec.writeTo(buffer);
+            ((Buffer) buffer).flip();
+            assertSame(interned, interner.intern(NodeVersionSpec.readFrom(buffer)));
+        }
+    }
+
+    @Test
+    public void testClear() {
+        NodeVersionSpecInterner interner = new NodeVersionSpecInterner();
+        NodeVersionSpec spec = interner.of("^1.2.3");
+        interner.clear();
+
+        assertEquals(0, interner.size());
+        assertNotSame(spec, interner.of("^1.2.3"));
+    }
+}
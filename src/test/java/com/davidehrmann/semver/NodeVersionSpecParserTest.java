@@ -0,0 +1,164 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NodeVersionSpecParserTest {
+
+    private static final String[] FRAGMENTS = {
+            "1", "0", "12", "1.2", "1.2.3", "v1.2.3", "1.2.3-alpha.1", "-0", "+build.5", ".x", ".*", "x", "X", "*",
+            ".", "-", " - ", " ", "  ", "\t", "||", " || ", "|", ">", ">=", "<", "<=", "=", "~", "^", "v", "a", "0abc",
+            "99999999999", "latest",
+    };
+
+    @Test
+    public void testMatchesLegacyParserOnRandomSpecs() {
+        Random random = new Random(8);
+        for (int i = 0; i < 20000; i++) {
+            assertSameResult(RandomSpecs.randomSpec(random));
+        }
+    }
+
+    @Test
+    public void testMatchesLegacyParserOnRandomFragments() {
+        Random random = new Random(80);
+        for (int i = 0; i < 30000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int fragments = 1 + random.nextInt(8);
+            for (int j = 0; j < fragments; j++) {
+                builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSameResult(builder.toString());
+        }
+    }
+
+    @Test
+    public void testLongChainsBindPairwise() {
+        NodeVersionSpec spec4 = NodeVersionSpec.of("1.0.0 || 2.0.0 || 3.0.0 || 4.0.0");
+        assertThat(spec4, equalTo((NodeVersionSpec) new BinaryOperation(
+                NodeVersionSpec.of("1.0.0 || 2.0.0"),
+                NodeVersionSpec.of("3.0.0 || 4.0.0"),
+                BinaryOperation.BinaryComparatorOperator.UNION)));
+
+        StringBuilder builder = new StringBuilder("1.0.0");
+        for (int i = 1; i < 5000; i++) {
+            builder.append(i % 7 == 0 ? " || " : " ").append(">=").append(i).append(".0.0");
+        }
+        String spec = builder.toString();
+        assertEquals(LegacyNodeVersionSpecParser.parse(spec), NodeVersionSpec.of(spec));
+    }
+
+    @Test
+    public void testMaxLength() {
+        assertEquals(NodeVersionSpec.of("^1.2.3"), NodeVersionSpec.of("^1.2.3", 6, 100));
+        try {
+            NodeVersionSpec.of("^1.2.3", 5, 100);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("longer than 5"));
+        }
+    }
+
+    @Test
+    public void testMaxNodes() {
+        // Two comparators and their intersection
+        assertEquals(NodeVersionSpec.of(">=1.0.0 <2.0.0"), NodeVersionSpec.of(">=1.0.0 <2.0.0", 100, 3));
+        try {
+            NodeVersionSpec.of(">=1.0.0 <2.0.0", 100, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("more than 2 nodes"));
+        }
+
+        // An x-range in an intersection takes three nodes
+        try {
+            NodeVersionSpec.of("1.x 1.2", 100, 6);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("more than 6 nodes"));
+        }
+        NodeVersionSpec.of("1.x 1.2", 100, 7);
+    }
+
+    @Test
+    public void testErrorPositions() {
+        try {
+            NodeVersionSpec.of("1.2.3-0abc");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("at char 7"));
+        }
+        try {
+            NodeVersionSpec.of("1.2.3 | 1.2.4");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("at char 6"));
+        }
+    }
+
+    @Test
+    public void testOverflow() {
+        String[] specs = {">=2147483648.0.0", "~2147483648", "^1.2147483648", "1.2.2147483648 - 2"};
+        for (String spec : specs) {
+            try {
+                NodeVersionSpec.of(spec);
+                fail(spec);
+            } catch (NumberFormatException e) {
+                assertThat(spec, e.getMessage(), containsString("For input string: \"2147483648\""));
+            }
+        }
+    }
+
+    private static void assertSameResult(String spec) {
+        NodeVersionSpec expected = null;
+        IllegalArgumentException expectedError = null;
+        try {
+            expected = LegacyNodeVersionSpecParser.parse(spec);
+        } catch (IllegalArgumentException e) {
+            expectedError = e;
+        }
+
+        NodeVersionSpec actual = null;
+        IllegalArgumentException actualError = null;
+        try {
+            actual = NodeVersionSpec.of(spec);
+        } catch (IllegalArgumentException e) {
+            actualError = e;
+        }
+
+        if (expectedError == null) {
+            assertEquals(spec, expected, actual);
+            assertEquals(spec, String.valueOf(expected), String.valueOf(actual));
+        } else {
+            assertTrue(spec + " should fail with " + expectedError.getMessage(), actualError != null);
+            assertThat(spec, actualError.getMessage(), equalTo(expectedError.getMessage()));
+        }
+    }
+}
@@ -21,6 +21,10 @@ package com.davidehrmann.semver;
 
 import org.junit.Test;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -43,6 +47,17 @@ public class NodeVersionSpecTest {
         assertEquals("=3.2.1", spec.toString());
     }
 
+    @Test
+    public void testExactly() {
+        NodeVersionSpec spec = NodeVersionSpec.exactly(Version.of("3.2.1-rc.1"));
+
+        assertTrue(spec.isSatisfiedBy(Version.of("3.2.1-rc.1")));
+        assertFalse(spec.isSatisfiedBy(Version.of("3.2.1")));
+        assertEquals("=3.2.1-rc.1", spec.toString());
+        assertEquals(NodeVersionSpec.of("=3.2.1-rc.1"), spec);
+        assertEquals(NodeVersionSpec.of("3.2.1-rc.1").compile(), spec.compile());
+    }
+
     @Test
         public void testGTERanges() {
         NodeVersionSpec spec = NodeVersionSpec.of(">=1.2.7");
@@ -449,6 +464,21 @@ public class NodeVersionSpecTest {
         assertEquals(NodeVersionSpec.of("1.1.2"), NodeVersionSpec.of("1.1.2"));
     }
 
+    @Test
+    public void testBytes() {
+        String specString = ">=1.2.3-beta.1 <2 || ~3.1 || 4.x";
+        byte[] bytes = ("[" + specString + "]").getBytes(StandardCharsets.US_ASCII);
+        NodeVersionSpec expected = NodeVersionSpec.of(specString);
+
+        assertEquals(expected, NodeVersionSpec.of(bytes, 1, bytes.length - 1));
+        assertEquals(expected, NodeVersionSpec.of(ByteBuffer.wrap(bytes, 1, bytes.length - 2)));
+
+        bytes = " LATEST ".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        ((Buffer) direct.put(bytes)).flip();
+        assertTrue(NodeVersionSpec.of(direct).isLatest());
+    }
+
     @Test
     public void testLatest() {
         assertTrue(NodeVersionSpec.LATEST.isLatest());
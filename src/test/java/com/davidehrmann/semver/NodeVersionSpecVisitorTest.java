@@ -0,0 +1,118 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class NodeVersionSpecVisitorTest {
+
+    /**
+     * Writes specs back out in node-semver syntax, with partial versions written as x-ranges.
+     */
+    private static final NodeVersionSpecVisitor<String> PRINTER = new NodeVersionSpecVisitor<String>() {
+        @Override
+        public String visitComparator(Operator operator, Version version) {
+            switch (operator) {
+                case LT:
+                    return "<" + version;
+                case LTE:
+                    return "<=" + version;
+                case GT:
+                    return ">" + version;
+                case GTE:
+                    return ">=" + version;
+                default:
+                    return "=" + version;
+            }
+        }
+
+        @Override
+        public String visitCaret(Version version, int precision) {
+            return "^" + partial(version, precision);
+        }
+
+        @Override
+        public String visitTilde(Version version, int precision) {
+            return "~" + partial(version, precision);
+        }
+
+        @Override
+        public String visitXRange(Version version, int precision) {
+            return partial(version, precision);
+        }
+
+        @Override
+        public String visitIntersection(NodeVersionSpec left, NodeVersionSpec right) {
+            return left.accept(this) + " " + right.accept(this);
+        }
+
+        @Override
+        public String visitUnion(NodeVersionSpec left, NodeVersionSpec right) {
+            return left.accept(this) + " || " + right.accept(this);
+        }
+
+        @Override
+        public String visitLatest() {
+            return "latest";
+        }
+
+        @Override
+        public String visitCompiled(CompiledVersionSpec spec) {
+            return spec.getReleaseIntervals() + " " + spec.getPrereleaseIntervals();
+        }
+
+        private String partial(Version version, int precision) {
+            switch (precision) {
+                case 0:
+                    return "x";
+                case 1:
+                    return version.getMajor() + ".x.x";
+                case 2:
+                    return version.getMajor() + "." + version.getMinor() + ".x";
+                default:
+                    return version.toString();
+            }
+        }
+    };
+
+    @Test
+    public void testVisit() {
+        assertEquals(">=1.2.3 <2.0.0 || ^1.x.x || ~1.2.x || >=1.2.0 <1.3.0",
+                NodeVersionSpec.of(">=1.2.3 <2.0.0 || ^1 || ~1.2 || 1.2.x").accept(PRINTER));
+        assertEquals(">=1.2.0 <=2.3.4", NodeVersionSpec.of("1.2 - 2.3.4").accept(PRINTER));
+        assertEquals("latest", NodeVersionSpec.LATEST.accept(PRINTER));
+        assertEquals("[[1.2.3, 2.0.0)] []", NodeVersionSpec.of("^1.2.3").compile().accept(PRINTER));
+    }
+
+    @Test
+    public void testRandomSpecs() {
+        Random random = new Random(21);
+        for (int i = 0; i < 1000; i++) {
+            NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+            // Printing the visited nodes gives a spec with the same meaning
+            assertEquals(spec.toString(), spec.compile(), NodeVersionSpec.of(spec.accept(PRINTER)).compile());
+        }
+    }
+}
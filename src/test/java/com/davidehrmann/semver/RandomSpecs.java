@@ -0,0 +1,146 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import java.util.Random;
+
+/**
+ * Generates random versions and version specs, mostly with small numbers that overlap often, for checking that
+ * different ways of evaluating specs, ordering versions and encoding them agree.
+ */
+final class RandomSpecs {
+    private static final String[] OPERATORS = {"", "", "=", ">", ">=", "<", "<=", "~", "^"};
+    private static final String[] PRERELEASES = {"0", "1", "alpha", "alpha.1", "beta.2", "rc.1"};
+    // Identifiers that are easy to order or encode wrongly: multi-byte and huge numbers, and mixes of digits and letters
+    private static final String[] ODD_PRERELEASES = {
+            "2", "9", "10", "255", "256", "99999999999999999999", "100000000000000000000",
+            "alpha.beta", "alpha-1", "Alpha", "beta.10", "rc.1.0", "0a", "a0"
+    };
+    private static final String[] BUILD_METADATA = {"build.1", "build.10", "sha.5"};
+
+    private RandomSpecs() {
+    }
+
+    /**
+     * Returns a version with numbers from 0 to 3, a third of them pre-releases, and no build metadata.
+     */
+    static Version randomVersion(Random random) {
+        String prerelease = randomPrerelease(random);
+        return new Version(random.nextInt(4), random.nextInt(4), random.nextInt(4), prerelease, null);
+    }
+
+    /**
+     * Like {@link #randomVersion(Random)}, but a third of the versions have build metadata, so distinct versions often
+     * have equal precedence.
+     */
+    static Version randomVersionWithBuildMetadata(Random random) {
+        return new Version(random.nextInt(4), random.nextInt(4), random.nextInt(4),
+                randomPrerelease(random), randomBuildMetadata(random));
+    }
+
+    /**
+     * Returns a version for checking orderings and encodings. Half the numbers are from 0 to 3, and the rest are of
+     * every byte length, or around the limits of {@link Version#sortKey()} and {@code int}. Pre-releases include
+     * unusual identifiers, and a third of the versions have build metadata.
+     */
+    static Version randomWideVersion(Random random) {
+        String prerelease = null;
+        if (random.nextInt(3) != 0) {
+            prerelease = random.nextBoolean()
+                    ? PRERELEASES[random.nextInt(PRERELEASES.length)]
+                    : ODD_PRERELEASES[random.nextInt(ODD_PRERELEASES.length)];
+        }
+        return new Version(randomNumber(random), randomNumber(random), randomNumber(random),
+                prerelease, randomBuildMetadata(random));
+    }
+
+    /**
+     * Returns a spec parsed from {@link #randomSpec(Random)}, skipping the strings that don't parse.
+     */
+    static NodeVersionSpec randomValidSpec(Random random) {
+        while (true) {
+            try {
+                return NodeVersionSpec.of(randomSpec(random));
+            } catch (IllegalArgumentException e) {
+                // Try another
+            }
+        }
+    }
+
+    static String randomSpec(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int unions = 1 + random.nextInt(3);
+        for (int i = 0; i < unions; i++) {
+            if (i > 0) {
+                builder.append(" || ");
+            }
+
+            if (random.nextInt(6) == 0) {
+                builder.append(randomPartialVersion(random)).append(" - ").append(randomPartialVersion(random));
+                continue;
+            }
+
+            int intersections = 1 + random.nextInt(3);
+            for (int j = 0; j < intersections; j++) {
+                if (j > 0) {
+                    builder.append(' ');
+                }
+                builder.append(OPERATORS[random.nextInt(OPERATORS.length)]).append(randomPartialVersion(random));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String randomPartialVersion(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return random.nextBoolean() ? "x" : "*";
+            case 1:
+                return String.valueOf(random.nextInt(4));
+            case 2:
+                return random.nextInt(4) + "." + random.nextInt(4) + (random.nextBoolean() ? ".x" : "");
+            default:
+                return randomVersion(random).toString();
+        }
+    }
+
+    private static String randomPrerelease(Random random) {
+        return random.nextInt(3) == 0 ? PRERELEASES[random.nextInt(PRERELEASES.length)] : null;
+    }
+
+    private static String randomBuildMetadata(Random random) {
+        return random.nextInt(3) == 0 ? BUILD_METADATA[random.nextInt(BUILD_METADATA.length)] : null;
+    }
+
+    private static int randomNumber(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+            case 1:
+                return random.nextInt(4);
+            case 2:
+                return random.nextInt(Integer.MAX_VALUE) >>> (8 * random.nextInt(4));
+            default:
+                // Sort keys hold up to 20 bits of the major number and 21 of the others exactly, and clamp the rest
+                return random.nextBoolean()
+                        ? (1 << (20 + random.nextInt(2))) - 2 + random.nextInt(4)
+                        : Integer.MAX_VALUE - random.nextInt(3);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SortedVersionsTest {
+    @Test
+    public void testMatchesLinearScan() {
+        Random random = new Random(9);
+        for (int i = 0; i < 2000; i++) {
+            NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+            List<Version> versions = new ArrayList<>();
+            for (int j = random.nextInt(60); j > 0; j--) {
+                versions.add(RandomSpecs.randomVersion(random));
+            }
+            Collections.sort(versions);
+
+            List<Version> expected = new ArrayList<>();
+            for (Version version : versions) {
+                if (spec.isSatisfiedBy(version)) {
+                    expected.add(version);
+                }
+            }
+
+            assertEquals(spec + " " + versions, expected, spec.allSatisfying(versions));
+            assertEquals(spec + " " + versions, expected.isEmpty() ? null : expected.get(0), spec.minSatisfying(versions));
+            assertEquals(spec + " " + versions, expected.isEmpty() ? null : expected.get(expected.size() - 1), spec.maxSatisfying(versions));
+        }
+    }
+
+    @Test
+    public void testSatisfying() {
+        Version[] versions = {
+                Version.of("0.9.0"), Version.of("1.0.0"), Version.of("1.1.0-beta.1"), Version.of("1.1.0"),
+                Version.of("1.5.2"), Version.of("2.0.0-rc.1"), Version.of("2.0.0"), Version.of("3.1.0"),
+        };
+
+        NodeVersionSpec spec = NodeVersionSpec.of("^1.0.0 || >=3.0.0");
+        assertEquals(Version.of("3.1.0"), spec.maxSatisfying(versions));
+        assertEquals(Version.of("1.0.0"), spec.minSatisfying(versions));
+        assertEquals(Arrays.asList(Version.of("1.0.0"), Version.of("1.1.0"), Version.of("1.5.2"), Version.of("3.1.0")),
+                spec.allSatisfying(versions));
+
+        spec = NodeVersionSpec.of(">=1.1.0-beta.0 <2.0.0").compile();
+        assertEquals(Version.of("1.5.2"), spec.maxSatisfying(new LinkedList<>(Arrays.asList(versions))));
+        assertEquals(Version.of("1.1.0"), spec.minSatisfying(versions));
+        assertEquals(Version.of("1.1.0-beta.1"), NodeVersionSpec.of(">=1.1.0-beta.0").minSatisfying(versions));
+
+        assertNull(NodeVersionSpec.of(">=4.0.0").maxSatisfying(versions));
+        assertNull(NodeVersionSpec.LATEST.maxSatisfying(versions));
+        assertEquals(Collections.<Version>emptyList(), NodeVersionSpec.of("^1.2.3").allSatisfying(new Version[0]));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpecAlgebraTest {
+    private static final String[] PRERELEASES = {
+            null, "0", "0.0", "1", "1.0", "alpha", "alpha.0", "alpha.1", "alpha.1.0", "beta.2", "beta.2.0", "rc.1", "rc.1.0",
+    };
+
+    /**
+     * Every version that could be the only one in the overlap of two random specs: each release and pre-release
+     * that's a bound of one, and the versions right after those.
+     */
+    private static List<Version> universe() {
+        List<Version> universe = new ArrayList<>();
+        for (int major = 0; major <= 4; major++) {
+            for (int minor = 0; minor <= 4; minor++) {
+                for (int patch = 0; patch <= 4; patch++) {
+                    for (String prerelease : PRERELEASES) {
+                        universe.add(new Version(major, minor, patch, prerelease, null));
+                    }
+                }
+            }
+        }
+        return universe;
+    }
+
+    @Test
+    public void testMatchesExhaustiveCheck() {
+        List<Version> universe = universe();
+        Random random = new Random(12);
+        for (int i = 0; i < 600; i++) {
+            NodeVersionSpec a = RandomSpecs.randomValidSpec(random);
+            NodeVersionSpec b = RandomSpecs.randomValidSpec(random);
+
+            boolean intersects = false;
+            boolean subset = true;
+            CompiledVersionSpec intersection = a.intersect(b);
+            CompiledVersionSpec union = a.union(b);
+            CompiledVersionSpec complement = a.complement();
+            // Results with a source print as specs that parse back to the same set, if their operands do
+            NodeVersionSpec printedIntersection = null;
+            NodeVersionSpec printedUnion = null;
+            if (printsExactly(a) && printsExactly(b)) {
+                printedIntersection = intersection.hasSource() ? NodeVersionSpec.of(intersection.toString()) : null;
+                printedUnion = union.hasSource() ? NodeVersionSpec.of(union.toString()) : null;
+            }
+            for (Version version : universe) {
+                boolean inA = a.isSatisfiedBy(version);
+                boolean inB = b.isSatisfiedBy(version);
+                intersects |= inA && inB;
+                subset &= !inA || inB;
+
+                String message = a + " / " + b + " / " + version;
+                assertEquals(message, inA && inB, intersection.isSatisfiedBy(version));
+                assertEquals(message, inA || inB, union.isSatisfiedBy(version));
+                assertEquals(message, !inA, complement.isSatisfiedBy(version));
+                if (printedIntersection != null) {
+                    assertEquals(message + " / " + intersection, inA && inB, printedIntersection.isSatisfiedBy(version));
+                }
+                if (printedUnion != null) {
+                    assertEquals(message + " / " + union, inA || inB, printedUnion.isSatisfiedBy(version));
+                }
+            }
+
+            assertEquals(a + " / " + b, intersects, a.intersects(b));
+            assertEquals(a + " / " + b, subset, a.isSubsetOf(b));
+        }
+    }
+
+    private static boolean printsExactly(NodeVersionSpec spec) {
+        return NodeVersionSpec.of(spec.toString()).compile().equals(spec.compile());
+    }
+
+    @Test
+    public void testPrereleaseRules() {
+        // Neither admits pre-releases of 1.2.3, so the only overlap would be a pre-release
+        assertFalse(NodeVersionSpec.of("<1.2.3").intersects(NodeVersionSpec.of(">1.2.2 <=1.2.3-rc.1 || 1.2.3-rc.2")));
+        assertTrue(NodeVersionSpec.of("^1.2.3-rc.1").intersects(NodeVersionSpec.of("1.2.3-rc.0")));
+        assertFalse(NodeVersionSpec.of(">1.2.3-rc.1 <1.2.3-rc.1.0").intersects(NodeVersionSpec.of("*")));
+
+        assertTrue(NodeVersionSpec.of("~1.2.5").isSubsetOf(NodeVersionSpec.of("^1.2.0")));
+        assertFalse(NodeVersionSpec.of("^1.2.0").isSubsetOf(NodeVersionSpec.of("~1.2.5")));
+        assertTrue(NodeVersionSpec.of(">=1.2.3 <1.2.4").isSubsetOf(NodeVersionSpec.of("1.2.3")));
+        assertFalse(NodeVersionSpec.of(">=1.2.3-0 <=1.2.3-rc.1").isSubsetOf(NodeVersionSpec.of("1.2.3")));
+
+        assertTrue(NodeVersionSpec.of("^1.0.0").complement().isSatisfiedBy(Version.of("1.0.0-rc.1")));
+        assertFalse(NodeVersionSpec.of("^1.0.0").complement().isSatisfiedBy(Version.of("1.5.0")));
+        assertEquals("^1.0.0 || ^2.0.0", NodeVersionSpec.of("^1.0.0").union(NodeVersionSpec.of("^2.0.0")).toString());
+        assertTrue(NodeVersionSpec.LATEST.complement().isSatisfiedBy(Version.of("1.0.0")));
+
+        // Intersecting a union can't be printed without grouping, so it's described by its intervals
+        CompiledVersionSpec intersection = NodeVersionSpec.of("^1.0.0 || ^2.0.0").intersect(NodeVersionSpec.of(">=1.5.0"));
+        assertFalse(intersection.isSatisfiedBy(Version.of("1.2.0")));
+        assertEquals("releases [[1.5.0, 3.0.0)], pre-releases []", intersection.toString());
+        assertEquals("^1.0.0 || ^2.0.0 || >=1.5.0",
+                NodeVersionSpec.of("^1.0.0 || ^2.0.0").union(NodeVersionSpec.of(">=1.5.0")).toString());
+    }
+
+    @Test
+    public void testWithoutSource() {
+        // Results of set operations with an operand that has no source don't have one either, and print as intervals
+        NodeVersionSpec caret = NodeVersionSpec.of("^1.0.0");
+        NodeVersionSpec complement = NodeVersionSpec.of(">=1.5.0").complement();
+        NodeVersionSpec withoutSource = NodeVersionSpec.of("^2.0.0").compile().withoutSource();
+
+        assertEquals("releases [[1.0.0, 1.5.0)], pre-releases []", caret.intersect(complement).toString());
+        assertEquals("releases [[1.0.0, 1.5.0)], pre-releases []", complement.intersect(caret).toString());
+        assertEquals("releases [[1.0.0, 3.0.0)], pre-releases []", caret.union(withoutSource).toString());
+        assertEquals("releases [[1.0.0, 3.0.0)], pre-releases []", withoutSource.union(caret).toString());
+
+        CompiledVersionSpec chained = caret.union(NodeVersionSpec.of("^3.0.0")).intersect(complement);
+        assertFalse(chained.isSatisfiedBy(Version.of("3.1.0")));
+        assertEquals("releases [[1.0.0, 1.5.0)], pre-releases []", chained.toString());
+        assertEquals(chained, NodeVersionSpec.of(">=1.0.0 <1.5.0").compile().withoutSource());
+    }
+}
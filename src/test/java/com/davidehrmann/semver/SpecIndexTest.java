@@ -0,0 +1,113 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SpecIndexTest {
+
+    @Test
+    public void testMatching() {
+        SpecIndex<String> index = new SpecIndex<>();
+        index.put("caret", NodeVersionSpec.of("^1.2.3"));
+        index.put("tilde", NodeVersionSpec.of("~1.2.3-beta.2"));
+        index.put("range", NodeVersionSpec.of("1.0.0 - 1.2.4 || >=3.0.0"));
+        index.put("latest", NodeVersionSpec.LATEST);
+
+        assertEquals(Arrays.asList("caret", "range", "tilde"), sorted(index.matching(Version.of("1.2.4"))));
+        assertEquals(Collections.singletonList("tilde"), sorted(index.matching(Version.of("1.2.3-rc.1"))));
+        // Pre-releases of other releases aren't admitted
+        assertEquals(Collections.emptyList(), index.matching(Version.of("1.2.5-rc.1")));
+        assertEquals(Collections.singletonList("range"), index.matching(Version.of("4.0.0")));
+        assertEquals(Collections.emptyList(), index.matching(Version.of("0.1.0")));
+    }
+
+    @Test
+    public void testPutAndRemove() {
+        SpecIndex<Integer> index = new SpecIndex<>();
+        NodeVersionSpec caret = NodeVersionSpec.of("^1.2.3");
+        assertNull(index.put(1, caret));
+        assertSame(caret, index.put(1, NodeVersionSpec.of("^2.0.0")));
+        assertEquals(1, index.size());
+        assertEquals(Collections.emptyList(), index.matching(Version.of("1.5.0")));
+        assertEquals(Collections.singletonList(1), index.matching(Version.of("2.5.0")));
+
+        assertEquals(NodeVersionSpec.of("^2.0.0"), index.remove(1));
+        assertNull(index.remove(1));
+        assertFalse(index.containsId(1));
+        assertEquals(0, index.size());
+        assertEquals(Collections.emptyList(), index.matching(Version.of("2.5.0")));
+    }
+
+    @Test
+    public void testRandomSpecs() {
+        Random random = new Random(23);
+        SpecIndex<Integer> index = new SpecIndex<>();
+        Map<Integer, NodeVersionSpec> specs = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int id = random.nextInt(1000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(specs.remove(id), index.remove(id));
+                continue;
+            }
+
+            NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+            assertEquals(specs.put(id, spec), index.put(id, spec));
+
+            if (i % 50 == 0) {
+                assertEquals(specs.size(), index.size());
+                for (int j = 0; j < 20; j++) {
+                    Version version = RandomSpecs.randomVersion(random);
+                    List<Integer> expected = new ArrayList<>();
+                    for (Map.Entry<Integer, NodeVersionSpec> entry : specs.entrySet()) {
+                        if (entry.getValue().isSatisfiedBy(version)) {
+                            expected.add(entry.getKey());
+                        }
+                    }
+                    assertEquals(version.toString(), sorted(expected), sorted(index.matching(version)));
+                }
+            }
+        }
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.matching(Version.of("1.0.0")).isEmpty());
+    }
+
+    private static <T extends Comparable<T>> List<T> sorted(List<T> list) {
+        List<T> sorted = new ArrayList<>(list);
+        Collections.sort(sorted);
+        return sorted;
+    }
+}
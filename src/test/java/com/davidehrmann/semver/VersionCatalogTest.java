@@ -0,0 +1,194 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VersionCatalogTest {
+    @Test
+    public void testMatchesVersionIndex() {
+        Random random = new Random(17);
+        String[] names = {"left-pad", "@scope/util", "caf\u00e9", "a", "zzz", "empty"};
+        List<VersionIndex> indexes = new ArrayList<>();
+        VersionCatalog.Builder builder = VersionCatalog.builder();
+        for (String name : names) {
+            List<Version> versions = new ArrayList<>();
+            for (int j = name.equals("empty") ? 0 : random.nextInt(200); j > 0; j--) {
+                Version version = RandomSpecs.randomVersion(random);
+                if (random.nextInt(5) == 0) {
+                    version = new Version(version.getMajor(), version.getMinor(), version.getPatch(),
+                            version.getPrerelease(), "b" + random.nextInt(2));
+                }
+                versions.add(version);
+            }
+            // Split across two calls, to check they're merged
+            builder.add(name, versions.subList(0, versions.size() / 2));
+            builder.add(name, versions.subList(versions.size() / 2, versions.size()));
+            indexes.add(VersionIndex.of(versions));
+        }
+
+        VersionCatalog catalog = VersionCatalog.wrap(builder.toByteBuffer());
+        assertEquals(Arrays.asList("@scope/util", "a", "caf\u00e9", "empty", "left-pad", "zzz"), catalog.packageNames());
+        assertFalse(catalog.contains("missing"));
+        assertEquals(0, catalog.size("missing"));
+        assertFalse(catalog.versions("missing").hasNext());
+        assertNull(catalog.max("missing", NodeVersionSpec.of("*")));
+
+        for (int i = 0; i < names.length; i++) {
+            VersionIndex index = indexes.get(i);
+            assertTrue(catalog.contains(names[i]));
+            assertEquals(index.size(), catalog.size(names[i]));
+            assertEquals(index.versions(), toList(catalog.versions(names[i])));
+
+            for (int j = 0; j < 300; j++) {
+                NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+                assertEquals(spec.toString(), toList(index.select(spec)), toList(catalog.select(names[i], spec)));
+                assertEquals(spec.toString(), index.count(spec), catalog.count(names[i], spec));
+                assertEquals(spec.toString(), index.min(spec), catalog.min(names[i], spec));
+                assertEquals(spec.toString(), index.max(spec), catalog.max(names[i], spec));
+            }
+        }
+    }
+
+    @Test
+    public void testOpen() throws IOException {
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            VersionCatalog.builder()
+                    .add("a", Version.of("1.0.0-rc.1"), Version.of("1.0.0"), Version.of("2.0.0-rc.1+build"))
+                    .add("b", Version.of("3.0.0-rc.1"))
+                    .writeTo(file);
+
+            VersionCatalog catalog = VersionCatalog.open(file);
+            assertEquals(Version.of("2.0.0-rc.1+build"), catalog.max("a", NodeVersionSpec.of(">=2.0.0-rc.0")));
+            assertEquals(Version.of("1.0.0"), catalog.max("a", NodeVersionSpec.of(">=1.0.0")));
+            assertEquals(Arrays.asList(Version.of("3.0.0-rc.1")), toList(catalog.versions("b")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSharedStrings() {
+        ByteBuffer shared = VersionCatalog.builder()
+                .add("a", Version.of("1.0.0-beta.1"), Version.of("2.0.0-beta.1"))
+                .add("b", Version.of("1.0.0-beta.1"))
+                .toByteBuffer();
+        ByteBuffer distinct = VersionCatalog.builder()
+                .add("a", Version.of("1.0.0-beta.1"), Version.of("2.0.0-beta.2"))
+                .add("b", Version.of("1.0.0-beta.3"))
+                .toByteBuffer();
+        // Each distinct string costs its offset and its 6 bytes
+        assertEquals(2 * 10, distinct.remaining() - shared.remaining());
+    }
+
+    @Test
+    public void testManyStrings() {
+        // More strings than the catalog keeps decoded, so reads keep evicting each other
+        VersionCatalog.Builder builder = VersionCatalog.builder();
+        for (int i = 0; i < 3000; i++) {
+            builder.add("p" + i, Version.of("1.0.0-rc." + i), Version.of("1.0.0+build." + i));
+        }
+        VersionCatalog catalog = VersionCatalog.wrap(builder.toByteBuffer());
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 3000; i += 7) {
+                assertTrue(catalog.contains("p" + i));
+                Iterator<Version> versions = catalog.versions("p" + i);
+                assertEquals("1.0.0-rc." + i, versions.next().toString());
+                assertEquals("1.0.0+build." + i, versions.next().toString());
+                assertFalse(versions.hasNext());
+            }
+        }
+        List<String> names = catalog.packageNames();
+        assertEquals(3000, names.size());
+        assertEquals("p0", names.get(0));
+        assertEquals("p999", names.get(names.size() - 1));
+    }
+
+    @Test
+    public void testInvalid() {
+        ByteBuffer buffer = VersionCatalog.builder().add("a", Version.of("1.0.0")).toByteBuffer();
+        ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.remaining() - 1));
+        ByteBuffer wrongMagic = ByteBuffer.wrap(buffer.array().clone());
+        wrongMagic.put(0, (byte) 0);
+
+        for (ByteBuffer invalid : Arrays.asList(truncated, wrongMagic, ByteBuffer.allocate(10))) {
+            try {
+                VersionCatalog.wrap(invalid);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testCorrupt() {
+        byte[] bytes = VersionCatalog.builder().add("a", Version.of("1.0.0-rc.1")).toByteBuffer().array();
+        int packagesOffset = ByteBuffer.wrap(bytes).getInt(20);
+        int versionsOffset = ByteBuffer.wrap(bytes).getInt(24);
+
+        // No strings, so the package name can't be read
+        ByteBuffer noStrings = ByteBuffer.wrap(bytes.clone());
+        noStrings.putInt(16, 0);
+        // More releases than there are versions
+        ByteBuffer tooManyReleases = ByteBuffer.wrap(bytes.clone());
+        tooManyReleases.putInt(packagesOffset + 8, 2);
+        // A pre-release string that isn't in the table
+        ByteBuffer missingString = ByteBuffer.wrap(bytes.clone());
+        missingString.putInt(versionsOffset + 20, 5);
+
+        for (ByteBuffer corrupt : Arrays.asList(noStrings, tooManyReleases, missingString)) {
+            VersionCatalog catalog = VersionCatalog.wrap(corrupt);
+            try {
+                catalog.versions("a").next();
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertEquals("Corrupt version catalog", e.getMessage());
+            }
+        }
+    }
+
+    private static List<Version> toList(Iterator<Version> it) {
+        List<Version> result = new ArrayList<>();
+        while (it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+}
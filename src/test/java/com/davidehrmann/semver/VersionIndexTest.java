@@ -0,0 +1,97 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VersionIndexTest {
+    @Test
+    public void testMatchesLinearScan() {
+        Random random = new Random(11);
+        for (int i = 0; i < 1000; i++) {
+            List<Version> versions = new ArrayList<>();
+            for (int j = random.nextInt(80); j > 0; j--) {
+                Version version = RandomSpecs.randomVersion(random);
+                if (random.nextInt(5) == 0) {
+                    version = new Version(version.getMajor(), version.getMinor(), version.getPatch(),
+                            version.getPrerelease(), "b" + random.nextInt(2));
+                }
+                versions.add(version);
+            }
+            VersionIndex index = VersionIndex.of(versions);
+
+            for (int j = 1; j < index.size(); j++) {
+                Version a = index.versions().get(j - 1);
+                Version b = index.versions().get(j);
+                assertTrue(a + " " + b, a.compareTo(b) <= 0 && !a.equals(b));
+            }
+
+            for (int j = 0; j < 10; j++) {
+                NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+                List<Version> expected = new ArrayList<>();
+                for (Version version : index) {
+                    if (spec.isSatisfiedBy(version)) {
+                        expected.add(version);
+                    }
+                }
+
+                List<Version> selected = new ArrayList<>();
+                for (Iterator<Version> it = index.select(spec); it.hasNext(); ) {
+                    selected.add(it.next());
+                }
+                assertEquals(spec.toString(), expected, selected);
+                assertEquals(spec.toString(), expected.size(), index.count(spec));
+                assertEquals(spec.toString(), expected.isEmpty() ? null : expected.get(0), index.min(spec));
+                assertEquals(spec.toString(), expected.isEmpty() ? null : expected.get(expected.size() - 1), index.max(spec));
+            }
+        }
+    }
+
+    @Test
+    public void testIndex() {
+        VersionIndex index = VersionIndex.of(Version.of("2.0.0"), Version.of("1.0.0+b"), Version.of("1.0.0-rc.1"),
+                Version.of("1.0.0"), Version.of("2.0.0"), Version.of("1.2.0"));
+        assertEquals(Arrays.asList(Version.of("1.0.0-rc.1"), Version.of("1.0.0"), Version.of("1.0.0+b"),
+                Version.of("1.2.0"), Version.of("2.0.0")), index.versions());
+
+        NodeVersionSpec spec = NodeVersionSpec.of("^1.0.0-rc.0");
+        assertEquals(4, index.count(spec));
+        assertEquals(Version.of("1.0.0-rc.1"), index.min(spec));
+        assertEquals(Version.of("1.2.0"), index.max(spec));
+        assertNull(index.max(NodeVersionSpec.of(">2.0.0")));
+        assertEquals(0, VersionIndex.of().count(NodeVersionSpec.of("*")));
+
+        Version huge = new Version(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        index = VersionIndex.of(huge, new Version(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE - 1));
+        assertEquals(1, index.count(NodeVersionSpec.of(huge.toString())));
+        assertEquals(huge, index.max(NodeVersionSpec.of("*")));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VersionKeysTest {
+
+    private static int compareKeys(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int c = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    @Test
+    public void testOrder() {
+        Random random = new Random(22);
+        for (int i = 0; i < 100000; i++) {
+            Version a = RandomSpecs.randomWideVersion(random);
+            Version b = RandomSpecs.randomWideVersion(random);
+            byte[] aKey = VersionKeys.encode(a);
+            byte[] bKey = VersionKeys.encode(b);
+
+            int precedence = Integer.signum(a.compareTo(b));
+            int keys = Integer.signum(compareKeys(aKey, bKey));
+            if (precedence != 0) {
+                assertEquals(a + " vs " + b, precedence, keys);
+            } else {
+                // Build metadata breaks ties, so only equal versions have equal keys
+                assertEquals(a + " vs " + b, a.equals(b), keys == 0);
+                assertEquals(0, compareKeys(VersionKeys.precedencePrefix(a), VersionKeys.precedencePrefix(b)));
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(22);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        List<Version> versions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Version version = RandomSpecs.randomWideVersion(random);
+            versions.add(version);
+            assertEquals(version, VersionKeys.decode(VersionKeys.encode(version)));
+            VersionKeys.encode(version, buffer);
+        }
+
+        // Keys delimit themselves
+        ((Buffer) buffer).flip();
+        for (Version version : versions) {
+            assertEquals(version, VersionKeys.decode(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testRanges() {
+        Random random = new Random(22);
+        List<Version> versions = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            versions.add(RandomSpecs.randomVersionWithBuildMetadata(random));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            NodeVersionSpec spec = RandomSpecs.randomValidSpec(random);
+
+            List<VersionKeys.KeyRange> ranges = VersionKeys.ranges(spec);
+            for (Version version : versions) {
+                byte[] key = VersionKeys.encode(version);
+                boolean inRange = false;
+                for (VersionKeys.KeyRange range : ranges) {
+                    inRange |= (range.getStart() == null || compareKeys(range.getStart(), key) <= 0)
+                            && (range.getEnd() == null || compareKeys(key, range.getEnd()) < 0);
+                }
+                if (spec.isSatisfiedBy(version)) {
+                    assertTrue(spec + " " + version, inRange);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRangeBounds() {
+        List<VersionKeys.KeyRange> ranges = VersionKeys.ranges(NodeVersionSpec.of(">1.2.3 <=2.0.0"));
+        assertEquals(1, ranges.size());
+        byte[] start = ranges.get(0).getStart();
+        byte[] end = ranges.get(0).getEnd();
+
+        assertTrue(compareKeys(VersionKeys.encode(Version.of("1.2.3+build")), start) < 0);
+        assertTrue(compareKeys(start, VersionKeys.encode(Version.of("1.2.4-0"))) <= 0);
+        assertTrue(compareKeys(VersionKeys.encode(Version.of("2.0.0+build")), end) < 0);
+        assertTrue(compareKeys(end, VersionKeys.encode(Version.of("2.0.1-0"))) <= 0);
+
+        assertEquals(0, VersionKeys.ranges(NodeVersionSpec.LATEST).size());
+        List<VersionKeys.KeyRange> all = VersionKeys.ranges(NodeVersionSpec.of("*"));
+        assertEquals(1, all.size());
+        assertEquals(null, all.get(0).getStart());
+        assertEquals(null, all.get(0).getEnd());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncated() {
+        byte[] key = VersionKeys.encode(Version.of("1.2.3-alpha"));
+        VersionKeys.decode(ByteBuffer.wrap(key, 0, key.length - 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrailingBytes() {
+        byte[] key = VersionKeys.encode(Version.of("1.2.3"));
+        VersionKeys.decode(ByteBuffer.allocate(key.length + 1).put(key).array());
+    }
+}
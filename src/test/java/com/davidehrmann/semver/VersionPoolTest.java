@@ -0,0 +1,138 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class VersionPoolTest {
+    @Test
+    public void testIntern() {
+        VersionPool pool = new VersionPool();
+        Version first = Version.of("1.0.0-beta.1", pool);
+        Version second = Version.of("1.0.0-beta.1", pool);
+        Version other = Version.of("1.0.0-beta.1+sha", pool);
+
+        assertNotSame(Version.of("1.0.0-beta.1"), first);
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(1, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testPromotion() {
+        VersionPool pool = new VersionPool(2, 1);
+        Version canonical = Version.of("1.0.0", pool);
+        for (int i = 0; i < 3; i++) {
+            assertSame(canonical, Version.of("1.0.0", pool));
+            Version.of("2.0.0", pool);
+        }
+
+        assertEquals(1, pool.getStrongSize());
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testDemotion() {
+        VersionPool pool = new VersionPool(2, 1);
+        Version hot = Version.of("1.0.0", pool);
+        for (int i = 0; i < 10; i++) {
+            Version.of("1.0.0", pool);
+        }
+
+        // Halving hot's hits still leaves more than cold's, so cold waits
+        Version cold = Version.of("2.0.0", pool);
+        Version.of("2.0.0", pool);
+        Version.of("2.0.0", pool);
+        assertEquals(1, pool.getStrongSize());
+
+        // Until hot has been halved enough to be demoted, after which it's still canonical
+        for (int i = 0; i < 3; i++) {
+            assertSame(cold, Version.of("2.0.0", pool));
+        }
+        assertEquals(1, pool.getStrongSize());
+        assertSame(hot, Version.of("1.0.0", pool));
+        assertSame(cold, Version.of("2.0.0", pool));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testNoStrongSet() {
+        VersionPool pool = new VersionPool(0, 0);
+        Version version = Version.of("1.0.0", pool);
+        assertSame(version, Version.of("1.0.0", pool));
+        assertEquals(0, pool.getStrongSize());
+    }
+
+    @Test
+    public void testVersionSpec() {
+        VersionPool pool = new VersionPool();
+        Version version = Version.of("1.2.3", pool);
+
+        NodeVersionSpec spec = NodeVersionSpec.of("^1.2.3 || 1.2.3 - 2.0.0", pool);
+        assertEquals(NodeVersionSpec.of("^1.2.3 || 1.2.3 - 2.0.0"), spec);
+        assertEquals(2, pool.getHitCount());
+        assertSame(version, Version.of("1.2.3", pool));
+    }
+
+    @Test
+    public void testConcurrentIntern() throws Exception {
+        final VersionPool pool = new VersionPool();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Version[]>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(new Callable<Version[]>() {
+                    @Override
+                    public Version[] call() {
+                        Version[] result = new Version[100];
+                        for (int i = 0; i < 10000; i++) {
+                            result[i % 100] = pool.intern(new Version(1, i % 100, 0));
+                        }
+                        return result;
+                    }
+                }));
+            }
+
+            Version[] expected = futures.get(0).get();
+            for (Future<Version[]> future : futures) {
+                Version[] actual = future.get();
+                for (int i = 0; i < actual.length; i++) {
+                    assertSame(expected[i], actual[i]);
+                }
+            }
+            assertEquals(100, pool.getMissCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
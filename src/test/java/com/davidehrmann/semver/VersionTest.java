@@ -24,15 +24,25 @@ import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
 
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 @RunWith(Enclosed.class)
 public class VersionTest {
@@ -53,6 +63,115 @@ public class VersionTest {
 
             assertEquals(new Version(2, 0, 0, "rc.0", null), Version.of("2.0.0-rc.0"));
         }
+
+        @Test
+        public void testParseRange() {
+            assertEquals(new Version(1, 2, 3), Version.parse("^1.2.3 ", 1, 6));
+            assertEquals(new Version(1, 2, 3, "beta.1", "sha"), Version.parse(new StringBuilder("x v1.2.3-beta.1+sha x"), 2, 19));
+        }
+
+        @Test
+        public void testOverflow() {
+            try {
+                Version.of("1.2147483648.0-rc.1");
+                fail();
+            } catch (NumberFormatException e) {
+                assertEquals("For input string: \"2147483648\"", e.getMessage());
+            }
+
+            // Other problems are reported first, like they were when the regex had to match before the numbers were parsed
+            try {
+                Version.of("1.2147483648.0-");
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertFalse(e instanceof NumberFormatException);
+            }
+        }
+
+        @Test
+        public void testMatchesRegex() {
+            String[] fragments = {
+                    "v", "0", "1", "9", "01", "10", "2147483647", "2147483648", ".", "-", "+", "a", "Z", "x", "$", " ",
+            };
+
+            Random random = new Random(42);
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 200000; i++) {
+                builder.setLength(0);
+                if (random.nextBoolean()) {
+                    builder.append(random.nextInt(3)).append('.').append(random.nextInt(12)).append('.').append(random.nextInt(3));
+                }
+                int count = random.nextInt(8);
+                for (int j = 0; j < count; j++) {
+                    builder.append(fragments[random.nextInt(fragments.length)]);
+                }
+
+                String ver = builder.toString();
+                boolean actual;
+                try {
+                    Version.of(ver);
+                    actual = true;
+                } catch (IllegalArgumentException e) {
+                    actual = false;
+                }
+
+                assertEquals(ver, regexMatches(ver), actual);
+            }
+        }
+
+        private static boolean regexMatches(String ver) {
+            Matcher matcher = Version.VERSION_PATTERN.matcher(ver);
+            if (!matcher.matches()) {
+                return false;
+            }
+
+            // The regex also matches components that overflow an int, which have always been rejected
+            try {
+                for (int group = 1; group <= 3; group++) {
+                    Integer.parseInt(matcher.group(group));
+                }
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+    public static class ByteParsingTest {
+        @Test
+        public void testByteArray() {
+            byte[] bytes = "\"1.2.3-beta.1+sha.5114f85\"".getBytes(StandardCharsets.US_ASCII);
+            Version version = Version.parse(bytes, 1, bytes.length - 1);
+
+            assertEquals(Version.of("1.2.3-beta.1+sha.5114f85"), version);
+            assertEquals(Version.of("1.2.3-beta.1+sha.5114f85").hashCode(), version.hashCode());
+            assertEquals("beta.1", version.getPrerelease());
+            assertEquals("sha.5114f85", version.getBuildMetadata());
+            assertEquals("1.2.3-beta.1+sha.5114f85", version.toString());
+
+            // The version must not see later changes to the caller's buffer
+            Arrays.fill(bytes, (byte) 'x');
+            assertEquals("beta.1", version.getPrerelease());
+        }
+
+        @Test
+        public void testByteBuffer() {
+            byte[] bytes = "1.0.0-rc.1 2.0.0".getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer heap = ByteBuffer.wrap(bytes, 11, 5);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            ((Buffer) direct.put(bytes)).flip().limit(10);
+
+            assertEquals(new Version(2, 0, 0), Version.parse(heap));
+            assertEquals(11, heap.position());
+            assertEquals(new Version(1, 0, 0, "rc.1", null), Version.parse(direct));
+            assertEquals(0, direct.position());
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void testNonAscii() {
+            byte[] bytes = "1.2.3-b\u00e9ta".getBytes(StandardCharsets.UTF_8);
+            Version.parse(bytes, 0, bytes.length);
+        }
     }
 
     public static class CompareToTest {
@@ -89,6 +208,105 @@ public class VersionTest {
 
             assertEquals(expectedPrereleaseSort, prereleases);
         }
+
+        @Test
+        public void testPrereleaseIdentifiers() {
+            assertThat(Version.of("1.0.0-9223372036854775807"), greaterThan(Version.of("1.0.0-4611686018427387903")));
+            assertThat(Version.of("1.0.0-99999999999999999999"), greaterThan(Version.of("1.0.0-9223372036854775807")));
+            assertThat(Version.of("1.0.0-99999999999999999999"), lessThan(Version.of("1.0.0-100000000000000000000")));
+            assertThat(Version.of("1.0.0-99999999999999999999"), lessThan(Version.of("1.0.0--1")));
+            assertThat(Version.of("1.0.0-alpha"), lessThan(Version.of("1.0.0-alpha0")));
+            assertThat(Version.of("1.0.0-Zeta"), lessThan(Version.of("1.0.0-alpha")));
+            assertThat(Version.of("1.0.0-rc"), greaterThan(Version.of("1.0.0-preview")));
+            assertThat(Version.of("1.0.0-rc"), lessThan(Version.of("1.0.0-rc-1")));
+            assertEquals(0, Version.of("1.0.0-beta.2+a").compareTo(Version.of("1.0.0-beta.2+b")));
+        }
+
+        @Test
+        public void testPrereleaseOrderMatchesReference() {
+            String[] identifiers = {
+                    "0", "1", "2", "10", "11", "4611686018427387904", "9999999999999999999", "10000000000000000000",
+                    "-", "-1", "A", "alpha", "alpha1", "beta", "canary", "next", "nightly", "pre", "preview", "rc", "rc-1",
+            };
+
+            Random random = new Random(7);
+            Version[] versions = new Version[2000];
+            for (int i = 0; i < versions.length; i++) {
+                StringBuilder prerelease = new StringBuilder();
+                int count = 1 + random.nextInt(3);
+                for (int j = 0; j < count; j++) {
+                    prerelease.append(j > 0 ? "." : "").append(identifiers[random.nextInt(identifiers.length)]);
+                }
+                versions[i] = new Version(1, 0, 0, prerelease.toString(), null);
+            }
+
+            for (int i = 1; i < versions.length; i++) {
+                Version a = versions[i - 1];
+                Version b = versions[i];
+                assertEquals(a + " vs " + b, Integer.signum(referenceCompare(a.getPrerelease(), b.getPrerelease())),
+                        Integer.signum(a.compareTo(b)));
+            }
+        }
+
+        // A straightforward reading of https://semver.org/#spec-item-11
+        private static int referenceCompare(String a, String b) {
+            String[] aParts = a.split("[.]");
+            String[] bParts = b.split("[.]");
+            for (int i = 0; i < aParts.length && i < bParts.length; i++) {
+                boolean aNumeric = aParts[i].matches("[0-9]+");
+                boolean bNumeric = bParts[i].matches("[0-9]+");
+                int diff;
+                if (aNumeric && bNumeric) {
+                    diff = new BigInteger(aParts[i]).compareTo(new BigInteger(bParts[i]));
+                } else if (aNumeric != bNumeric) {
+                    diff = aNumeric ? -1 : 1;
+                } else {
+                    diff = aParts[i].compareTo(bParts[i]);
+                }
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return Integer.compare(aParts.length, bParts.length);
+        }
+    }
+
+    public static class SortKeyTest {
+        @Test
+        public void testSortKey() {
+            List<Version> versions = Arrays.asList(
+                    Version.of("0.0.0-0"),
+                    Version.of("0.0.0"),
+                    Version.of("0.0.1-alpha"),
+                    Version.of("0.0.1"),
+                    Version.of("0.1.0"),
+                    Version.of("1.0.0-rc.1"),
+                    Version.of("1.0.0"),
+                    Version.of("1.2097150.2097150"),
+                    Version.of("1.2097151.0"),
+                    Version.of("1.2147483647.2147483647"),
+                    Version.of("1048574.0.0"),
+                    Version.of("1048575.0.0-beta"),
+                    Version.of("2147483647.0.0"));
+
+            for (int i = 0; i < versions.size(); i++) {
+                for (int j = 0; j < versions.size(); j++) {
+                    Version a = versions.get(i);
+                    Version b = versions.get(j);
+                    assertEquals(a + " vs " + b, Integer.signum(Integer.compare(i, j)), Integer.signum(a.compareTo(b)));
+                    if (a.sortKey() < b.sortKey()) {
+                        assertThat(a, lessThan(b));
+                    }
+                    if (i < j) {
+                        assertThat(a.sortKey(), lessThanOrEqualTo(b.sortKey()));
+                    }
+                }
+                assertThat(versions.get(i).sortKey(), greaterThanOrEqualTo(0L));
+            }
+
+            assertThat(Version.of("1.2.3-beta").sortKey(), lessThan(Version.of("1.2.3").sortKey()));
+            assertEquals(Version.of("1.2.3+build").sortKey(), Version.of("1.2.3").sortKey());
+        }
     }
 
     @RunWith(Parameterized.class)
@@ -0,0 +1,102 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class VersionsTest {
+
+    @Test
+    public void testSort() {
+        Random random = new Random(19);
+        for (int length : new int[]{0, 1, 2, 127, 128, 1000, 2 * Versions.CHUNK_SIZE + 17, 5 * Versions.CHUNK_SIZE}) {
+            Version[] versions = new Version[length];
+            for (int i = 0; i < length; i++) {
+                versions[i] = RandomSpecs.randomWideVersion(random);
+            }
+
+            // Arrays.sort is stable too, so ties between build metadata are in the same order
+            Version[] expected = versions.clone();
+            Arrays.sort(expected);
+
+            Version[] sorted = versions.clone();
+            Versions.sort(sorted);
+            assertIdentical(expected, sorted);
+
+            sorted = versions.clone();
+            Versions.parallelSort(sorted);
+            assertIdentical(expected, sorted);
+        }
+    }
+
+    @Test
+    public void testSortedDistinct() {
+        Random random = new Random(19);
+        for (int length : new int[]{0, 1, 1000, 3 * Versions.CHUNK_SIZE}) {
+            Version[] versions = new Version[length];
+            for (int i = 0; i < length; i++) {
+                versions[i] = RandomSpecs.randomWideVersion(random);
+            }
+
+            Version[] sorted = versions.clone();
+            Arrays.sort(sorted);
+            List<Version> expected = new ArrayList<>();
+            for (Version version : sorted) {
+                if (expected.isEmpty() || expected.get(expected.size() - 1).compareTo(version) != 0) {
+                    expected.add(version);
+                }
+            }
+
+            assertIdentical(expected.toArray(new Version[0]), Versions.sortedDistinct(versions));
+            assertIdentical(expected.toArray(new Version[0]), Versions.parallelSortedDistinct(versions));
+        }
+    }
+
+    @Test
+    public void testSortedDistinctKeepsFirst() {
+        Version a = Version.of("1.0.0+b");
+        Version b = Version.of("1.0.0+a");
+        Version c = Version.of("1.0.0");
+        Version[] distinct = Versions.sortedDistinct(new Version[]{Version.of("2.0.0"), a, b, c});
+
+        assertEquals(2, distinct.length);
+        assertSame(a, distinct[0]);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNull() {
+        Versions.sort(new Version[]{Version.of("1.0.0"), null});
+    }
+
+    private static void assertIdentical(Version[] expected, Version[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i] + " at " + i, expected[i], actual[i]);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.lockfile;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonReaderTest {
+
+    @Test
+    public void testRead() throws IOException {
+        JsonReader reader = reader("{\"a\": \"x\\\"y\\u00e9\\n\", \"b\": [1, -2.5e3, true, false, null, {}, []], \"c\" : {\"d\":\"e\"}, \"f\": [true, false, \"true\"]}");
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        assertEquals("x\"y\u00e9\n", reader.nextStringOrSkip());
+        assertEquals("b", reader.nextName());
+        assertEquals(JsonReader.Token.BEGIN_ARRAY, reader.peek());
+        reader.skipValue();
+        assertEquals("c", reader.nextName());
+        reader.beginObject();
+        assertEquals("d", reader.nextName());
+        assertEquals("e", reader.nextStringOrSkip());
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        assertEquals("f", reader.nextName());
+        reader.beginArray();
+        assertTrue(reader.nextBooleanOrSkip());
+        assertFalse(reader.nextBooleanOrSkip());
+        assertFalse(reader.nextBooleanOrSkip());
+        reader.endArray();
+        reader.endObject();
+        assertEquals(JsonReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testStringsAcrossBuffers() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append((char) ('a' + i % 26));
+            if (i % 1000 == 0) {
+                sb.append("\\t");
+            }
+        }
+        JsonReader reader = reader("[\"" + sb + "\", 12345]");
+        reader.beginArray();
+        assertEquals(sb.toString().replace("\\t", "\t"), reader.nextStringOrSkip());
+        assertNull(reader.nextStringOrSkip());
+        reader.endArray();
+    }
+
+    @Test
+    public void testMalformed() throws IOException {
+        String[] documents = {
+                "", "{", "{\"a\"}", "{\"a\": }", "{\"a\": 1,}", "[1,]", "[1 2]", "{a: 1}", "\"\\x\"",
+                "\"unterminated", "[tru]", "{} {}", "\"\u0001\"", "]",
+                "{\"x\": 1-2e+}", "-", "[-a]", "[01]", "[1.]", "[.5]", "[1.e5]", "[1e]", "[1e+]", "[--1]", "[+1]",
+        };
+        for (String document : documents) {
+            try {
+                JsonReader reader = reader(document);
+                reader.skipValue();
+                reader.peek();
+                fail(document);
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+        JsonReader reader = reader("[0, -0, 12, -3.25, 1e9, 2E-3, -0.5e+10, 7]");
+        reader.beginArray();
+        int count = 0;
+        while (reader.hasNext()) {
+            assertEquals(JsonReader.Token.NUMBER, reader.peek());
+            reader.skipValue();
+            count++;
+        }
+        reader.endArray();
+        assertEquals(8, count);
+        assertEquals(JsonReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxStringLength() throws IOException {
+        new JsonReader(new StringReader("\"abcdef\""), 5).skipValue();
+    }
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(new StringReader(json), Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.lockfile;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class LockfileVerifierTest {
+
+    private static final String MANIFEST = "{\n"
+            + "  \"name\": \"app\",\n"
+            + "  \"version\": \"1.0.0\",\n"
+            + "  \"scripts\": {\"test\": \"mocha\"},\n"
+            + "  \"dependencies\": {\"left-pad\": \"^1.1.0\", \"@scope/util\": \"~2.0.0\", \"tagged\": \"latest\",\n"
+            + "                   \"git\": \"git+https://example.com/git.git\", \"gone\": \"^1.0.0\"},\n"
+            + "  \"devDependencies\": {\"mocha\": \">=5 <7\", \"left-pad\": \"1.3.0\"}\n"
+            + "}";
+
+    @Test
+    public void testVersion1() throws IOException {
+        String lockfile = "{\"name\": \"app\", \"lockfileVersion\": 1, \"dependencies\": {\n"
+                + "  \"left-pad\": {\"version\": \"1.3.0\", \"integrity\": \"sha512-x\"},\n"
+                + "  \"@scope/util\": {\"version\": \"2.1.0\", \"requires\": {\"left-pad\": \"^1.0.0\"},\n"
+                + "                  \"dependencies\": {\"left-pad\": {\"version\": \"0.1.0\"}}},\n"
+                + "  \"mocha\": {\"dev\": true, \"version\": \"6.2.0\"},\n"
+                + "  \"git\": {\"version\": \"git+https://example.com/git.git#abc\"}\n"
+                + "}}";
+
+        assertEquals(Arrays.asList(
+                new Mismatch(Mismatch.Kind.INVALID_RANGE, "dependencies", "tagged", "latest", null),
+                new Mismatch(Mismatch.Kind.INVALID_RANGE, "dependencies", "git", "git+https://example.com/git.git", null),
+                new Mismatch(Mismatch.Kind.UNSATISFIED, "dependencies", "@scope/util", "~2.0.0", "2.1.0"),
+                new Mismatch(Mismatch.Kind.MISSING, "dependencies", "gone", "^1.0.0", null)
+        ), verify(MANIFEST, lockfile));
+    }
+
+    @Test
+    public void testVersion3() throws IOException {
+        String lockfile = "{\"name\": \"app\", \"lockfileVersion\": 3, \"packages\": {\n"
+                + "  \"\": {\"dependencies\": {\"left-pad\": \"^1.1.0\"}},\n"
+                + "  \"node_modules/left-pad\": {\"version\": \"1.2.0\"},\n"
+                + "  \"node_modules/@scope/util\": {\"version\": \"2.0.5\"},\n"
+                + "  \"node_modules/@scope/util/node_modules/mocha\": {\"version\": \"1.0.0\"},\n"
+                + "  \"node_modules/mocha\": {\"version\": \"7.0.0-beta.1\", \"dev\": true},\n"
+                + "  \"node_modules/gone\": {\"version\": \"1.0.0\"}\n"
+                + "}, \"dependencies\": {\"gone\": {\"version\": \"0.0.1\"}}}";
+
+        assertEquals(Arrays.asList(
+                new Mismatch(Mismatch.Kind.INVALID_RANGE, "dependencies", "tagged", "latest", null),
+                new Mismatch(Mismatch.Kind.INVALID_RANGE, "dependencies", "git", "git+https://example.com/git.git", null),
+                new Mismatch(Mismatch.Kind.UNSATISFIED, "devDependencies", "left-pad", "1.3.0", "1.2.0"),
+                new Mismatch(Mismatch.Kind.UNSATISFIED, "devDependencies", "mocha", ">=5 <7", "7.0.0-beta.1")
+        ), verify(MANIFEST, lockfile));
+    }
+
+    @Test
+    public void testWorkspaces() throws IOException {
+        String manifest = "{\"workspaces\": [\"packages/*\"],\n"
+                + "  \"dependencies\": {\"foo\": \"^1.0.0\", \"bar\": \"^2.0.0\", \"baz\": \"^3.0.0\", \"qux\": \"^1.0.0\"}}";
+        String lockfile = "{\"lockfileVersion\": 3, \"packages\": {\n"
+                + "  \"\": {\"workspaces\": [\"packages/*\"]},\n"
+                // Already read when its link is, so baz is locked but can't be checked
+                + "  \"packages/baz\": {\"version\": \"1.0.0\"},\n"
+                + "  \"node_modules/bar\": {\"resolved\": \"packages/bar\", \"link\": true},\n"
+                + "  \"node_modules/baz\": {\"resolved\": \"packages/baz\", \"link\": true},\n"
+                + "  \"node_modules/foo\": {\"resolved\": \"packages/foo\", \"link\": true},\n"
+                + "  \"node_modules/qux\": {\"version\": \"1.0.0\", \"resolved\": \"packages/qux\", \"link\": false},\n"
+                + "  \"packages/bar\": {\"version\": \"1.5.0\"},\n"
+                + "  \"packages/foo\": {\"version\": \"1.2.0\", \"dependencies\": {\"bar\": \"*\"}}\n"
+                + "}}";
+
+        assertEquals(Collections.singletonList(
+                new Mismatch(Mismatch.Kind.UNSATISFIED, "dependencies", "bar", "^2.0.0", "1.5.0")
+        ), verify(manifest, lockfile));
+    }
+
+    @Test
+    public void testLargeLockfile() throws IOException {
+        // About 40MB of lockfile, generated as it's read, so the test only passes if it isn't buffered
+        final int packages = 400000;
+        Reader lockfile = new Reader() {
+            private final StringBuilder chunk = new StringBuilder("{\"lockfileVersion\": 2, \"packages\": {\"\": {}");
+            private int next;
+            private int offset;
+
+            @Override
+            public int read(char[] buffer, int off, int len) {
+                if (offset == chunk.length()) {
+                    if (next > packages) {
+                        return -1;
+                    }
+                    chunk.setLength(0);
+                    offset = 0;
+                    if (next == packages) {
+                        chunk.append("}}");
+                    } else {
+                        chunk.append(",\n  \"node_modules/p").append(next).append("\": {\"version\": \"1.").append(next)
+                                .append(".0\", \"resolved\": \"https://registry.example.com/p").append(next)
+                                .append(".tgz\", \"integrity\": \"sha512-0123456789abcdef\"}");
+                    }
+                    next++;
+                }
+                int n = Math.min(len, chunk.length() - offset);
+                chunk.getChars(offset, offset + n, buffer, off);
+                offset += n;
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        String manifest = "{\"dependencies\": {\"p10\": \"^1.10.0\", \"p399999\": \"<1.0.0\"}}";
+        assertEquals(Collections.singletonList(
+                new Mismatch(Mismatch.Kind.UNSATISFIED, "dependencies", "p399999", "<1.0.0", "1.399999.0")
+        ), new LockfileVerifier().verify(new StringReader(manifest), lockfile));
+    }
+
+    private static List<Mismatch> verify(String manifest, String lockfile) throws IOException {
+        return new LockfileVerifier().verify(new StringReader(manifest), new StringReader(lockfile));
+    }
+}
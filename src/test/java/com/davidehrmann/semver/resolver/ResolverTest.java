@@ -0,0 +1,274 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.resolver;
+
+import com.davidehrmann.semver.NodeVersionSpec;
+import com.davidehrmann.semver.Version;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResolverTest {
+    @Test
+    public void testPicksHighestVersions() {
+        InMemoryPackageRegistry registry = new InMemoryPackageRegistry()
+                .add("a", "1.0.0", "b", "^1.0.0")
+                .add("a", "1.1.0", "b", "^1.1.0")
+                .add("a", "2.0.0", "b", "^2.0.0")
+                .add("b", "1.0.0")
+                .add("b", "1.2.0")
+                .add("b", "2.0.0-rc.1")
+                .add("c", "1.0.0");
+
+        Map<String, Version> expected = new HashMap<>();
+        expected.put("a", Version.of("1.1.0"));
+        expected.put("b", Version.of("1.2.0"));
+        assertEquals(expected, new Resolver(registry).resolve(dependencies("a", "^1.0.0")));
+    }
+
+    @Test
+    public void testBacktracksAfterConflict() {
+        // The newest foo needs a bar that needs an older foo
+        InMemoryPackageRegistry registry = new InMemoryPackageRegistry()
+                .add("foo", "1.0.0")
+                .add("foo", "2.0.0", "bar", "^1.0.0")
+                .add("bar", "1.0.0", "foo", "^1.0.0");
+
+        Map<String, Version> solution = new Resolver(registry).resolve(dependencies("foo", ">=1.0.0"));
+        assertEquals(Collections.singletonMap("foo", Version.of("1.0.0")), solution);
+    }
+
+    @Test
+    public void testLearnsFromConflicts() {
+        // Every version of a conflicts with c, through b
+        InMemoryPackageRegistry registry = new InMemoryPackageRegistry();
+        for (int i = 0; i < 50; i++) {
+            registry.add("a", i + ".0.0", "b", "^1.0.0");
+        }
+        registry.add("b", "1.0.0", "c", "^1.0.0").add("b", "1.1.0", "c", "^1.0.0").add("c", "1.0.0").add("c", "2.0.0");
+
+        try {
+            new Resolver(registry).resolve(dependencies("a", "*", "c", "^2.0.0"));
+            fail();
+        } catch (ResolutionException e) {
+            assertEquals(ResolutionException.Reason.UNSATISFIABLE, e.getReason());
+            assertThat(e.getMessage(), containsString("version solving failed"));
+        }
+    }
+
+    @Test
+    public void testUnsatisfiable() {
+        InMemoryPackageRegistry registry = new InMemoryPackageRegistry()
+                .add("a", "1.0.0", "shared", "^1.0.0")
+                .add("b", "1.0.0", "shared", "^2.0.0")
+                .add("shared", "1.0.0")
+                .add("shared", "2.0.0");
+
+        try {
+            new Resolver(registry).resolve(dependencies("a", "^1.0.0", "b", "^1.0.0"));
+            fail();
+        } catch (ResolutionException e) {
+            assertEquals(ResolutionException.Reason.UNSATISFIABLE, e.getReason());
+            assertThat(e.getMessage(), containsString("a =1.0.0 depends on shared ^1.0.0"));
+            assertThat(e.getMessage(), containsString("b =1.0.0 depends on shared ^2.0.0"));
+        }
+
+        try {
+            new Resolver(registry).resolve(dependencies("missing", "^1.0.0"));
+            fail();
+        } catch (ResolutionException e) {
+            assertThat(e.getMessage(), containsString("no versions of missing ^1.0.0"));
+        }
+    }
+
+    @Test
+    public void testBudgetAndCancellation() {
+        InMemoryPackageRegistry registry = new InMemoryPackageRegistry().add("a", "1.0.0");
+        try {
+            new Resolver(registry).resolve(dependencies("a", "^1.0.0"), 0, TimeUnit.NANOSECONDS);
+            fail();
+        } catch (ResolutionException e) {
+            assertEquals(ResolutionException.Reason.TIMED_OUT, e.getReason());
+        }
+
+        Thread.currentThread().interrupt();
+        try {
+            new Resolver(registry).resolve(dependencies("a", "^1.0.0"));
+            fail();
+        } catch (ResolutionException e) {
+            assertEquals(ResolutionException.Reason.CANCELLED, e.getReason());
+            assertTrue(Thread.interrupted());
+        }
+
+        assertEquals(Collections.singletonMap("a", Version.of("1.0.0")),
+                new Resolver(registry).resolve(dependencies("a", "^1.0.0"), 1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testMatchesExhaustiveSearch() {
+        Random random = new Random(13);
+        String[] names = {"a", "b", "c", "d"};
+        String[] specs = {"^1.0.0", "^2.0.0", "~1.1.0", ">=1.1.0", "<2.0.0", "1.0.0 || 2.1.0", "*"};
+        String[] versions = {"1.0.0", "1.1.0", "2.0.0", "2.1.0"};
+
+        for (int i = 0; i < 300; i++) {
+            InMemoryPackageRegistry registry = new InMemoryPackageRegistry();
+            for (String name : names) {
+                for (String version : versions) {
+                    if (random.nextInt(3) == 0) {
+                        continue;
+                    }
+                    List<String> dependencies = new ArrayList<>();
+                    for (String dependency : names) {
+                        if (!dependency.equals(name) && random.nextInt(3) == 0) {
+                            dependencies.add(dependency);
+                            dependencies.add(specs[random.nextInt(specs.length)]);
+                        }
+                    }
+                    registry.add(name, version, dependencies.toArray(new String[dependencies.size()]));
+                }
+            }
+
+            Map<String, NodeVersionSpec> root = dependencies("a", specs[random.nextInt(specs.length)],
+                    "b", specs[random.nextInt(specs.length)]);
+
+            boolean solvable = solvable(registry, root, names, 0, new HashMap<String, Version>());
+            try {
+                Map<String, Version> solution = new Resolver(registry).resolve(root);
+                assertTrue(isValid(registry, root, solution));
+                assertTrue(solvable);
+            } catch (ResolutionException e) {
+                assertFalse(e.getMessage(), solvable);
+            }
+        }
+    }
+
+    @Test
+    public void testLargeGraph() {
+        // Packages depend on a few packages with higher numbers, so the graph is acyclic. Newer majors pin their
+        // dependencies to random majors, which other dependents of the same packages usually disagree with, so only the
+        // 1.x versions, which all depend on each other, fit together, and the solver has to learn to rule out the rest
+        Random random = new Random(14);
+        int packages = 10000;
+        final InMemoryPackageRegistry registry = new InMemoryPackageRegistry();
+        for (int p = 0; p < packages; p++) {
+            for (int major = 1; major <= 3; major++) {
+                for (int minor = 0; minor < 3; minor++) {
+                    Map<String, NodeVersionSpec> dependencies = new LinkedHashMap<>();
+                    for (int d = 0; d < 4 && p + 1 < packages; d++) {
+                        int dependency = p + 1 + random.nextInt(Math.min(50, packages - p - 1));
+                        int dependencyMajor = major == 1 ? 1 : 1 + random.nextInt(3);
+                        dependencies.put("p" + dependency, NodeVersionSpec.of("^" + dependencyMajor + ".0.0"));
+                    }
+                    registry.add("p" + p, new Version(major, minor, 0), dependencies);
+                }
+            }
+        }
+
+        final Set<String> expanded = new HashSet<>();
+        PackageRegistry countingRegistry = new PackageRegistry() {
+            @Override
+            public Collection<Version> getVersions(String packageName) {
+                return registry.getVersions(packageName);
+            }
+
+            @Override
+            public Map<String, NodeVersionSpec> getDependencies(String packageName, Version version) {
+                expanded.add(packageName + '@' + version);
+                return registry.getDependencies(packageName, version);
+            }
+        };
+
+        Map<String, NodeVersionSpec> root = dependencies("p0", "*");
+        Map<String, Version> solution = new Resolver(countingRegistry).resolve(root, 10, TimeUnit.SECONDS);
+        assertTrue(isValid(registry, root, solution));
+        assertEquals(1, solution.get("p0").getMajor());
+        // Versions that were tried and left out of the solution were ruled out by conflicts
+        assertTrue(expanded.size() > solution.size());
+    }
+
+    private static Map<String, NodeVersionSpec> dependencies(String... namesAndSpecs) {
+        Map<String, NodeVersionSpec> result = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndSpecs.length; i += 2) {
+            result.put(namesAndSpecs[i], NodeVersionSpec.of(namesAndSpecs[i + 1]));
+        }
+        return result;
+    }
+
+    private static boolean isValid(PackageRegistry registry, Map<String, NodeVersionSpec> root, Map<String, Version> solution) {
+        if (!satisfies(root, solution)) {
+            return false;
+        }
+        for (Map.Entry<String, Version> selected : solution.entrySet()) {
+            if (!registry.getVersions(selected.getKey()).contains(selected.getValue())
+                    || !satisfies(registry.getDependencies(selected.getKey(), selected.getValue()), solution)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean satisfies(Map<String, NodeVersionSpec> dependencies, Map<String, Version> solution) {
+        for (Map.Entry<String, NodeVersionSpec> dependency : dependencies.entrySet()) {
+            Version version = solution.get(dependency.getKey());
+            if (version == null || !dependency.getValue().isSatisfiedBy(version)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Tries every combination of versions, including leaving packages out
+    private static boolean solvable(PackageRegistry registry, Map<String, NodeVersionSpec> root, String[] names,
+                                    int next, Map<String, Version> solution) {
+        if (next == names.length) {
+            return isValid(registry, root, solution);
+        }
+        if (solvable(registry, root, names, next + 1, solution)) {
+            return true;
+        }
+        for (Version version : registry.getVersions(names[next])) {
+            solution.put(names[next], version);
+            boolean solved = solvable(registry, root, names, next + 1, solution);
+            solution.remove(names[next]);
+            if (solved) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+
+package com.davidehrmann.semver.sql;
+
+import com.davidehrmann.semver.NodeVersionSpec;
+import com.davidehrmann.semver.Version;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SqlPredicateGeneratorTest {
+    private static final String[] PRERELEASES = {null, "0", "0.0", "1", "alpha", "alpha.1", "beta.2", "beta.10", "rc.1"};
+
+    private static final String[] SPECS = {
+            "1.2.3", ">1.2.3", ">=1.2.3", "<1.2.3", "<=1.2.3", "^1.2.3", "^0.2.3", "^0.0.3", "~1.2.3", "~1.2", "~1",
+            "1.x", "1.2.x", "*", "", "1.2.3 - 2.3.4", "1.2 - 2", ">=1.2.3 <2.0.0 || ^3.0.0 || ~4.1",
+            "=1.2.3-alpha", ">1.2.3-0", "<=1.2.3-0", ">=1.2.3-0 <1.2.3", "^1.2.3-beta.2", "~1.2.3-beta.2",
+            ">=1.2.3-beta.2", "<1.2.3-beta.10", ">1.2.3-alpha <2", "<1.2.3 || >=2.0.0-0",
+    };
+
+    private final List<Version> universe = new ArrayList<>();
+    private final Connection connection;
+
+    public SqlPredicateGeneratorTest() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE versions (id INT PRIMARY KEY, pkg_major INT, pkg_minor INT, pkg_patch INT,"
+                    + " pkg_prerelease VARCHAR(64))");
+            statement.execute("CREATE INDEX versions_numbers ON versions (pkg_major, pkg_minor, pkg_patch)");
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO versions VALUES (?, ?, ?, ?, ?)")) {
+            for (int major = 0; major <= 4; major++) {
+                for (int minor = 0; minor <= 4; minor++) {
+                    for (int patch = 0; patch <= 4; patch++) {
+                        for (String prerelease : PRERELEASES) {
+                            Version version = new Version(major, minor, patch, prerelease, null);
+                            insert.setInt(1, universe.size());
+                            insert.setInt(2, major);
+                            insert.setInt(3, minor);
+                            insert.setInt(4, patch);
+                            if (prerelease == null) {
+                                insert.setNull(5, Types.VARCHAR);
+                            } else {
+                                insert.setString(5, prerelease);
+                            }
+                            insert.addBatch();
+                            universe.add(version);
+                        }
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void testMatchesIsSatisfiedBy() throws SQLException {
+        SqlPredicateGenerator generator = new SqlPredicateGenerator("pkg_major", "pkg_minor", "pkg_patch", "pkg_prerelease");
+        for (String string : SPECS) {
+            NodeVersionSpec spec = NodeVersionSpec.of(string);
+            SqlPredicate predicate = generator.generate(spec);
+
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < universe.size(); i++) {
+                if (spec.isSatisfiedBy(universe.get(i))) {
+                    expected.add(i);
+                }
+            }
+
+            Set<Integer> actual = select(predicate);
+            if (predicate.isExact()) {
+                assertEquals(string + ": " + predicate, expected, actual);
+            } else {
+                assertTrue(string + ": " + predicate, actual.containsAll(expected));
+                // The extra rows are pre-releases that pass the recheck the caller is asked to do
+                for (int id : actual) {
+                    if (!expected.contains(id)) {
+                        assertTrue(string, universe.get(id).getPrerelease() != null);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExact() {
+        SqlPredicateGenerator generator = new SqlPredicateGenerator();
+        for (String string : Arrays.asList("^1.2.3", "~1.2", ">=1.2.3-0", "=1.2.3-alpha", "1.2.3 - 2.3.4")) {
+            assertTrue(string, generator.generate(NodeVersionSpec.of(string)).isExact());
+        }
+        assertFalse(generator.generate(NodeVersionSpec.of(">=1.2.3-beta.2")).isExact());
+    }
+
+    @Test
+    public void testConstants() {
+        SqlPredicateGenerator generator = new SqlPredicateGenerator();
+        assertEquals("1 = 0", generator.generate(NodeVersionSpec.LATEST).getSql());
+        assertEquals("1 = 1", generator.generate(NodeVersionSpec.of("*")).getSql());
+    }
+
+    @Test
+    public void testParameters() {
+        SqlPredicate predicate = new SqlPredicateGenerator().generate(NodeVersionSpec.of("=1.2.3-alpha"));
+        assertEquals("prerelease IS NOT NULL AND (major = ? AND minor = ? AND patch = ? AND prerelease = ?)",
+                predicate.getSql());
+        assertEquals(Arrays.<Object>asList(1, 2, 3, "alpha"), predicate.getParameters());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidColumn() {
+        new SqlPredicateGenerator("major; DROP TABLE versions", "minor", "patch", "prerelease");
+    }
+
+    private Set<Integer> select(SqlPredicate predicate) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM versions WHERE " + predicate.getSql())) {
+            predicate.bind(select, 1);
+            try (ResultSet results = select.executeQuery()) {
+                while (results.next()) {
+                    ids.add(results.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+}